@@ -0,0 +1,65 @@
+package com.example.hashing.benchmarks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The original ring engine (TreeMap positions, MessageDigest MD5 per call),
+ * kept as the reference point for benchmarks. Console output is dropped;
+ * virtual nodes use the same "name#i" placement as ConsistentHashRing.
+ */
+public class BaselineTreeMapRing {
+    private final SortedMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> servers = new HashSet<>();
+    private final int virtualNodes;
+
+    public BaselineTreeMapRing(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public void addServer(String server) {
+        if (!servers.add(server)) return;
+        ring.put(computeHash(server), server);
+        for (int i = 1; i < virtualNodes; i++) {
+            ring.put(computeHash(server + "#" + i), server);
+        }
+    }
+
+    public void removeServer(String server) {
+        if (!servers.remove(server)) return;
+        ring.remove(computeHash(server));
+        for (int i = 1; i < virtualNodes; i++) {
+            ring.remove(computeHash(server + "#" + i));
+        }
+    }
+
+    public long computeHash(String input) {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            byte[] digest = md5.digest(input.getBytes());
+
+            long hash = 0;
+            for (int i = 0; i < 8 && i < digest.length; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+
+            return Math.abs(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 algorithm not available", e);
+        }
+    }
+
+    public String getServer(String key) {
+        if (ring.isEmpty()) return null;
+        long hash = computeHash(key);
+
+        SortedMap<Long, String> tailMap = ring.tailMap(hash);
+        Long serverHash = tailMap.isEmpty() ? ring.firstKey() : tailMap.firstKey();
+
+        return ring.get(serverHash);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hashing.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Shared fixtures for the benchmarks
+ */
+final class BenchmarkKeys {
+    static final int KEY_COUNT = 1024;
+    static final PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream());
+
+    private BenchmarkKeys() {
+    }
+
+    /**
+     * Deterministic random alphanumeric keys of a fixed length
+     *
+     * @param count  Number of keys (power of two, so callers can mask the index)
+     * @param length Characters per key
+     * @return Keys
+     */
+    static String[] generate(int count, int length) {
+        String alphabet = "abcdefghijklmnopqrstuvwxyz0123456789_";
+        Random random = new Random(42);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder key = new StringBuilder(length);
+            for (int c = 0; c < length; c++) {
+                key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            keys[i] = key.toString();
+        }
+        return keys;
+    }
+
+    static String[] servers(int count) {
+        String[] servers = new String[count];
+        for (int i = 0; i < count; i++) {
+            servers[i] = "10.0." + (i / 256) + "." + (i % 256) + ":8080";
+        }
+        return servers;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.hashing.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suite once per thread count with allocation profiling.
+ * Usage: java -cp target/benchmarks.jar com.example.hashing.benchmarks.BenchmarkRunner [regex] [threads,...]
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "com.example.hashing.benchmarks.*";
+        String[] threadCounts = (args.length > 1 ? args[1] : "1,2,4,8").split(",");
+
+        for (String threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .addProfiler(GCProfiler.class)
+                    .result("jmh-result-t" + threads.trim() + ".json")
+                    .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.hashing.benchmarks;
+
+import com.example.hashing.ConsistentHashRing;
+import com.example.hashing.HashFunction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membership churn: add one server to a populated ring and remove it again
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChurnBenchmark {
+    @Param({"baseline", "ring"})
+    public String engine;
+
+    @Param({"10", "100", "1000"})
+    public int servers;
+
+    @Param({"1", "100"})
+    public int virtualNodes;
+
+    private BaselineTreeMapRing baseline;
+    private ConsistentHashRing ring;
+
+    @Setup
+    public void setup() {
+        if (engine.equals("baseline")) {
+            baseline = new BaselineTreeMapRing(virtualNodes);
+        } else {
+            ring = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+        }
+        for (String server : BenchmarkKeys.servers(servers)) {
+            if (baseline != null) {
+                baseline.addServer(server);
+            } else {
+                ring.addServer(server);
+            }
+        }
+    }
+
+    @Benchmark
+    public void addRemoveServer() {
+        if (baseline != null) {
+            baseline.addServer("churn-server");
+            baseline.removeServer("churn-server");
+        } else {
+            ring.addServer("churn-server");
+            ring.removeServer("churn-server");
+        }
+    }
+}
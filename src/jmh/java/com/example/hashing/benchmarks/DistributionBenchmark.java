@@ -0,0 +1,55 @@
+package com.example.hashing.benchmarks;
+
+import com.example.hashing.ConsistentHashRing;
+import com.example.hashing.HashFunction;
+import com.example.hashing.RingAnalytics;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sampled distribution analysis versus exact arc-based ownership
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistributionBenchmark {
+    @Param({"10", "100"})
+    public int servers;
+
+    @Param({"1", "100"})
+    public int virtualNodes;
+
+    private ConsistentHashRing ring;
+    private PrintStream console;
+
+    @Setup
+    public void setup() {
+        console = System.out;
+        System.setOut(BenchmarkKeys.NULL_OUT);
+        ring = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+        for (String server : BenchmarkKeys.servers(servers)) {
+            ring.addServer(server);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void analyzeDistribution() {
+        ring.analyzeDistribution(10_000);
+    }
+
+    @Benchmark
+    public Map<String, Double> exactOwnership() {
+        return RingAnalytics.ownership(ring.getSnapshot());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.hashing.benchmarks;
+
+import com.example.hashing.HashFunction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of hashing one key: the pluggable hash functions against the
+ * original MessageDigest.getInstance("MD5")-per-call implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashFunctionBenchmark {
+    @Param({"md5", "murmur3", "xxhash64"})
+    public String hashFunction;
+
+    @Param({"8", "32", "128"})
+    public int keyLength;
+
+    private HashFunction function;
+    private BaselineTreeMapRing baseline;
+    private String[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        function = HashFunction.forName(hashFunction);
+        baseline = new BaselineTreeMapRing(1);
+        keys = BenchmarkKeys.generate(BenchmarkKeys.KEY_COUNT, keyLength);
+    }
+
+    private String nextKey() {
+        return keys[next++ & (BenchmarkKeys.KEY_COUNT - 1)];
+    }
+
+    @Benchmark
+    public long computeHash() {
+        return function.hash(nextKey());
+    }
+
+    @Benchmark
+    public long baselineComputeHash() {
+        return baseline.computeHash(nextKey());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.hashing.benchmarks;
+
+import com.example.hashing.ConsistentHashRing;
+import com.example.hashing.HashFunction;
+import com.example.hashing.OffHeapRing;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getServer throughput for each engine. The ring is shared by all benchmark
+ * threads (run with -t N to measure read scalability).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+    /**
+     * baseline = original TreeMap + MD5; ring = ConsistentHashRing with the named hash function;
+     * offheap = OffHeapRing (Eytzinger layout in a direct buffer) with Murmur3
+     */
+    @Param({"baseline", "ring-md5", "ring-murmur3", "ring-xxhash64", "offheap-murmur3"})
+    public String engine;
+
+    @Param({"10", "100", "1000"})
+    public int servers;
+
+    @Param({"1", "100"})
+    public int virtualNodes;
+
+    @Param({"8", "32", "128"})
+    public int keyLength;
+
+    private BaselineTreeMapRing baseline;
+    private ConsistentHashRing ring;
+    private OffHeapRing offHeap;
+    private String[] keys;
+    private String[] batchOut;
+
+    @Setup
+    public void setup() {
+        PrintStream console = System.out;
+        System.setOut(BenchmarkKeys.NULL_OUT);
+        try {
+            if (engine.equals("baseline")) {
+                baseline = new BaselineTreeMapRing(virtualNodes);
+            } else {
+                ring = new ConsistentHashRing(HashFunction.forName(engine.substring(engine.indexOf('-') + 1)), virtualNodes);
+            }
+            for (String server : BenchmarkKeys.servers(servers)) {
+                if (baseline != null) {
+                    baseline.addServer(server);
+                } else {
+                    ring.addServer(server);
+                }
+            }
+            if (engine.startsWith("offheap-")) {
+                offHeap = new OffHeapRing(ring.getSnapshot(), virtualNodes);
+            }
+        } finally {
+            System.setOut(console);
+        }
+        keys = BenchmarkKeys.generate(BenchmarkKeys.KEY_COUNT, keyLength);
+        batchOut = new String[keys.length];
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup
+        public void setup(ThreadParams params) {
+            next = params.getThreadIndex() * 7919;
+        }
+    }
+
+    @Benchmark
+    public String getServer(Cursor cursor) {
+        String key = keys[cursor.next++ & (BenchmarkKeys.KEY_COUNT - 1)];
+        if (offHeap != null) return offHeap.getServer(key);
+        return baseline != null ? baseline.getServer(key) : ring.getServer(key);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkKeys.KEY_COUNT)
+    public String[] getServersBatch() {
+        if (offHeap != null) {
+            for (int i = 0; i < keys.length; i++) {
+                batchOut[i] = offHeap.getServer(keys[i]);
+            }
+        } else if (baseline != null) {
+            for (int i = 0; i < keys.length; i++) {
+                batchOut[i] = baseline.getServer(keys[i]);
+            }
+        } else {
+            ring.getServers(keys, batchOut);
+        }
+        return batchOut;
+    }
+}
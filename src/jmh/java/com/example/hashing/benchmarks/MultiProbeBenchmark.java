@@ -0,0 +1,58 @@
+package com.example.hashing.benchmarks;
+
+import com.example.hashing.ConsistentHashRing;
+import com.example.hashing.HashFunction;
+import com.example.hashing.RingSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server selection for pre-hashed keys on rings with virtual nodes against
+ * multi-probe rings with one position per server. Run with -prof gc to
+ * confirm probing does not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiProbeBenchmark {
+    @Param({"vnodes-100", "vnodes-1000", "probes-11", "probes-21"})
+    public String engine;
+
+    @Param({"100", "1000"})
+    public int servers;
+
+    private RingSnapshot ring;
+    private long[] hashes;
+
+    @Setup
+    public void setup() {
+        int count = Integer.parseInt(engine.substring(engine.indexOf('-') + 1));
+        ConsistentHashRing hashRing = engine.startsWith("vnodes")
+                ? new ConsistentHashRing(HashFunction.murmur3(), count)
+                : new ConsistentHashRing(HashFunction.murmur3(), 1, count);
+        hashRing.applyChanges(Arrays.asList(BenchmarkKeys.servers(servers)), List.of());
+        ring = hashRing.getSnapshot();
+        Random random = new Random(42);
+        hashes = new long[BenchmarkKeys.KEY_COUNT];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong() >>> 1;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String serverFor(Cursor cursor) {
+        return ring.serverFor(hashes[cursor.next++ & (BenchmarkKeys.KEY_COUNT - 1)]);
+    }
+}
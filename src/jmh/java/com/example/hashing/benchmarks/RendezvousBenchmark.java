@@ -0,0 +1,67 @@
+package com.example.hashing.benchmarks;
+
+import com.example.hashing.ConsistentHashRing;
+import com.example.hashing.HashFunction;
+import com.example.hashing.RendezvousRouter;
+import com.example.hashing.RingSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server selection for pre-hashed keys: the ring's binary search against
+ * rendezvous scoring of every server, to find the crossover server count.
+ * Add -jvmArgsAppend "--add-modules jdk.incubator.vector" to a -Pvector
+ * build to include the vector scorer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RendezvousBenchmark {
+    @Param({"ring", "rendezvous", "rendezvous-vector", "rendezvous-weighted"})
+    public String engine;
+
+    @Param({"5", "10", "20", "50", "100", "500", "1000"})
+    public int servers;
+
+    private RingSnapshot ring;
+    private RendezvousRouter rendezvous;
+    private long[] hashes;
+
+    @Setup
+    public void setup() {
+        String[] names = BenchmarkKeys.servers(servers);
+        if (engine.equals("ring")) {
+            ConsistentHashRing hashRing = new ConsistentHashRing(HashFunction.murmur3(), 100);
+            hashRing.applyChanges(Arrays.asList(names), List.of());
+            ring = hashRing.getSnapshot();
+        } else {
+            rendezvous = new RendezvousRouter(HashFunction.murmur3(), engine.equals("rendezvous-vector"));
+            for (int i = 0; i < names.length; i++) {
+                rendezvous.addServer(names[i], engine.equals("rendezvous-weighted") ? 1 + i % 3 : 1);
+            }
+        }
+        Random random = new Random(42);
+        hashes = new long[BenchmarkKeys.KEY_COUNT];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong() >>> 1;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String serverFor(Cursor cursor) {
+        long hash = hashes[cursor.next++ & (BenchmarkKeys.KEY_COUNT - 1)];
+        return ring != null ? ring.serverFor(hash) : rendezvous.serverFor(hash);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.hashing.benchmarks;
+
+import com.example.hashing.ConsistentHashRing;
+import com.example.hashing.HashFunction;
+import com.example.hashing.JumpHashRouter;
+import com.example.hashing.KeyRouter;
+import com.example.hashing.MaglevRouter;
+import com.example.hashing.RendezvousRouter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup throughput of the KeyRouter engines on the same servers and keys
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouterBenchmark {
+    @Param({"ring", "jump", "maglev", "rendezvous"})
+    public String engine;
+
+    @Param({"10", "100", "1000"})
+    public int servers;
+
+    private KeyRouter router;
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        switch (engine) {
+            case "ring":
+                router = new ConsistentHashRing(HashFunction.murmur3(), 100);
+                break;
+            case "jump":
+                router = new JumpHashRouter();
+                break;
+            case "maglev":
+                router = new MaglevRouter();
+                break;
+            case "rendezvous":
+                router = new RendezvousRouter();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+        PrintStream console = System.out;
+        System.setOut(BenchmarkKeys.NULL_OUT);
+        try {
+            for (String server : BenchmarkKeys.servers(servers)) {
+                router.addServer(server);
+            }
+        } finally {
+            System.setOut(console);
+        }
+        keys = BenchmarkKeys.generate(BenchmarkKeys.KEY_COUNT, 32);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String getServer(Cursor cursor) {
+        return router.getServer(keys[cursor.next++ & (BenchmarkKeys.KEY_COUNT - 1)]);
+    }
+}
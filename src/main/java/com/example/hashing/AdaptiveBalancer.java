@@ -0,0 +1,414 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Evens out load by adding and removing individual ring positions.
+ *
+ * Every step observes the load of each server relative to its weight,
+ * either the exact arc ownership of the current ring or the lookups counted
+ * by the ring's metrics since the previous step. Overloaded servers then
+ * give up their last position and underloaded servers take their next one,
+ * most extreme first. A change is only planned if it does not leave the
+ * server taking over the arc worse off than the server it relieves, and the
+ * step stops when the arcs planned so far reach the per-step cap on moved
+ * keys. Arc sizes stand in for the traffic they carry, so with lookup
+ * observations the plan is an estimate; every step reports the exact moved
+ * fraction.
+ *
+ * Servers marked down take no part: they have no share of the load, and
+ * the arcs a move hands over are measured to where keys are routed, past
+ * any positions of down servers.
+ *
+ * Steps publish through ConsistentHashRing.adjustPositions and only take
+ * the ring's write lock to publish, so lookups never wait. A step planned
+ * on a snapshot that changed in the meantime is dropped.
+ */
+public class AdaptiveBalancer {
+    public static final double DEFAULT_TARGET_IMBALANCE = 1.05;
+    public static final double DEFAULT_MAX_MOVED_FRACTION = 0.01;
+    private static final int GROWTH_CANDIDATES = 16;
+
+    private final ConsistentHashRing ring;
+    private double targetImbalance = DEFAULT_TARGET_IMBALANCE;
+    private double maxMovedFraction = DEFAULT_MAX_MOVED_FRACTION;
+    private boolean observeLookups;
+    private Map<String, Long> lastCounts = new HashMap<>();
+    private final List<Consumer<BalanceStep>> stepListeners = new ArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public AdaptiveBalancer(ConsistentHashRing ring) {
+        if (ring.getProbes() > 1) {
+            throw new IllegalArgumentException("Adaptive balancing needs a classic ring, not " + ring.getProbes() + " probes");
+        }
+        this.ring = ring;
+    }
+
+    /**
+     * Stop changing the ring once the peak-to-average load is at most this
+     *
+     * @param targetImbalance Target ratio (greater than 1)
+     * @return This balancer
+     */
+    public synchronized AdaptiveBalancer targetImbalance(double targetImbalance) {
+        if (!(targetImbalance > 1)) {
+            throw new IllegalArgumentException("targetImbalance must be greater than 1: " + targetImbalance);
+        }
+        this.targetImbalance = targetImbalance;
+        return this;
+    }
+
+    /**
+     * Cap on the fraction of the hash space one step may move
+     *
+     * @param maxMovedFraction Fraction in (0, 1]
+     * @return This balancer
+     */
+    public synchronized AdaptiveBalancer maxMovedFraction(double maxMovedFraction) {
+        if (!(maxMovedFraction > 0 && maxMovedFraction <= 1)) {
+            throw new IllegalArgumentException("maxMovedFraction must be in (0, 1]: " + maxMovedFraction);
+        }
+        this.maxMovedFraction = maxMovedFraction;
+        return this;
+    }
+
+    /**
+     * Observe exact arc ownership of the current ring (the default)
+     *
+     * @return This balancer
+     */
+    public synchronized AdaptiveBalancer observeOwnership() {
+        observeLookups = false;
+        return this;
+    }
+
+    /**
+     * Observe lookups counted since the previous step; enables ring metrics if needed
+     *
+     * @return This balancer
+     */
+    public synchronized AdaptiveBalancer observeLookups() {
+        if (ring.getMetrics() == null) ring.enableMetrics();
+        observeLookups = true;
+        lastCounts = new HashMap<>(ring.getMetrics().snapshot().getLookupsPerServer());
+        return this;
+    }
+
+    /**
+     * Receive every step, e.g. to log moved fractions (called on the stepping thread)
+     *
+     * @param listener Step consumer
+     */
+    public synchronized void addStepListener(Consumer<BalanceStep> listener) {
+        stepListeners.add(listener);
+    }
+
+    /**
+     * Observe load, plan position changes within the cap and publish them
+     *
+     * @return What the step did
+     */
+    public synchronized BalanceStep step() {
+        RingSnapshot before = ring.getSnapshot();
+        int n = before.serverCount();
+        double[] loads = observe(before);
+        double[] share = new double[n];
+        double[] ratio = new double[n];
+        int totalWeight = 0;
+        for (int s = 0; s < n; s++) {
+            if (!before.isDown(s)) totalWeight += before.weight(s);
+        }
+        double imbalance = 0;
+        for (int s = 0; s < n; s++) {
+            if (before.isDown(s)) {
+                ratio[s] = 1;
+                continue;
+            }
+            share[s] = before.weight(s) / (double) totalWeight;
+            ratio[s] = loads == null ? 1 : loads[s] / share[s];
+            imbalance = Math.max(imbalance, ratio[s]);
+        }
+        if (loads == null || totalWeight == 0 || imbalance <= targetImbalance) {
+            return notify(new BalanceStep(before.epoch(), before.epoch(), imbalance, 0, 0, 0, 0, true));
+        }
+
+        Integer[] order = new Integer[n];
+        for (int s = 0; s < n; s++) {
+            order[s] = s;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(ratio[b], ratio[a]));
+        HashFunction hashFunction = ring.getHashFunction();
+        boolean[] touched = new boolean[n];
+        for (int s = 0; s < n; s++) {
+            // Down servers neither give up nor take over arcs
+            touched[s] = before.isDown(s);
+        }
+        List<Long> added = new ArrayList<>();
+        List<Integer> addedOwners = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        List<Integer> removedOwners = new ArrayList<>();
+        double planned = 0;
+        // Most overloaded and most underloaded servers first, alternately
+        for (int hi = 0, lo = n - 1; hi <= lo && planned < maxMovedFraction; hi++, lo--) {
+            for (int side = 0; side < 2; side++) {
+                int s = side == 0 ? order[hi] : order[lo];
+                if (touched[s]) continue;
+                boolean shrink = ratio[s] > 1;
+                String server = before.server(s);
+                int[] held = ring.heldIndices(before, server);
+                if (shrink && held.length <= 1) continue;
+
+                Move best = null;
+                for (long position : shrink ? heldPositions(hashFunction, server, held) : freePositions(hashFunction, server, held)) {
+                    Move move = shrink ? removal(before, position, s) : addition(before, position, s);
+                    if (move == null || touched[move.other] || planned + move.arc > maxMovedFraction) continue;
+                    move.score(loads, share);
+                    if (move.gain > 0 && (best == null || move.gain > best.gain)) best = move;
+                }
+                if (best == null) continue;
+
+                int gainer = shrink ? best.other : s;
+                int loser = shrink ? s : best.other;
+                loads[gainer] += best.arc;
+                loads[loser] -= best.arc;
+                ratio[gainer] = loads[gainer] / share[gainer];
+                ratio[loser] = loads[loser] / share[loser];
+                touched[s] = true;
+                touched[best.other] = true;
+                (shrink ? removed : added).add(best.position);
+                (shrink ? removedOwners : addedOwners).add(s);
+                planned += best.arc;
+            }
+        }
+
+        long[] addedPositions = toLongs(added);
+        long[] removedPositions = toLongs(removed);
+        if (!ring.applyPositionChanges(addedPositions, toInts(addedOwners), removedPositions, toInts(removedOwners),
+                before.epoch())) {
+            return notify(new BalanceStep(before.epoch(), before.epoch(), imbalance, 0, 0, 0, 0, false));
+        }
+        RingSnapshot after = ring.getSnapshot();
+        double moved = RingAnalytics.movedFraction(RingAnalytics.diff(before, after));
+        return notify(new BalanceStep(before.epoch(), after.epoch(), imbalance, addedPositions.length,
+                removedPositions.length, planned, moved, false));
+    }
+
+    /**
+     * A candidate position change: the arc that changes hands between the
+     * server and one other server
+     */
+    private static final class Move {
+        final long position;
+        final int server;
+        final int other;
+        final double arc;
+        final boolean shrink;
+        double gain;
+
+        Move(long position, int server, int other, double arc, boolean shrink) {
+            this.position = position;
+            this.server = server;
+            this.other = other;
+            this.arc = arc;
+            this.shrink = shrink;
+        }
+
+        /**
+         * Drop in the share-weighted squared deviation from a fair load; moves
+         * that raise the higher ratio of the pair score nothing
+         */
+        void score(double[] loads, double[] share) {
+            int gainer = shrink ? other : server;
+            int loser = shrink ? server : other;
+            double gainerBefore = loads[gainer] / share[gainer];
+            double loserBefore = loads[loser] / share[loser];
+            double gainerAfter = (loads[gainer] + arc) / share[gainer];
+            double loserAfter = (loads[loser] - arc) / share[loser];
+            if (Math.max(gainerAfter, loserAfter) >= Math.max(gainerBefore, loserBefore)) return;
+            gain = deviation(gainerBefore, share[gainer]) + deviation(loserBefore, share[loser])
+                    - deviation(gainerAfter, share[gainer]) - deviation(loserAfter, share[loser]);
+        }
+
+        private static double deviation(double ratio, double share) {
+            return share * (ratio - 1) * (ratio - 1);
+        }
+    }
+
+    /**
+     * Candidates for a shrinking server: every position it holds
+     */
+    private static long[] heldPositions(HashFunction hashFunction, String server, int[] held) {
+        long[] positions = new long[held.length];
+        for (int i = 0; i < held.length; i++) {
+            positions[i] = ConsistentHashRing.positionOf(hashFunction, server, held[i]);
+        }
+        return positions;
+    }
+
+    /**
+     * Candidates for a growing server: the lowest indices of its sequence it does not hold
+     */
+    private static long[] freePositions(HashFunction hashFunction, String server, int[] held) {
+        long[] positions = new long[GROWTH_CANDIDATES];
+        for (int index = 0, h = 0, k = 0; k < positions.length; index++) {
+            if (h < held.length && held[h] == index) {
+                h++;
+                continue;
+            }
+            positions[k++] = ConsistentHashRing.positionOf(hashFunction, server, index);
+        }
+        return positions;
+    }
+
+    private static long[] toLongs(List<Long> values) {
+        long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    private static int[] toInts(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Load fraction per server ordinal, or null when nothing was observed
+     */
+    private double[] observe(RingSnapshot snapshot) {
+        if (!observeLookups) return RingAnalytics.ownershipByOrdinal(snapshot);
+
+        RingMetrics metrics = ring.getMetrics();
+        if (metrics == null) return null;
+        Map<String, Long> counts = metrics.snapshot().getLookupsPerServer();
+        double[] loads = new double[snapshot.serverCount()];
+        long total = 0;
+        for (int s = 0; s < loads.length; s++) {
+            String server = snapshot.server(s);
+            long count = counts.getOrDefault(server, 0L) - lastCounts.getOrDefault(server, 0L);
+            loads[s] = Math.max(0, count);
+            total += loads[s];
+        }
+        lastCounts = new HashMap<>(counts);
+        if (total == 0) return null;
+        for (int s = 0; s < loads.length; s++) {
+            loads[s] /= total;
+        }
+        return loads;
+    }
+
+    /**
+     * A new position of server s takes over the arc up to it from the server
+     * those keys are routed to now
+     */
+    private static Move addition(RingSnapshot snapshot, long position, int s) {
+        int index = snapshot.indexFor(position);
+        int routed = snapshot.healthyIndex(index);
+        if (routed < 0) return null;
+        int donor = snapshot.ownerAt(routed);
+        if (donor == s) return null;
+        return new Move(position, s, donor, RingAnalytics.arcFraction(previousHealthy(snapshot, index), position), false);
+    }
+
+    /**
+     * Removing a position of server s hands its arc to the server the next position routes to
+     */
+    private static Move removal(RingSnapshot snapshot, long position, int s) {
+        int size = snapshot.size();
+        int index = snapshot.indexFor(position);
+        while (snapshot.ownerAt(index) != s) {
+            index = index + 1 == size ? 0 : index + 1;
+            if (snapshot.positionAt(index) != position) return null;
+        }
+        int next = index + 1 == size ? 0 : index + 1;
+        int routed = snapshot.healthyIndex(next);
+        if (routed < 0) return null;
+        int receiver = snapshot.ownerAt(routed);
+        if (receiver == s) return null;
+        return new Move(position, s, receiver, RingAnalytics.arcFraction(previousHealthy(snapshot, index), position), true);
+    }
+
+    /**
+     * Position of the nearest healthy server counter-clockwise of index: keys
+     * after it up to index are all routed through index
+     */
+    private static long previousHealthy(RingSnapshot snapshot, int index) {
+        int size = snapshot.size();
+        int previous = index;
+        for (int step = 0; step < size; step++) {
+            previous = previous == 0 ? size - 1 : previous - 1;
+            if (!snapshot.isDown(snapshot.ownerAt(previous))) break;
+        }
+        return snapshot.positionAt(previous);
+    }
+
+    private BalanceStep notify(BalanceStep step) {
+        for (Consumer<BalanceStep> listener : stepListeners) {
+            listener.accept(step);
+        }
+        return step;
+    }
+
+    /**
+     * Step until balanced or no step makes progress
+     *
+     * @param maxSteps Upper bound on steps
+     * @return Steps taken
+     */
+    public List<BalanceStep> runUntilBalanced(int maxSteps) {
+        List<BalanceStep> steps = new ArrayList<>();
+        for (int i = 0; i < maxSteps; i++) {
+            BalanceStep step = step();
+            steps.add(step);
+            if (!step.isChanged()) break;
+        }
+        return steps;
+    }
+
+    /**
+     * Step in the background on a daemon thread
+     *
+     * @param intervalMillis Delay between steps
+     */
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "adaptive-balancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                step();
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) running.shutdownNow();
+    }
+
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs the AdaptiveBalancer on a ring with few virtual nodes: first from
+ * exact arc ownership, then in the background from live lookup counts
+ * while a worker keeps routing keys.
+ */
+public class AdaptiveBalancingDemo {
+    public static void main(String[] args) throws InterruptedException {
+        int servers = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int virtualNodes = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        System.out.println("⚖️ ============================================");
+        System.out.println("⚖️        ADAPTIVE POSITION BALANCING         ");
+        System.out.println("⚖️ ============================================\n");
+
+        List<String> names = new ArrayList<>();
+        for (int s = 0; s < servers; s++) {
+            names.add("Server-" + s);
+        }
+
+        System.out.println("📝 Balancing from arc ownership (cap 1% moved per step)");
+        ConsistentHashRing ring = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+        ring.applyChanges(names, List.of());
+        System.out.printf("Initial peak/avg ownership: %.3f\n", RingAnalytics.peakToAverage(ring.getSnapshot()));
+        AdaptiveBalancer balancer = new AdaptiveBalancer(ring).targetImbalance(1.05).maxMovedFraction(0.01);
+        for (BalanceStep step : balancer.runUntilBalanced(100)) {
+            System.out.println("  " + step);
+        }
+        System.out.printf("Final peak/avg ownership: %.3f (%d positions)\n\n",
+                RingAnalytics.peakToAverage(ring.getSnapshot()), ring.getRingSize());
+
+        System.out.println("📝 Balancing from live lookups in the background");
+        ConsistentHashRing live = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+        live.applyChanges(names, List.of());
+        AdaptiveBalancer background = new AdaptiveBalancer(live).targetImbalance(1.1).observeLookups();
+        background.addStepListener(step -> {
+            if (step.isChanged()) System.out.println("  " + step);
+        });
+        Thread worker = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (!Thread.currentThread().isInterrupted()) {
+                live.getServer("key_" + random.nextInt(1_000_000));
+            }
+        }, "lookup-worker");
+        worker.setDaemon(true);
+        worker.start();
+        background.start(200);
+        Thread.sleep(3_000);
+        background.stop();
+        worker.interrupt();
+        worker.join();
+        System.out.printf("Peak/avg ownership after live balancing: %.3f\n", RingAnalytics.peakToAverage(live.getSnapshot()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.hashing;
+
+/**
+ * Outcome of one AdaptiveBalancer step
+ */
+public final class BalanceStep {
+    private final long fromEpoch;
+    private final long toEpoch;
+    private final double imbalance;
+    private final int positionsAdded;
+    private final int positionsRemoved;
+    private final double estimatedMovedFraction;
+    private final double movedFraction;
+    private final boolean balanced;
+
+    BalanceStep(long fromEpoch, long toEpoch, double imbalance, int positionsAdded, int positionsRemoved,
+                double estimatedMovedFraction, double movedFraction, boolean balanced) {
+        this.fromEpoch = fromEpoch;
+        this.toEpoch = toEpoch;
+        this.imbalance = imbalance;
+        this.positionsAdded = positionsAdded;
+        this.positionsRemoved = positionsRemoved;
+        this.estimatedMovedFraction = estimatedMovedFraction;
+        this.movedFraction = movedFraction;
+        this.balanced = balanced;
+    }
+
+    public long getFromEpoch() {
+        return fromEpoch;
+    }
+
+    /**
+     * Epoch after the step (same as getFromEpoch if nothing changed)
+     */
+    public long getToEpoch() {
+        return toEpoch;
+    }
+
+    /**
+     * Observed peak-to-average load before the step, relative to server weights
+     */
+    public double getImbalance() {
+        return imbalance;
+    }
+
+    public int getPositionsAdded() {
+        return positionsAdded;
+    }
+
+    public int getPositionsRemoved() {
+        return positionsRemoved;
+    }
+
+    /**
+     * Moved fraction the step was planned with (compared against the cap)
+     */
+    public double getEstimatedMovedFraction() {
+        return estimatedMovedFraction;
+    }
+
+    /**
+     * Exact fraction of the hash space that changed owner
+     */
+    public double getMovedFraction() {
+        return movedFraction;
+    }
+
+    public boolean isChanged() {
+        return toEpoch != fromEpoch;
+    }
+
+    /**
+     * Whether the observed imbalance was already within the target
+     */
+    public boolean isBalanced() {
+        return balanced;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BalanceStep{epoch %d → %d, imbalance %.3f, +%d/-%d positions, moved %.3f%%%s}",
+                fromEpoch, toEpoch, imbalance, positionsAdded, positionsRemoved, movedFraction * 100,
+                balanced ? ", balanced" : "");
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.hashing;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch routing against a ring snapshot: hash a chunk of keys, radix sort
+ * the hashes (carrying the key index along), then assign owners in one
+ * forward pass over the sorted ring positions. The pass gallops from the
+ * previous match, so sparse batches on large rings still cost
+ * O(m log(n / m)) rather than O(n). Large batches are split into chunks
+ * that run on the common fork-join pool. Multi-probe snapshots route each
+ * key on its own.
+ */
+final class BatchLookup {
+    static final int PARALLEL_THRESHOLD = 16_384;
+    private static final int CHUNK_SIZE = 8_192;
+    private static final int INSERTION_SORT_THRESHOLD = 64;
+
+    private BatchLookup() {
+    }
+
+    /**
+     * Route a batch of keys
+     *
+     * @param snapshot Snapshot to route against (must have a healthy server)
+     * @param keys     Keys to route
+     * @param ordinals Output: server ordinal for each key
+     * @param count    Number of keys to route
+     */
+    static void route(RingSnapshot snapshot, CharSequence[] keys, int[] ordinals, int count) {
+        if (count < PARALLEL_THRESHOLD) {
+            routeChunk(snapshot, keys, ordinals, 0, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ChunkTask(snapshot, keys, ordinals, 0, count));
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RingSnapshot snapshot;
+        private final CharSequence[] keys;
+        private final int[] ordinals;
+        private final int from;
+        private final int to;
+
+        ChunkTask(RingSnapshot snapshot, CharSequence[] keys, int[] ordinals, int from, int to) {
+            this.snapshot = snapshot;
+            this.keys = keys;
+            this.ordinals = ordinals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                routeChunk(snapshot, keys, ordinals, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(snapshot, keys, ordinals, from, mid),
+                    new ChunkTask(snapshot, keys, ordinals, mid, to));
+        }
+    }
+
+    private static void routeChunk(RingSnapshot snapshot, CharSequence[] keys, int[] ordinals, int from, int to) {
+        HashFunction hashFunction = snapshot.hashFunction();
+        if (snapshot.probes() > 1) {
+            // Probe points of neighbouring keys are unrelated, so there is no sorted pass to share
+            for (int i = from; i < to; i++) {
+                ordinals[i] = snapshot.ownerAt(snapshot.routeIndex(hashFunction.hash(keys[i])));
+            }
+            return;
+        }
+        int length = to - from;
+        long[] hashes = new long[length];
+        int[] indexes = new int[length];
+        for (int i = 0; i < length; i++) {
+            hashes[i] = hashFunction.hash(keys[from + i]);
+            indexes[i] = from + i;
+        }
+        sort(hashes, indexes);
+        assign(snapshot, hashes, indexes, ordinals);
+    }
+
+    /**
+     * Merge-walk sorted hashes against the sorted ring positions
+     *
+     * @param snapshot Snapshot to route against
+     * @param hashes   Key hashes, sorted ascending
+     * @param indexes  Output slot for each hash
+     * @param ordinals Output: server ordinal per slot
+     */
+    static void assign(RingSnapshot snapshot, long[] hashes, int[] indexes, int[] ordinals) {
+        int size = snapshot.size();
+        int position = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            position = gallop(snapshot, hashes[i], position);
+            ordinals[indexes[i]] = snapshot.ownerAt(snapshot.healthyIndex(position == size ? 0 : position));
+        }
+    }
+
+    /**
+     * First position index at or after start whose hash is >= the given hash
+     */
+    private static int gallop(RingSnapshot snapshot, long hash, int start) {
+        int size = snapshot.size();
+        if (start >= size || snapshot.positionAt(start) >= hash) return start;
+
+        // Exponential probe, then binary search inside the last step
+        int low = start;
+        int step = 1;
+        int high = start + step;
+        while (high < size && snapshot.positionAt(high) < hash) {
+            low = high;
+            step <<= 1;
+            high = start + step;
+        }
+        high = Math.min(high, size);
+        // Invariant: positionAt(low) < hash, and high == size or positionAt(high) >= hash
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (snapshot.positionAt(mid) < hash) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Sort non-negative hashes ascending, permuting the payload the same way
+     *
+     * @param keys   Hashes to sort
+     * @param values Payload moved along with each hash
+     */
+    static void sort(long[] keys, int[] values) {
+        if (keys.length <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, values);
+            return;
+        }
+        long[] keyBuffer = new long[keys.length];
+        int[] valueBuffer = new int[values.length];
+        long[] srcKeys = keys;
+        int[] srcValues = values;
+        int[] counts = new int[256];
+
+        // LSD radix sort, 8 bits per pass; passes where every key shares the byte are skipped
+        for (int shift = 0; shift < 64; shift += 8) {
+            java.util.Arrays.fill(counts, 0);
+            for (long key : srcKeys) {
+                counts[(int) (key >>> shift) & 0xFF]++;
+            }
+            if (counts[(int) (srcKeys[0] >>> shift) & 0xFF] == srcKeys.length) continue;
+
+            int total = 0;
+            for (int b = 0; b < 256; b++) {
+                int c = counts[b];
+                counts[b] = total;
+                total += c;
+            }
+            for (int i = 0; i < srcKeys.length; i++) {
+                int slot = counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+                keyBuffer[slot] = srcKeys[i];
+                valueBuffer[slot] = srcValues[i];
+            }
+            long[] swapKeys = srcKeys;
+            srcKeys = keyBuffer;
+            keyBuffer = swapKeys;
+            int[] swapValues = srcValues;
+            srcValues = valueBuffer;
+            valueBuffer = swapValues;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, keys.length);
+            System.arraycopy(srcValues, 0, values, 0, values.length);
+        }
+    }
+
+    private static void insertionSort(long[] keys, int[] values) {
+        for (int i = 1; i < keys.length; i++) {
+            long key = keys[i];
+            int value = values[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+    }
+}
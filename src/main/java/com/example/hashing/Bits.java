@@ -0,0 +1,36 @@
+package com.example.hashing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Little-endian reads from byte arrays and buffers shared by the hash
+ * functions. Buffer reads are absolute and ignore the buffer's byte order.
+ */
+final class Bits {
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_INT_LE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private Bits() {
+    }
+
+    static long getLong(byte[] data, int offset) {
+        return (long) LONG_LE.get(data, offset);
+    }
+
+    static long getUnsignedInt(byte[] data, int offset) {
+        return ((int) INT_LE.get(data, offset)) & 0xFFFFFFFFL;
+    }
+
+    static long getLong(ByteBuffer data, int index) {
+        return (long) BUFFER_LONG_LE.get(data, index);
+    }
+
+    static long getUnsignedInt(ByteBuffer data, int index) {
+        return ((int) BUFFER_INT_LE.get(data, index)) & 0xFFFFFFFFL;
+    }
+}
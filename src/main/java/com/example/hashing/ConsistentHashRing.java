@@ -1,65 +1,517 @@
 package com.example.hashing;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A Consistent Hashing Implementation in Java
- * This implementation uses MD5 hash function
+ * The hash function is pluggable (Murmur3 by default, MD5 for compatibility)
+ *
+ * Each server is placed at (virtual nodes x weight) positions. Position 0 is
+ * the hash of the server name and position i is the hash of "name#i", so a
+ * ring with one virtual node places servers exactly like the basic ring.
+ *
+ * In multi-probe mode every key is hashed to several probe points and goes
+ * to the probe whose clockwise successor is nearest, which balances load
+ * with one position per server instead of many virtual nodes (21 probes
+ * give about 1.05 peak-to-average).
+ *
+ * Safe for concurrent use: lookups read a volatile immutable snapshot and
+ * never block, while membership changes are serialized on a writer lock and
+ * publish a complete new snapshot with the next epoch. Registered
+ * RingChangeListeners are told about every published change asynchronously.
  */
-public class ConsistentHashRing {
-    private final SortedMap<Long, String> ring = new TreeMap<>();
-    private final Set<String> servers = new HashSet<>();
+public class ConsistentHashRing implements KeyRouter {
+    private static final int MAX_PRINTED_POSITIONS = 50;
 
+    /**
+     * Probes per key for multi-probe rings, chosen for ~1.05 peak-to-average load
+     */
+    public static final int DEFAULT_PROBES = 21;
+
+    private final HashFunction hashFunction;
+    private final int virtualNodes;
+    private final int probes;
+    private final Object writeLock = new Object();
+    private volatile RingSnapshot snapshot;
+    private volatile LoadTracker loadTracker;
+    private volatile double loadEpsilon;
+    private volatile RingMetrics metrics;
+    private final List<RingChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private ExecutorService notifier;
+    private final Set<String> downServers = new HashSet<>();
+
+    public ConsistentHashRing() {
+        this(HashFunction.murmur3());
+    }
+
+    public ConsistentHashRing(HashFunction hashFunction) {
+        this(hashFunction, 1);
+    }
+
+    /**
+     * Create a ring with virtual nodes
+     *
+     * @param hashFunction Hash function for servers and keys
+     * @param virtualNodes Ring positions per unit of server weight
+     */
+    public ConsistentHashRing(HashFunction hashFunction, int virtualNodes) {
+        this(hashFunction, virtualNodes, 1);
+    }
+
+    /**
+     * Create a multi-probe ring: each key is hashed to probes points and goes
+     * to the one whose next server position clockwise is closest
+     *
+     * @param hashFunction Hash function for servers and keys
+     * @param virtualNodes Ring positions per unit of server weight (1 is enough with enough probes)
+     * @param probes       Probe points per key (1 for a classic ring)
+     */
+    public ConsistentHashRing(HashFunction hashFunction, int virtualNodes, int probes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be at least 1: " + virtualNodes);
+        }
+        if (probes < 1) {
+            throw new IllegalArgumentException("probes must be at least 1: " + probes);
+        }
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        this.virtualNodes = virtualNodes;
+        this.probes = probes;
+        this.snapshot = RingSnapshot.empty(hashFunction, probes);
+    }
+
+    /**
+     * Create a multi-probe ring with one position per unit of weight and DEFAULT_PROBES probes
+     *
+     * @param hashFunction Hash function for servers and keys
+     * @return Empty ring
+     */
+    public static ConsistentHashRing multiProbe(HashFunction hashFunction) {
+        return new ConsistentHashRing(hashFunction, 1, DEFAULT_PROBES);
+    }
+
+    /**
+     * Create a ring starting from an existing snapshot, e.g. one loaded with
+     * RingSnapshotLoader; the snapshot's hash function, epoch and down servers are kept
+     *
+     * @param snapshot     Initial snapshot
+     * @param virtualNodes Virtual nodes the snapshot was built with
+     */
+    public ConsistentHashRing(RingSnapshot snapshot, int virtualNodes) {
+        this(snapshot.hashFunction(), virtualNodes, snapshot.probes());
+        this.snapshot = snapshot;
+        this.downServers.addAll(snapshot.downServers());
+    }
+
+    @Override
     public void addServer(String server) {
-        if (servers.contains(server)) {
-            System.out.println("Server " + server + " already exists in the Ring!");
-            return;
+        addServer(server, 1);
+    }
+
+    /**
+     * Add a server with a weight; it gets weight x virtual nodes ring positions
+     *
+     * @param server Server identifier
+     * @param weight Relative capacity of the server (at least 1)
+     */
+    public void addServer(String server, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be at least 1: " + weight);
         }
+        synchronized (writeLock) {
+            RingSnapshot current = snapshot;
+            if (current.ordinalOf(server) >= 0) return;
 
-        servers.add(server);
-        long hash = computeHash(server);
-        ring.put(hash, server);
+            long[] positions = computePositions(server, weight);
+            Arrays.sort(positions);
+            publish(current, current.withServer(server, weight, positions, current.epoch() + 1),
+                    List.of(server), List.of());
+        }
+    }
 
-        System.out.println("Added server " + server + " to Ring!" + "[ Hash : " + hash + " ]");
+    /**
+     * Add and remove several servers (weight 1) with a single rebuild and a
+     * single published snapshot. Removals are applied before additions;
+     * unknown removals and existing additions are ignored.
+     *
+     * @param add    Servers to add
+     * @param remove Servers to remove
+     * @return true if the ring changed
+     */
+    public boolean applyChanges(Collection<String> add, Collection<String> remove) {
+        Map<String, Integer> weighted = new LinkedHashMap<>();
+        for (String server : add) {
+            weighted.put(server, 1);
+        }
+        return applyChanges(weighted, remove);
     }
 
     /**
-     * MD5 hash function - converts string to long hash value
+     * Add and remove several weighted servers with a single rebuild. A server
+     * that is both removed and added is re-added, e.g. with a new weight.
      *
-     * @param input String to hash
-     * @return Long hash value
+     * @param add    Servers to add with their weights (at least 1)
+     * @param remove Servers to remove
+     * @return true if the ring changed
      */
-    public long computeHash(String input) {
-        try {
-            MessageDigest md5 = MessageDigest.getInstance("MD5");
-            byte[] digest = md5.digest(input.getBytes());
-
-            // Convert byte array to long (using first 8 bytes)
-            long hash = 0;
-            for (int i = 0; i < 8 && i < digest.length; i++) {
-                hash = (hash << 8) | (digest[i] & 0xFF);
+    public boolean applyChanges(Map<String, Integer> add, Collection<String> remove) {
+        for (Map.Entry<String, Integer> entry : add.entrySet()) {
+            if (entry.getValue() < 1) {
+                throw new IllegalArgumentException("weight must be at least 1: " + entry);
+            }
+        }
+        synchronized (writeLock) {
+            RingSnapshot current = snapshot;
+            Set<String> removed = new LinkedHashSet<>();
+            for (String server : remove) {
+                if (current.ordinalOf(server) >= 0) removed.add(server);
+            }
+            Set<String> members = new HashSet<>(current.servers());
+            members.removeAll(removed);
+            TreeSet<String> added = new TreeSet<>();
+            for (String server : add.keySet()) {
+                if (!members.contains(server)) added.add(server);
             }
+            if (removed.isEmpty() && added.isEmpty()) return false;
 
-            return Math.abs(hash); // Ensure positive value
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 algorithm not available", e);
+            String[] addedServers = added.toArray(new String[0]);
+            int[] addedWeights = new int[addedServers.length];
+            long[][] addedPositions = new long[addedServers.length][];
+            for (int a = 0; a < addedServers.length; a++) {
+                addedWeights[a] = add.get(addedServers[a]);
+                addedPositions[a] = computePositions(addedServers[a], addedWeights[a]);
+            }
+            publish(current, current.withChanges(removed, addedServers, addedWeights, addedPositions, current.epoch() + 1),
+                    new ArrayList<>(added), new ArrayList<>(removed));
+            return true;
         }
     }
 
-    public void removeServer(String server) {
-        if (!servers.contains(server)) {
-            System.out.println("❌ Server " + server + " not found in the ring");
-            return;
+    /**
+     * Publish a new snapshot and queue the change for listeners (caller holds writeLock)
+     */
+    private void publish(RingSnapshot previous, RingSnapshot next, List<String> added, List<String> removed) {
+        if (!downServers.isEmpty()) {
+            // Removed servers forget their health; the rest, including servers
+            // re-added with a new weight, stay down in the new layout
+            for (String server : removed) {
+                if (!added.contains(server)) downServers.remove(server);
+            }
+            next = next.withHealth(downServers, next.epoch());
+        }
+        snapshot = next;
+        if (listeners.isEmpty()) return;
+        RingChange change = new RingChange(previous, next, added, removed);
+        notifier().execute(() -> {
+            for (RingChangeListener listener : listeners) {
+                try {
+                    listener.onRingChange(change);
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        });
+    }
+
+    private ExecutorService notifier() {
+        if (notifier == null) {
+            notifier = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "ring-change-notifier");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return notifier;
+    }
+
+    /**
+     * Add or remove individual ring positions of members. A server's
+     * positions are drawn from its position sequence (positionOf index 0, 1,
+     * 2, ...): growing takes the lowest unused indices and shrinking drops
+     * the highest held ones, so a server that only ever grows or shrinks
+     * holds the same positions as one added with that many virtual nodes.
+     * A server keeps at least one position. Publishes a new epoch and
+     * notifies change listeners (with no added or removed servers).
+     *
+     * @param deltas Positions to add (positive) or remove (negative) per server; non-members are ignored
+     * @return true if the ring changed
+     */
+    public boolean adjustPositions(Map<String, Integer> deltas) {
+        synchronized (writeLock) {
+            RingSnapshot current = snapshot;
+            List<Long> added = new ArrayList<>();
+            List<Integer> addedOwners = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            List<Integer> removedOwners = new ArrayList<>();
+            for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+                String server = delta.getKey();
+                int ordinal = current.ordinalOf(server);
+                if (ordinal < 0 || delta.getValue() == 0) continue;
+                int[] held = heldIndices(current, server);
+                int change = Math.max(delta.getValue(), 1 - held.length);
+                for (int index = 0, h = 0; change > 0; index++) {
+                    if (h < held.length && held[h] == index) {
+                        h++;
+                        continue;
+                    }
+                    added.add(positionOf(hashFunction, server, index));
+                    addedOwners.add(ordinal);
+                    change--;
+                }
+                for (int h = held.length - 1; change < 0; h--, change++) {
+                    removed.add(positionOf(hashFunction, server, held[h]));
+                    removedOwners.add(ordinal);
+                }
+            }
+            return applyPositionChanges(toLongs(added), toInts(addedOwners), toLongs(removed), toInts(removedOwners), -1);
         }
-        servers.remove(server);
+    }
+
+    /**
+     * Publish explicit position changes if the ring is still at an expected epoch
+     *
+     * @param expectedEpoch Epoch the changes were planned for (-1 for any)
+     * @return true if the ring changed
+     */
+    boolean applyPositionChanges(long[] added, int[] addedOwners, long[] removed, int[] removedOwners,
+                                 long expectedEpoch) {
+        synchronized (writeLock) {
+            RingSnapshot current = snapshot;
+            if (expectedEpoch >= 0 && current.epoch() != expectedEpoch) return false;
+            if (added.length == 0 && removed.length == 0) return false;
+            publish(current, current.withPositions(added, addedOwners, removed, removedOwners, current.epoch() + 1),
+                    List.of(), List.of());
+            return true;
+        }
+    }
+
+    /**
+     * Indices of the server's position sequence it holds in a snapshot, ascending
+     *
+     * @param snapshot Ring snapshot
+     * @param server   Member of the snapshot
+     * @return Held indices
+     */
+    int[] heldIndices(RingSnapshot snapshot, String server) {
+        int ordinal = snapshot.ordinalOf(server);
+        long[] owned = new long[snapshot.size()];
+        int count = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.ownerAt(i) == ordinal) owned[count++] = snapshot.positionAt(i);
+        }
+        // Owned positions are ascending; every one of them is some index of the sequence
+        int[] held = new int[count];
+        int found = 0;
+        for (int index = 0; found < count; index++) {
+            if (Arrays.binarySearch(owned, 0, count, positionOf(hashFunction, server, index)) >= 0) {
+                held[found++] = index;
+            }
+        }
+        return held;
+    }
+
+    private static long[] toLongs(List<Long> values) {
+        long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    private static int[] toInts(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Number of ring positions a server currently holds
+     *
+     * @param server Server identifier
+     * @return Position count (0 if not a member)
+     */
+    public int getPositionCount(String server) {
+        RingSnapshot current = snapshot;
+        int ordinal = current.ordinalOf(server);
+        return ordinal < 0 ? 0 : current.positionCounts()[ordinal];
+    }
+
+    /**
+     * Route around a server without changing the ring layout: its keys fall
+     * through to the next healthy server clockwise until markUp, which sends
+     * them back. Publishes a new epoch (caches refresh) but is not a
+     * membership change, so change listeners are not notified.
+     *
+     * @param server Member to mark down
+     * @return true if the server was up and is now down
+     */
+    public boolean markDown(String server) {
+        synchronized (writeLock) {
+            RingSnapshot current = snapshot;
+            if (current.ordinalOf(server) < 0 || !downServers.add(server)) return false;
+            snapshot = current.withHealth(downServers, current.epoch() + 1);
+            return true;
+        }
+    }
+
+    /**
+     * Bring a server marked down back; it owns exactly the keys it owned before
+     *
+     * @param server Server to mark up
+     * @return true if the server was down and is now up
+     */
+    public boolean markUp(String server) {
+        synchronized (writeLock) {
+            if (!downServers.remove(server)) return false;
+            RingSnapshot current = snapshot;
+            snapshot = current.withHealth(downServers, current.epoch() + 1);
+            return true;
+        }
+    }
+
+    public boolean isDown(String server) {
+        return snapshot.downServers().contains(server);
+    }
+
+    /**
+     * Get the members currently marked down
+     *
+     * @return Set of server identifiers
+     */
+    public Set<String> getDownServers() {
+        return snapshot.downServers();
+    }
+
+    /**
+     * Register a listener for membership changes published after this call
+     *
+     * @param listener Listener, called on the ring's notifier thread
+     */
+    public void addChangeListener(RingChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    public void removeChangeListener(RingChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Build the snapshot that adding a server would publish, without changing the ring.
+     * Combine with RingAnalytics.diff to plan a migration before applying it.
+     *
+     * @param server Server identifier
+     * @param weight Server weight
+     * @return Hypothetical snapshot (the current one if the server is already a member)
+     */
+    public RingSnapshot previewAddServer(String server, int weight) {
+        RingSnapshot current = snapshot;
+        if (current.ordinalOf(server) >= 0) return current;
+        long[] positions = computePositions(server, weight);
+        Arrays.sort(positions);
+        return current.withServer(server, weight, positions, current.epoch() + 1);
+    }
+
+    /**
+     * Build the snapshot that removing a server would publish, without changing the ring
+     *
+     * @param server Server identifier
+     * @return Hypothetical snapshot (the current one if the server is not a member)
+     */
+    public RingSnapshot previewRemoveServer(String server) {
+        RingSnapshot current = snapshot;
+        if (current.ordinalOf(server) < 0) return current;
+        return current.withoutServer(server, current.epoch() + 1);
+    }
+
+    /**
+     * Compute the (unsorted) ring positions of a server, first position first
+     *
+     * @param server Server identifier
+     * @param weight Server weight
+     * @return Ring positions
+     */
+    long[] computePositions(String server, int weight) {
+        return positionsOf(hashFunction, server, virtualNodes * weight);
+    }
+
+    /**
+     * Compute the (unsorted) ring positions of a server: the hash of the name,
+     * then the hashes of "name#1" .. "name#(count-1)"
+     *
+     * @param hashFunction Hash function
+     * @param server       Server identifier
+     * @param count        Number of positions
+     * @return Ring positions
+     */
+    static long[] positionsOf(HashFunction hashFunction, String server, int count) {
+        long[] positions = new long[count];
+        StringBuilder name = new StringBuilder(server.length() + 8).append(server).append('#');
+        int prefix = name.length();
+        positions[0] = hashFunction.hash(server);
+        for (int i = 1; i < positions.length; i++) {
+            name.setLength(prefix);
+            positions[i] = hashFunction.hash(name.append(i));
+        }
+        return positions;
+    }
+
+    /**
+     * The index-th position of a server, as placed by positionsOf
+     */
+    static long positionOf(HashFunction hashFunction, String server, int index) {
+        return index == 0 ? hashFunction.hash(server) : hashFunction.hash(server + '#' + index);
+    }
+
+    /**
+     * Get the number of ring positions per unit of server weight
+     *
+     * @return Virtual nodes per server
+     */
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Get the number of probe points hashed per key
+     *
+     * @return Probes per key (1 for a classic ring)
+     */
+    public int getProbes() {
+        return probes;
+    }
 
-        long hash = computeHash(server);
-        ring.remove(hash);
-        System.out.println("✅ Removed server: " + server);
-        printRingStats();
+    /**
+     * Hash a string with the ring's hash function
+     *
+     * @param input String to hash
+     * @return Long hash value
+     */
+    public long computeHash(String input) {
+        return hashFunction.hash(input);
+    }
 
+    /**
+     * Get the hash function used to place servers and keys
+     *
+     * @return Hash function
+     */
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
+
+    @Override
+    public void removeServer(String server) {
+        synchronized (writeLock) {
+            RingSnapshot current = snapshot;
+            if (current.ordinalOf(server) < 0) return;
+            publish(current, current.withoutServer(server, current.epoch() + 1), List.of(), List.of(server));
+        }
     }
 
     /**
@@ -68,15 +520,351 @@ public class ConsistentHashRing {
      * @param key The key to hash and find server for
      * @return Server identifier or null if no servers available
      */
+    @Override
     public String getServer(String key) {
-        if (ring.isEmpty()) return null;
-        long hash = computeHash(key);
+        RingMetrics m = metrics;
+        if (m == null) return serverForHash(hashFunction.hash(key));
+
+        boolean sampled = m.sample();
+        long start = sampled ? System.nanoTime() : 0;
+        return measuredLookup(m, sampled, start, hashFunction.hash(key), key);
+    }
+
+    /**
+     * Find the server for a numeric key; same result as getServer(Long.toString(key))
+     *
+     * @param key Numeric key
+     * @return Server identifier or null if no servers available
+     */
+    public String getServer(long key) {
+        RingMetrics m = metrics;
+        if (m == null) return serverForHash(hashFunction.hash(key));
+
+        boolean sampled = m.sample();
+        long start = sampled ? System.nanoTime() : 0;
+        return measuredLookup(m, sampled, start, hashFunction.hash(key), sampled ? Long.valueOf(key) : null);
+    }
+
+    /**
+     * Find the server for a key given as raw bytes; same result as the
+     * String overload when the bytes are the key's UTF-8 encoding
+     *
+     * @param key    Key bytes
+     * @param offset Index of the first key byte
+     * @param length Number of key bytes
+     * @return Server identifier or null if no servers available
+     */
+    public String getServer(byte[] key, int offset, int length) {
+        RingMetrics m = metrics;
+        if (m == null) return serverForHash(hashFunction.hash(key, offset, length));
+
+        boolean sampled = m.sample();
+        long start = sampled ? System.nanoTime() : 0;
+        return measuredLookup(m, sampled, start, hashFunction.hash(key, offset, length), null);
+    }
+
+    /**
+     * Find the server for the remaining bytes of a buffer (heap or direct),
+     * hashed in place. The buffer's position and limit are not changed.
+     *
+     * @param key Key bytes
+     * @return Server identifier or null if no servers available
+     */
+    public String getServer(ByteBuffer key) {
+        RingMetrics m = metrics;
+        if (m == null) return serverForHash(hashFunction.hash(key));
+
+        boolean sampled = m.sample();
+        long start = sampled ? System.nanoTime() : 0;
+        return measuredLookup(m, sampled, start, hashFunction.hash(key), null);
+    }
+
+    /**
+     * Route a hash and record the lookup; the sample label is only built for
+     * sampled lookups, and keys without a text form are labelled by their hash
+     *
+     * @param key Key whose toString labels the sample, or null
+     */
+    private String measuredLookup(RingMetrics m, boolean sampled, long start, long hash, Object key) {
+        String server = serverForHash(hash);
+        m.count(server);
+        if (sampled) m.recordSample(key == null ? "#" + hash : key.toString(), hash, System.nanoTime() - start);
+        return server;
+    }
+
+    /**
+     * Turn on lookup metrics with the default sampling (1 in 16 lookups timed)
+     * and top-10 hot key tracking
+     *
+     * @return Metrics, also available through getMetrics
+     */
+    public RingMetrics enableMetrics() {
+        return enableMetrics(RingMetrics.DEFAULT_SAMPLE_RATE, RingMetrics.DEFAULT_TOP_KEYS);
+    }
+
+    /**
+     * Turn on lookup metrics. Replaces active metrics; if those were
+     * registered as an MBean the new metrics take over the registration.
+     *
+     * @param sampleRate Time and key-track one lookup in sampleRate (power of two)
+     * @param topKeys    Number of hot keys to track
+     * @return Metrics, also available through getMetrics
+     */
+    public RingMetrics enableMetrics(int sampleRate, int topKeys) {
+        RingMetrics enabled = new RingMetrics(this::getSnapshot, sampleRate, topKeys);
+        RingMetrics previous = swapMetrics(enabled);
+        if (previous != null) {
+            String name = previous.getMBeanName();
+            previous.unregisterMBean();
+            if (name != null) enabled.registerMBean(name);
+        }
+        return enabled;
+    }
+
+    /**
+     * Turn metrics off completely; lookups go back to the uninstrumented path
+     */
+    public void disableMetrics() {
+        RingMetrics disabled = swapMetrics(null);
+        if (disabled != null) disabled.unregisterMBean();
+    }
+
+    private RingMetrics swapMetrics(RingMetrics next) {
+        synchronized (writeLock) {
+            RingMetrics previous = metrics;
+            metrics = next;
+            return previous;
+        }
+    }
 
-        SortedMap<Long, String> tailMap = ring.tailMap(hash);
-        // If no server found clockwise, wrap around to the beginning
-        Long serverHash = tailMap.isEmpty() ? ring.firstKey() : tailMap.firstKey();
+    /**
+     * Get the active metrics
+     *
+     * @return Metrics or null if disabled
+     */
+    public RingMetrics getMetrics() {
+        return metrics;
+    }
 
-        return ring.get(serverHash);
+    private String serverForHash(long hash) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) return null;
+        double epsilon = loadEpsilon;
+        if (epsilon > 0) {
+            return boundedServer(current, hash, loadTracker, epsilon);
+        }
+        // Binary search over the sorted positions, wrapping around to the beginning
+        return current.serverFor(hash);
+    }
+
+    /**
+     * Turn on bounded-load routing: a server already carrying more than
+     * (1 + epsilon) times the average in-flight load is skipped and the key
+     * moves on clockwise to the next server with spare capacity.
+     * Load is tracked through acquire/release. Enabling again only changes
+     * epsilon: the load counters live as long as the ring, so slots acquired
+     * before stay counted.
+     *
+     * @param epsilon Allowed overload above the average (e.g. 0.25)
+     */
+    public void enableBoundedLoad(double epsilon) {
+        if (!(epsilon > 0)) {
+            throw new IllegalArgumentException("epsilon must be positive: " + epsilon);
+        }
+        synchronized (writeLock) {
+            if (loadTracker == null) loadTracker = new LoadTracker();
+            loadEpsilon = epsilon;
+        }
+    }
+
+    /**
+     * Turn off bounded-load routing. Outstanding slots can still be released,
+     * and their counts drain as they are.
+     */
+    public void disableBoundedLoad() {
+        loadEpsilon = 0;
+    }
+
+    public boolean isBoundedLoadEnabled() {
+        return loadEpsilon > 0;
+    }
+
+    /**
+     * Route a key and count one unit of in-flight load against the chosen
+     * server. Every acquire must be paired with a release of the returned server.
+     *
+     * @param key The key to route
+     * @return Server identifier or null if no servers available
+     */
+    public String acquire(String key) {
+        double epsilon = loadEpsilon;
+        if (epsilon == 0) {
+            throw new IllegalStateException("Bounded-load mode is not enabled");
+        }
+        LoadTracker tracker = loadTracker;
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) return null;
+        String server = boundedServer(current, computeHash(key), tracker, epsilon);
+        if (server != null) tracker.increment(server);
+        return server;
+    }
+
+    /**
+     * Release one unit of load taken by acquire; works after bounded-load
+     * mode was turned off or re-enabled
+     *
+     * @param server Server returned by acquire
+     * @throws IllegalStateException if the server holds no acquired slot
+     */
+    public void release(String server) {
+        LoadTracker tracker = loadTracker;
+        if (tracker == null) {
+            throw new IllegalStateException("release without acquire for server " + server);
+        }
+        tracker.decrement(server);
+    }
+
+    /**
+     * Current in-flight load of a server
+     *
+     * @param server Server identifier
+     * @return Acquired and not yet released requests
+     */
+    public long getLoad(String server) {
+        LoadTracker tracker = loadTracker;
+        return tracker == null ? 0 : tracker.load(server);
+    }
+
+    /**
+     * Current in-flight load of every server that was ever acquired
+     *
+     * @return Server to load, sorted by server
+     */
+    public Map<String, Long> getLoads() {
+        LoadTracker tracker = loadTracker;
+        return tracker == null ? new TreeMap<>() : tracker.snapshot();
+    }
+
+    /**
+     * Clockwise walk from the key's position to the first server under capacity
+     */
+    private static String boundedServer(RingSnapshot current, long hash, LoadTracker tracker, double epsilon) {
+        long capacity = tracker.capacity(current.healthyServerCount(), epsilon);
+        int first = current.routeIndex(hash);
+        if (first < 0) return null;
+        int index = first;
+        // Each step jumps a whole run of one server's positions, so one lap is at most size steps
+        for (int step = 0; step < current.size() && index >= 0; step++) {
+            if (!current.isDown(current.ownerAt(index))) {
+                String server = current.serverAt(index);
+                if (tracker.load(server) < capacity) return server;
+            }
+            index = current.nextDistinctAt(index);
+        }
+        // Every server is at capacity (only possible transiently under races)
+        return current.serverAt(first);
+    }
+
+    /**
+     * Get the preference list for a key: the first N distinct physical
+     * servers clockwise from the key's hash
+     *
+     * @param key      The key to hash and find servers for
+     * @param replicas Number of distinct servers wanted
+     * @return Servers in preference order (all servers if fewer than requested)
+     */
+    public List<String> getServers(String key, int replicas) {
+        RingSnapshot current = snapshot;
+        if (current.healthyServerCount() == 0 || replicas <= 0) return Collections.emptyList();
+        int[] ordinals = current.replicasFor(computeHash(key), replicas);
+        String[] result = new String[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            result[i] = current.server(ordinals[i]);
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Find the servers for a batch of keys, all against the same snapshot.
+     * Keys are hashed and sorted, then matched to owners in one pass over the
+     * ring; batches of 16k keys or more are split across the fork-join pool.
+     *
+     * @param keys Keys to route
+     * @param out  Output array, out[i] receives the server for keys[i] (null if the ring is empty)
+     */
+    public void getServers(String[] keys, String[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output array too small: " + out.length + " < " + keys.length);
+        }
+        RingSnapshot current = snapshot;
+        RingMetrics m = metrics;
+        if (current.healthyServerCount() == 0) {
+            Arrays.fill(out, 0, keys.length, null);
+            if (m != null) m.countBatch(current, null, keys.length);
+            return;
+        }
+        int[] ordinals = new int[keys.length];
+        BatchLookup.route(current, keys, ordinals, keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out[i] = current.server(ordinals[i]);
+        }
+        if (m != null) m.countBatch(current, ordinals, keys.length);
+    }
+
+    /**
+     * Group a batch of keys by the server responsible for them
+     *
+     * @param keys Keys to route
+     * @return Server to keys map (empty if the ring is empty)
+     */
+    public Map<String, List<String>> groupByServer(Collection<String> keys) {
+        RingSnapshot current = snapshot;
+        RingMetrics m = metrics;
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        if (keys.isEmpty()) return groups;
+        if (current.healthyServerCount() == 0) {
+            if (m != null) m.countBatch(current, null, keys.size());
+            return groups;
+        }
+
+        String[] batch = keys.toArray(new String[0]);
+        int[] ordinals = new int[batch.length];
+        BatchLookup.route(current, batch, ordinals, batch.length);
+        if (m != null) m.countBatch(current, ordinals, batch.length);
+
+        List<List<String>> byOrdinal = new ArrayList<>(current.serverCount());
+        for (int s = 0; s < current.serverCount(); s++) {
+            byOrdinal.add(null);
+        }
+        for (int i = 0; i < batch.length; i++) {
+            List<String> group = byOrdinal.get(ordinals[i]);
+            if (group == null) {
+                group = new ArrayList<>();
+                byOrdinal.set(ordinals[i], group);
+                groups.put(current.server(ordinals[i]), group);
+            }
+            group.add(batch[i]);
+        }
+        return groups;
+    }
+
+    /**
+     * Get the compiled lookup snapshot for the current membership.
+     * Route through the returned snapshot to know which epoch a decision used.
+     *
+     * @return Immutable ring snapshot
+     */
+    public RingSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the membership epoch of the currently published snapshot
+     *
+     * @return Epoch number (0 for a ring that never changed)
+     */
+    public long getEpoch() {
+        return snapshot.epoch();
     }
 
     /**
@@ -84,24 +872,26 @@ public class ConsistentHashRing {
      *
      * @return Set of server identifiers
      */
+    @Override
     public Set<String> getAllServers() {
-        return new HashSet<>(servers);
+        return snapshot.servers();
     }
 
     /**
      * Print current ring statistics
      */
-    private void printRingStats() {
-        System.out.println("📊 Ring Stats: " + servers.size() + " servers, " + ring.size() + " positions on ring");
+    public void printRingStats() {
+        RingSnapshot current = snapshot;
+        System.out.println("📊 Ring Stats: " + current.serverCount() + " servers, " + current.size() + " positions on ring");
     }
 
     /**
-     * Get total number of positions on the ring (same as server count)
+     * Get total number of positions on the ring (all virtual nodes)
      *
      * @return Number of positions
      */
     public int getRingSize() {
-        return ring.size();
+        return snapshot.size();
     }
 
     /**
@@ -110,7 +900,7 @@ public class ConsistentHashRing {
      * @return true if no servers in ring
      */
     public boolean isEmpty() {
-        return ring.isEmpty();
+        return snapshot.isEmpty();
     }
 
     /**
@@ -119,6 +909,8 @@ public class ConsistentHashRing {
      * @param numberOfKeys Number of random keys to test
      */
     public void analyzeDistribution(int numberOfKeys) {
+        RingSnapshot current = snapshot;
+        Set<String> servers = current.servers();
         if (servers.isEmpty()) {
             System.out.println("❌ No servers in ring for distribution analysis");
             return;
@@ -135,7 +927,7 @@ public class ConsistentHashRing {
         Random random = new Random();
         for (int i = 0; i < numberOfKeys; i++) {
             String key = "key_" + random.nextInt(100000);
-            String server = getServer(key);
+            String server = current.getServer(key);
             if (server != null) {
                 distribution.put(server, distribution.get(server) + 1);
             }
@@ -145,9 +937,17 @@ public class ConsistentHashRing {
         System.out.println("\n📈 === DISTRIBUTION ANALYSIS (Basic Ring) ===");
         System.out.println("Sample size: " + numberOfKeys + " random keys");
         System.out.println("Expected per server: " + (numberOfKeys / servers.size()) + " keys");
-        System.out.println("⚠️  Note: Without virtual nodes, distribution may be uneven!\n");
+        if (virtualNodes == 1 && probes == 1) {
+            System.out.println("⚠️  Note: Without virtual nodes, distribution may be uneven!\n");
+        } else {
+            System.out.println("Virtual nodes per server: " + virtualNodes + " (" + current.size() + " positions)\n");
+        }
+        if (probes > 1) {
+            System.out.println("Probes per key: " + probes + " (exact arc shares do not apply)\n");
+        }
 
         double expectedPerServer = (double) numberOfKeys / servers.size();
+        Map<String, Double> ownership = probes > 1 ? Map.of() : RingAnalytics.ownership(current);
 
         for (Map.Entry<String, Integer> entry : distribution.entrySet()) {
             String server = entry.getKey();
@@ -155,8 +955,13 @@ public class ConsistentHashRing {
             double percentage = (keyCount * 100.0) / numberOfKeys;
             double deviation = Math.abs(keyCount - expectedPerServer) / expectedPerServer * 100;
 
-            System.out.printf("%-20s: %6d keys (%5.1f%%) | Deviation: %5.1f%%\n",
-                    server, keyCount, percentage, deviation);
+            if (probes > 1) {
+                System.out.printf("%-20s: %6d keys (%5.1f%%) | Deviation: %5.1f%%\n",
+                        server, keyCount, percentage, deviation);
+            } else {
+                System.out.printf("%-20s: %6d keys (%5.1f%%) | Exact share: %5.1f%% | Deviation: %5.1f%%\n",
+                        server, keyCount, percentage, ownership.get(server) * 100, deviation);
+            }
         }
         System.out.println("===============================================\n");
     }
@@ -165,16 +970,25 @@ public class ConsistentHashRing {
      * Print detailed ring information (for debugging)
      */
     public void printRingDetails() {
+        RingSnapshot current = snapshot;
         System.out.println("\n🔍 === BASIC RING INFORMATION ===");
-        System.out.println("Total Servers: " + servers.size());
-        System.out.println("Ring Positions: " + ring.size());
-        System.out.println("Active Servers: " + servers);
+        System.out.println("Total Servers: " + current.serverCount());
+        System.out.println("Ring Positions: " + current.size());
+        System.out.println("Active Servers: " + current.servers());
+        System.out.println("Epoch: " + current.epoch());
+        if (current.healthyServerCount() < current.serverCount()) {
+            System.out.println("Down Servers: " + current.downServers());
+        }
 
-        if (!ring.isEmpty()) {
+        if (!current.isEmpty()) {
             System.out.println("\nServer Positions on Ring:");
-            for (Map.Entry<Long, String> entry : ring.entrySet()) {
+            int shown = Math.min(current.size(), MAX_PRINTED_POSITIONS);
+            for (int i = 0; i < shown; i++) {
                 System.out.printf("  Hash: %20d → Server: %s\n",
-                        entry.getKey(), entry.getValue());
+                        current.positionAt(i), current.serverAt(i));
+            }
+            if (shown < current.size()) {
+                System.out.println("  ... and " + (current.size() - shown) + " more positions");
             }
         }
         System.out.println("=====================================\n");
@@ -184,26 +998,30 @@ public class ConsistentHashRing {
      * Show the hash ring visually (simplified representation)
      */
     public void visualizeRing() {
+        RingSnapshot current = snapshot;
         System.out.println("\n🎨 === BASIC RING VISUALIZATION ===");
 
-        if (ring.isEmpty()) {
+        if (current.isEmpty()) {
             System.out.println("Ring is empty!");
             return;
         }
 
         System.out.println("Ring positions (clockwise order):");
 
-        int position = 1;
-        for (Map.Entry<Long, String> entry : ring.entrySet()) {
+        int shown = Math.min(current.size(), MAX_PRINTED_POSITIONS);
+        for (int i = 0; i < shown; i++) {
             System.out.printf("%d. %s (Hash: %d)\n",
-                    position++, entry.getValue(), entry.getKey());
+                    i + 1, current.serverAt(i), current.positionAt(i));
+        }
+        if (shown < current.size()) {
+            System.out.println("... and " + (current.size() - shown) + " more positions");
         }
 
         System.out.println("\nSample key mappings:");
         String[] sampleKeys = {"user1", "user2", "user3", "session123", "data456"};
 
         for (String key : sampleKeys) {
-            String server = getServer(key);
+            String server = current.getServer(key);
             long keyHash = computeHash(key);
             System.out.printf("Key: %-10s (Hash: %20d) → %s\n",
                     key, keyHash, server);
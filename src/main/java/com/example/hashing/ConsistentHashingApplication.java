@@ -1,6 +1,13 @@
 package com.example.hashing;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
 public class ConsistentHashingApplication {
     private static final Scanner scanner = new Scanner(System.in);
@@ -45,9 +52,11 @@ public class ConsistentHashingApplication {
         System.out.println("│  7. 🎬  Run Full Demo                   │");
         System.out.println("│  8. 🧪  Experiment with Problems        │");
         System.out.println("│  9. 🔄  Reset Ring                      │");
+        System.out.println("│ 10. ⚖️  Compare Engines                 │");
+        System.out.println("│ 11. 🏋️  Load Simulation                 │");
         System.out.println("│  0. 🚪  Exit                            │");
         System.out.println("└─────────────────────────────────────────┘");
-        System.out.print("Enter your choice (0-9): ");
+        System.out.print("Enter your choice (0-11): ");
     }
 
     private static int getUserChoice() {
@@ -89,11 +98,17 @@ public class ConsistentHashingApplication {
             case 9:
                 resetRing();
                 break;
+            case 10:
+                compareEngines();
+                break;
+            case 11:
+                simulateLoad();
+                break;
             case 0:
                 exitApplication();
                 break;
             default:
-                System.out.println("❌ Invalid choice. Please enter 0-9.\n");
+                System.out.println("❌ Invalid choice. Please enter 0-11.\n");
         }
     }
 
@@ -106,8 +121,14 @@ public class ConsistentHashingApplication {
         }
         System.out.println("Enter server name: ");
         String serverName = scanner.nextLine().trim();
-        if (!serverName.isEmpty()) {
+        if (hashRing.getAllServers().contains(serverName)) {
+            System.out.println("Server " + serverName + " already exists in the Ring!");
+        } else if (!serverName.isEmpty()) {
             hashRing.addServer(serverName);
+            String placement = hashRing.getVirtualNodes() == 1
+                    ? "[ Hash : " + hashRing.computeHash(serverName) + " ]"
+                    : "[ Positions : " + hashRing.getVirtualNodes() + " ]";
+            System.out.println("Added server " + serverName + " to Ring!" + placement);
             if (hashRing.getAllServers().size() >= 3) {
                 System.out.println("\n💡 Great! Now try option 4 to analyze distribution.");
             }
@@ -130,7 +151,13 @@ public class ConsistentHashingApplication {
         String server = scanner.nextLine().trim();
 
         if (!server.isEmpty()) {
-            hashRing.removeServer(server);
+            if (hashRing.getAllServers().contains(server)) {
+                hashRing.removeServer(server);
+                System.out.println("✅ Removed server: " + server);
+                hashRing.printRingStats();
+            } else {
+                System.out.println("❌ Server " + server + " not found in the ring");
+            }
         } else {
             System.out.println("❌ Invalid server name.");
         }
@@ -239,8 +266,90 @@ public class ConsistentHashingApplication {
     }
 
     private static void resetRing() {
-        hashRing = new ConsistentHashRing();
-        System.out.println("🔄 Ring reset! Start fresh by adding servers.");
+        System.out.print("Virtual nodes per server (Enter for 1): ");
+        String input = scanner.nextLine().trim();
+        int virtualNodes = input.isEmpty() ? 1 : Integer.parseInt(input);
+        hashRing = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+        System.out.println("🔄 Ring reset with " + virtualNodes + " virtual node(s) per server! Start fresh by adding servers.");
+        pauseForUser();
+    }
+
+    private static void compareEngines() {
+        List<String> servers = new ArrayList<>(hashRing.getAllServers());
+        if (servers.size() < 2) {
+            System.out.println("💡 Fewer than 2 servers in the ring, comparing with Server-1 .. Server-10");
+            servers.clear();
+            for (int i = 1; i <= 10; i++) {
+                servers.add("Server-" + i);
+            }
+        }
+
+        Map<String, Supplier<KeyRouter>> engines = EngineComparison.engines();
+        System.out.println("Available engines: " + engines.keySet());
+        System.out.print("Engines to compare, comma separated (Enter for all): ");
+        String input = scanner.nextLine().trim();
+        if (!input.isEmpty()) {
+            Map<String, Supplier<KeyRouter>> selected = new LinkedHashMap<>();
+            for (String name : input.split(",")) {
+                for (Map.Entry<String, Supplier<KeyRouter>> engine : engines.entrySet()) {
+                    if (engine.getKey().toLowerCase().startsWith(name.trim().toLowerCase())) {
+                        selected.put(engine.getKey(), engine.getValue());
+                    }
+                }
+            }
+            engines = selected;
+        }
+
+        EngineComparison.compare(engines, servers, 100_000);
+        pauseForUser();
+    }
+
+    private static void simulateLoad() {
+        // Churn runs on a copy that keeps the interactive ring's weights and down servers
+        ConsistentHashRing ring = new ConsistentHashRing(hashRing.getSnapshot(), hashRing.getVirtualNodes());
+        if (ring.getAllServers().size() < 2) {
+            System.out.println("💡 Fewer than 2 servers in the ring, simulating Server-1 .. Server-10 with 100 virtual nodes");
+            ring = new ConsistentHashRing(HashFunction.murmur3(), 100);
+            List<String> servers = new ArrayList<>();
+            for (int i = 1; i <= 10; i++) {
+                servers.add("Server-" + i);
+            }
+            ring.applyChanges(servers, List.of());
+        }
+
+        System.out.print("Key distribution - uniform, zipf, sequential or a trace file path (Enter for zipf): ");
+        String input = scanner.nextLine().trim();
+        KeyDistribution distribution;
+        try {
+            if (input.isEmpty() || input.equalsIgnoreCase("zipf")) {
+                System.out.print("Zipf skew (Enter for 0.99): ");
+                String skew = scanner.nextLine().trim();
+                distribution = KeyDistribution.zipfian(100_000, skew.isEmpty() ? 0.99 : Double.parseDouble(skew));
+            } else if (input.equalsIgnoreCase("uniform")) {
+                distribution = KeyDistribution.uniform(100_000);
+            } else if (input.equalsIgnoreCase("sequential")) {
+                distribution = KeyDistribution.sequential();
+            } else {
+                distribution = KeyDistribution.trace(Paths.get(input));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read trace file " + input, e);
+        }
+
+        System.out.print("Threads (Enter for 4): ");
+        String threads = scanner.nextLine().trim();
+        System.out.print("Duration in seconds (Enter for 5): ");
+        String seconds = scanner.nextLine().trim();
+        System.out.print("Churn interval in ms, 0 for none (Enter for 500): ");
+        String churn = scanner.nextLine().trim();
+
+        System.out.println("🏃 Running...");
+        new LoadSimulator(ring, distribution)
+                .threads(threads.isEmpty() ? 4 : Integer.parseInt(threads))
+                .durationMillis(seconds.isEmpty() ? 5_000 : Long.parseLong(seconds) * 1000)
+                .churnIntervalMillis(churn.isEmpty() ? 500 : Long.parseLong(churn))
+                .run()
+                .print();
         pauseForUser();
     }
 
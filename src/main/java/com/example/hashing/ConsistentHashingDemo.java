@@ -1,5 +1,9 @@
 package com.example.hashing;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class ConsistentHashingDemo {
     public static void main(String[] args) {
         System.out.println("🎯 ============================================");
@@ -14,9 +18,8 @@ public class ConsistentHashingDemo {
         System.out.println("📝 DEMO 1: Adding Servers to Ring");
         System.out.println("----------------------------------");
 
-        hashRing.addServer("Server-A:8080");
-        hashRing.addServer("Server-B:8081");
-        hashRing.addServer("Server-C:8082");
+        hashRing.applyChanges(List.of("Server-A:8080", "Server-B:8081", "Server-C:8082"), List.of());
+        System.out.println("Added servers " + hashRing.getAllServers() + " in one change");
 
         hashRing.printRingDetails();
         hashRing.visualizeRing();
@@ -48,18 +51,28 @@ public class ConsistentHashingDemo {
         System.out.println("---------------------------------");
 
         System.out.println("💥 Simulating Server-B failure...\n");
+        Map<String, String> before = new HashMap<>();
+        for (String key : testKeys) {
+            before.put(key, hashRing.getServer(key));
+        }
         hashRing.removeServer("Server-B:8081");
+        System.out.println("✅ Removed server: Server-B:8081");
+        hashRing.printRingStats();
 
         System.out.println("Key redistribution after Server-B failure:");
         int affectedKeys = 0;
         for (String key : testKeys) {
             String newServer = hashRing.getServer(key);
             System.out.printf("%-15s → %s", key, newServer);
-
-            // In a real scenario, we'd compare with previous mapping
-            System.out.println(" (may have moved)");
-            affectedKeys++;
+            if (newServer.equals(before.get(key))) {
+                System.out.println(" (unchanged)");
+            } else {
+                System.out.println(" (moved from " + before.get(key) + ")");
+                affectedKeys++;
+            }
         }
+        System.out.println(affectedKeys + " of " + testKeys.length + " keys moved");
+        System.out.println("(RebalanceSimulation moves the data of such a change in a sharded store)");
 
         System.out.println("\n⚠️  Impact Analysis:");
         System.out.println("In basic consistent hashing, when a server fails,");
@@ -72,6 +85,7 @@ public class ConsistentHashingDemo {
 
         System.out.println("➕ Adding Server-D to handle load...\n");
         hashRing.addServer("Server-D:8083");
+        System.out.println("Added server Server-D:8083 to Ring!");
 
         System.out.println("Key redistribution after adding Server-D:");
         for (String key : testKeys) {
@@ -139,7 +153,7 @@ public class ConsistentHashingDemo {
         System.out.println("Hash values for current servers:");
 
         for (String server : ring.getAllServers()) {
-            long hash = computeTestHash(server);
+            long hash = computeTestHash(ring, server);
             System.out.printf("%-20s → Hash: %20d\n", server, hash);
         }
 
@@ -147,7 +161,7 @@ public class ConsistentHashingDemo {
         String[] keys = {"key1", "key2", "key3", "user123", "session456"};
 
         for (String key : keys) {
-            long hash = computeTestHash(key);
+            long hash = computeTestHash(ring, key);
             String assignedServer = ring.getServer(key);
             System.out.printf("%-15s → Hash: %20d → Server: %s\n",
                     key, hash, assignedServer);
@@ -155,21 +169,9 @@ public class ConsistentHashingDemo {
     }
 
     /**
-     * Compute hash for demonstration (mirrors the internal method)
+     * Compute hash for demonstration (uses the ring's own hash function)
      */
-    private static long computeTestHash(String input) {
-        try {
-            java.security.MessageDigest md5 = java.security.MessageDigest.getInstance("MD5");
-            byte[] digest = md5.digest(input.getBytes());
-
-            long hash = 0;
-            for (int i = 0; i < 8 && i < digest.length; i++) {
-                hash = (hash << 8) | (digest[i] & 0xFF);
-            }
-
-            return Math.abs(hash);
-        } catch (java.security.NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 algorithm not available", e);
-        }
+    private static long computeTestHash(ConsistentHashRing ring, String input) {
+        return ring.getHashFunction().hash(input);
     }
 }
@@ -0,0 +1,73 @@
+package com.example.hashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent count-min sketch over 64-bit key hashes. Estimates never
+ * undercount; with width w the overcount is at most 2N / w with high
+ * probability, where N is the total number of additions since the last
+ * halve or reset.
+ */
+final class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xBF58476D1CE4E5B9L, 0x94D049BB133111EBL, 0xD6E8FEB86659FD93L
+    };
+
+    private final AtomicLongArray counters;
+    private final int width;
+    private final int mask;
+
+    /**
+     * @param width Counters per row (rounded up to a power of two)
+     */
+    CountMinSketch(int width) {
+        this.width = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(this.width * SEEDS.length);
+    }
+
+    /**
+     * Count one occurrence and return the new estimate
+     *
+     * @param hash Key hash
+     * @return Estimated occurrences so far
+     */
+    long add(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + indexOf(hash, row)));
+        }
+        return estimate;
+    }
+
+    long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            estimate = Math.min(estimate, counters.get(row * width + indexOf(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int indexOf(long hash, int row) {
+        return (int) (Murmur3HashFunction.fmix64(hash ^ SEEDS[row]) & mask);
+    }
+
+    int width() {
+        return width;
+    }
+
+    /**
+     * Halve every counter so old occurrences fade out (counts racing with it may be lost)
+     */
+    void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+}
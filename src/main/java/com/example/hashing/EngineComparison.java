@@ -0,0 +1,110 @@
+package com.example.hashing;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Side-by-side comparison of the KeyRouter engines: key distribution,
+ * single-thread lookup cost and keys moved when one server is added.
+ */
+public class EngineComparison {
+
+    /**
+     * Engines available for comparison, by display name
+     *
+     * @return Engine name to factory
+     */
+    public static Map<String, Supplier<KeyRouter>> engines() {
+        Map<String, Supplier<KeyRouter>> engines = new LinkedHashMap<>();
+        engines.put("Ring (1 vnode)", ConsistentHashRing::new);
+        engines.put("Ring (100 vnodes)", () -> new ConsistentHashRing(HashFunction.murmur3(), 100));
+        engines.put("Jump hash", JumpHashRouter::new);
+        engines.put("Maglev", MaglevRouter::new);
+        return engines;
+    }
+
+    /**
+     * Compare engines on the same servers and keys
+     *
+     * @param engines      Engine name to factory
+     * @param servers      Servers to add to every engine
+     * @param numberOfKeys Number of keys to route
+     */
+    public static void compare(Map<String, Supplier<KeyRouter>> engines, List<String> servers, int numberOfKeys) {
+        String[] keys = new String[numberOfKeys];
+        for (int i = 0; i < numberOfKeys; i++) {
+            keys[i] = "key_" + i;
+        }
+
+        System.out.println("\n⚖️  === ENGINE COMPARISON ===");
+        System.out.println("Servers: " + servers.size() + " | Keys: " + numberOfKeys + "\n");
+        System.out.printf("%-20s %10s %10s %10s %12s %12s\n",
+                "Engine", "Max/Avg", "Min/Avg", "StdDev %", "ns/lookup", "Moved on +1");
+
+        for (Map.Entry<String, Supplier<KeyRouter>> engine : engines.entrySet()) {
+            KeyRouter router = engine.getValue().get();
+            quietly(() -> servers.forEach(router::addServer));
+
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            String[] before = new String[numberOfKeys];
+            for (int i = 0; i < numberOfKeys; i++) {
+                before[i] = router.getServer(keys[i]);
+                counts.merge(before[i], 1, Integer::sum);
+            }
+
+            double average = (double) numberOfKeys / servers.size();
+            int max = 0;
+            int min = Integer.MAX_VALUE;
+            double squares = 0;
+            for (String server : servers) {
+                int count = counts.getOrDefault(server, 0);
+                max = Math.max(max, count);
+                min = Math.min(min, count);
+                squares += (count - average) * (count - average);
+            }
+            double stdDev = Math.sqrt(squares / servers.size()) / average * 100;
+
+            double nanosPerLookup = timeLookups(router, keys);
+
+            quietly(() -> router.addServer("Comparison-New-Server"));
+            int moved = 0;
+            for (int i = 0; i < numberOfKeys; i++) {
+                if (!before[i].equals(router.getServer(keys[i]))) moved++;
+            }
+
+            System.out.printf("%-20s %10.2f %10.2f %9.1f%% %12.1f %11.2f%%\n",
+                    engine.getKey(), max / average, min / average, stdDev,
+                    nanosPerLookup, moved * 100.0 / numberOfKeys);
+        }
+        System.out.printf("\nIdeal moved fraction on +1 server: %.2f%%\n", 100.0 / (servers.size() + 1));
+        System.out.println("===========================\n");
+    }
+
+    private static double timeLookups(KeyRouter router, String[] keys) {
+        long sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (String key : keys) {
+                sink += router.getServer(key).length();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == 42) System.out.print("");
+        return (double) best / keys.length;
+    }
+
+    private static void quietly(Runnable action) {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            action.run();
+        } finally {
+            System.setOut(console);
+        }
+    }
+}
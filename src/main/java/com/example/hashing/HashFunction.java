@@ -0,0 +1,107 @@
+package com.example.hashing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hash function used to place servers and keys on the ring.
+ * Implementations must return non-negative values (63 usable bits) so that
+ * every ring shares the same hash space. A key must hash the same whichever
+ * form it is passed in: a {@link CharSequence} hashes as its UTF-8 bytes, a
+ * {@code long} as its decimal string, and a {@link ByteBuffer} as its
+ * remaining bytes.
+ */
+public interface HashFunction {
+
+    /**
+     * Hash a slice of a byte array
+     *
+     * @param data   Bytes to hash
+     * @param offset Index of the first byte
+     * @param length Number of bytes to hash
+     * @return Non-negative hash value
+     */
+    long hash(byte[] data, int offset, int length);
+
+    /**
+     * Hash the UTF-8 encoding of a character sequence without allocating
+     *
+     * @param input Characters to hash
+     * @return Non-negative hash value
+     */
+    default long hash(CharSequence input) {
+        return Utf8.hash(this, input);
+    }
+
+    /**
+     * Hash the remaining bytes of a buffer (heap or direct) in place.
+     * The buffer's position and limit are not changed.
+     *
+     * @param data Bytes to hash
+     * @return Non-negative hash value
+     */
+    long hash(ByteBuffer data);
+
+    /**
+     * Hash a numeric key as its decimal string, without allocating, so that
+     * hash(42L) == hash("42")
+     *
+     * @param value Numeric key
+     * @return Non-negative hash value
+     */
+    default long hash(long value) {
+        return Utf8.hashDecimal(this, value);
+    }
+
+    /**
+     * Short human readable name (for stats and benchmarks)
+     *
+     * @return Name of the algorithm
+     */
+    String name();
+
+    /**
+     * MD5 based hash, kept for compatibility with rings built by older versions
+     *
+     * @return MD5 hash function
+     */
+    static HashFunction md5() {
+        return new Md5HashFunction();
+    }
+
+    /**
+     * MurmurHash3 (x64, 128 bit, first 64 bits) with seed 0
+     *
+     * @return Murmur3 hash function
+     */
+    static HashFunction murmur3() {
+        return new Murmur3HashFunction(0);
+    }
+
+    /**
+     * xxHash64 with seed 0
+     *
+     * @return xxHash64 hash function
+     */
+    static HashFunction xxHash64() {
+        return new XxHash64HashFunction(0);
+    }
+
+    /**
+     * Look up a hash function by name (md5, murmur3, xxhash64)
+     *
+     * @param name Algorithm name, case insensitive
+     * @return Matching hash function
+     */
+    static HashFunction forName(String name) {
+        switch (name.toLowerCase()) {
+            case "md5":
+                return md5();
+            case "murmur3":
+                return murmur3();
+            case "xxhash64":
+                return xxHash64();
+            default:
+                throw new IllegalArgumentException("Unknown hash function: " + name);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.hashing;
+
+/**
+ * A frequently looked-up key, with the ring arc it falls into
+ */
+public final class HotKey {
+    private final String key;
+    private final long hash;
+    private final long estimatedLookups;
+    private final String server;
+    private final int arcIndex;
+    private final long arcStart;
+    private final long arcEnd;
+
+    HotKey(String key, long hash, long estimatedLookups, String server, int arcIndex, long arcStart, long arcEnd) {
+        this.key = key;
+        this.hash = hash;
+        this.estimatedLookups = estimatedLookups;
+        this.server = server;
+        this.arcIndex = arcIndex;
+        this.arcStart = arcStart;
+        this.arcEnd = arcEnd;
+    }
+
+    /**
+     * The key (binary keys are shown as their hash)
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Estimated recent lookups of this key (scaled up from the sampled lookups;
+     * older lookups are halved away periodically)
+     */
+    public long getEstimatedLookups() {
+        return estimatedLookups;
+    }
+
+    /**
+     * Server owning the key in the current ring (null if the ring is empty)
+     */
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * Index of the ring position whose arc contains the key, or for multi-probe
+     * rings the position the key routes to (-1 if the ring is empty)
+     */
+    public int getArcIndex() {
+        return arcIndex;
+    }
+
+    /**
+     * Exclusive start of the arc (the previous ring position)
+     */
+    public long getArcStart() {
+        return arcStart;
+    }
+
+    /**
+     * Inclusive end of the arc (the owning ring position)
+     */
+    public long getArcEnd() {
+        return arcEnd;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s ~%d lookups → %s (arc #%d (%d, %d])",
+                key, estimatedLookups, server, arcIndex, arcStart, arcEnd);
+    }
+}
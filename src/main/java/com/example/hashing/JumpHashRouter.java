@@ -0,0 +1,87 @@
+package com.example.hashing;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Jump Consistent Hash (Lamping and Veach) over a numbered list of shards.
+ * Needs no lookup table: a key is routed in O(log n) arithmetic steps using
+ * only the key hash and the shard count.
+ *
+ * Shards are numbered in the order they were added. Adding a shard moves
+ * only the 1/(n+1) of keys that belong to it. Jump hash can only shrink from
+ * the end, so removing any other shard moves the last shard into the freed
+ * slot: keys of both shards move, everything else stays put.
+ */
+public class JumpHashRouter implements KeyRouter {
+    private final HashFunction hashFunction;
+    private volatile String[] shards = new String[0];
+
+    public JumpHashRouter() {
+        this(HashFunction.murmur3());
+    }
+
+    public JumpHashRouter(HashFunction hashFunction) {
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+    }
+
+    /**
+     * Jump consistent hash
+     *
+     * @param key     64-bit key hash
+     * @param buckets Number of buckets (at least 1)
+     * @return Bucket in [0, buckets)
+     */
+    public static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    @Override
+    public String getServer(String key) {
+        String[] current = shards;
+        if (current.length == 0) return null;
+        return current[jumpHash(hashFunction.hash(key), current.length)];
+    }
+
+    @Override
+    public synchronized void addServer(String server) {
+        String[] current = shards;
+        if (indexOf(current, server) >= 0) return;
+        String[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = server;
+        shards = next;
+    }
+
+    @Override
+    public synchronized void removeServer(String server) {
+        String[] current = shards;
+        int index = indexOf(current, server);
+        if (index < 0) return;
+        String[] next = Arrays.copyOf(current, current.length - 1);
+        if (index < next.length) {
+            next[index] = current[current.length - 1];
+        }
+        shards = next;
+    }
+
+    @Override
+    public Set<String> getAllServers() {
+        return new LinkedHashSet<>(Arrays.asList(shards));
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+}
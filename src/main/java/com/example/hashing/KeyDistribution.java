@@ -0,0 +1,154 @@
+package com.example.hashing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Workload key distribution. Each load thread gets its own generator, so
+ * generating keys never contends between threads.
+ */
+public interface KeyDistribution {
+
+    /**
+     * Short description used in reports
+     *
+     * @return Distribution name
+     */
+    String name();
+
+    /**
+     * Create an independent generator for one thread
+     *
+     * @param threadIndex Index of the thread (0-based)
+     * @param threadCount Number of threads sharing the workload
+     * @return Key generator
+     */
+    KeyGenerator generator(int threadIndex, int threadCount);
+
+    /**
+     * Keys "key_0" .. "key_(keySpace-1)" with equal probability
+     *
+     * @param keySpace Number of distinct keys
+     * @return Distribution
+     */
+    static KeyDistribution uniform(int keySpace) {
+        if (keySpace < 1) {
+            throw new IllegalArgumentException("keySpace must be at least 1: " + keySpace);
+        }
+        return new KeyDistribution() {
+            @Override
+            public String name() {
+                return "uniform(" + keySpace + ")";
+            }
+
+            @Override
+            public KeyGenerator generator(int threadIndex, int threadCount) {
+                SplittableRandom random = new SplittableRandom(0x5EED + threadIndex);
+                return () -> "key_" + random.nextInt(keySpace);
+            }
+        };
+    }
+
+    /**
+     * Zipfian keys: "key_r" is drawn with probability proportional to
+     * 1 / (r + 1)^skew, so key_0 is the hottest. Sampling is a binary search
+     * over the precomputed cumulative distribution, which works for any skew.
+     *
+     * @param keySpace Number of distinct keys
+     * @param skew     Zipf exponent (0 = uniform, 0.99 = YCSB default, larger = hotter)
+     * @return Distribution
+     */
+    static KeyDistribution zipfian(int keySpace, double skew) {
+        if (keySpace < 1) {
+            throw new IllegalArgumentException("keySpace must be at least 1: " + keySpace);
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew must not be negative: " + skew);
+        }
+        double[] cumulative = new double[keySpace];
+        double total = 0;
+        for (int rank = 0; rank < keySpace; rank++) {
+            total += 1.0 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        double norm = total;
+        return new KeyDistribution() {
+            @Override
+            public String name() {
+                return "zipfian(" + keySpace + ", s=" + skew + ")";
+            }
+
+            @Override
+            public KeyGenerator generator(int threadIndex, int threadCount) {
+                SplittableRandom random = new SplittableRandom(0x21FF + threadIndex);
+                return () -> {
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble() * norm);
+                    return "key_" + (rank >= 0 ? rank : Math.min(-rank - 1, keySpace - 1));
+                };
+            }
+        };
+    }
+
+    /**
+     * Monotonically increasing keys; threads interleave so together they
+     * produce key_0, key_1, key_2, ... without coordinating
+     *
+     * @return Distribution
+     */
+    static KeyDistribution sequential() {
+        return new KeyDistribution() {
+            @Override
+            public String name() {
+                return "sequential";
+            }
+
+            @Override
+            public KeyGenerator generator(int threadIndex, int threadCount) {
+                long[] next = {threadIndex};
+                return () -> {
+                    String key = "key_" + next[0];
+                    next[0] += threadCount;
+                    return key;
+                };
+            }
+        };
+    }
+
+    /**
+     * Replay keys from a trace file, one key per line (blank lines skipped).
+     * Each thread starts at its own offset and loops over the trace.
+     *
+     * @param file Trace file (UTF-8)
+     * @return Distribution
+     * @throws IOException If the file cannot be read or holds no keys
+     */
+    static KeyDistribution trace(Path file) throws IOException {
+        String[] keys = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .toArray(String[]::new);
+        if (keys.length == 0) {
+            throw new IOException("Trace file has no keys: " + file);
+        }
+        return new KeyDistribution() {
+            @Override
+            public String name() {
+                return "trace(" + file.getFileName() + ", " + keys.length + " keys)";
+            }
+
+            @Override
+            public KeyGenerator generator(int threadIndex, int threadCount) {
+                int[] next = {(int) ((long) keys.length * threadIndex / threadCount)};
+                return () -> {
+                    String key = keys[next[0]];
+                    next[0] = next[0] + 1 == keys.length ? 0 : next[0] + 1;
+                    return key;
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.hashing;
+
+/**
+ * Source of keys for one load-generating thread; not thread-safe
+ */
+@FunctionalInterface
+public interface KeyGenerator {
+
+    /**
+     * Produce the next key
+     *
+     * @return Key to look up
+     */
+    String nextKey();
+}
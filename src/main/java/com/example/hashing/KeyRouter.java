@@ -0,0 +1,29 @@
+package com.example.hashing;
+
+import java.util.Set;
+
+/**
+ * Placement strategy mapping keys to servers.
+ * Implementations must be safe for concurrent lookups while membership changes.
+ */
+public interface KeyRouter {
+
+    /**
+     * Find the server responsible for a given key
+     *
+     * @param key The key to route
+     * @return Server identifier or null if no servers available
+     */
+    String getServer(String key);
+
+    void addServer(String server);
+
+    void removeServer(String server);
+
+    /**
+     * Get all active servers
+     *
+     * @return Set of server identifiers
+     */
+    Set<String> getAllServers();
+}
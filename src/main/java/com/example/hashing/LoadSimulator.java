@@ -0,0 +1,229 @@
+package com.example.hashing;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a ring with lookups from several threads while membership churns.
+ *
+ * Every worker has its own key generator, latency histogram and load
+ * counters, merged once at the end, so the harness itself adds no shared
+ * contention. A churn loop on the calling thread alternately removes a
+ * random server and adds it back, counting how many of a fixed sample of
+ * keys change owner on every event.
+ */
+public class LoadSimulator {
+    private static final int MOVED_KEY_SAMPLE = 10_000;
+
+    private final ConsistentHashRing ring;
+    private final KeyDistribution distribution;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean virtualThreads;
+    private long durationMillis = 5_000;
+    private long churnIntervalMillis;
+
+    /**
+     * Create a simulator; the ring is mutated by churn, pass a copy to keep the original
+     *
+     * @param ring         Ring to drive
+     * @param distribution Key distribution
+     */
+    public LoadSimulator(ConsistentHashRing ring, KeyDistribution distribution) {
+        this.ring = ring;
+        this.distribution = distribution;
+    }
+
+    public LoadSimulator threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Run workers on virtual threads (Java 21+) instead of platform threads
+     *
+     * @param virtualThreads true for virtual threads
+     * @return This simulator
+     */
+    public LoadSimulator virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public LoadSimulator durationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+        return this;
+    }
+
+    /**
+     * Churn membership every interval (0 = no churn)
+     *
+     * @param churnIntervalMillis Milliseconds between membership changes
+     * @return This simulator
+     */
+    public LoadSimulator churnIntervalMillis(long churnIntervalMillis) {
+        this.churnIntervalMillis = churnIntervalMillis;
+        return this;
+    }
+
+    /**
+     * Run the simulation
+     *
+     * @return Report with throughput, latency, imbalance and moved keys
+     */
+    public SimulationReport run() {
+        String[] sample = new String[MOVED_KEY_SAMPLE];
+        KeyGenerator sampler = distribution.generator(0, 1);
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = sampler.nextKey();
+        }
+
+        ExecutorService executor = virtualThreads ? newVirtualThreadExecutor() : Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Worker> workers = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Worker worker = new Worker(distribution.generator(t, threads), ready, start);
+            workers.add(worker);
+            futures.add(executor.submit(worker));
+        }
+
+        int churnEvents = 0;
+        long movedKeys = 0;
+        long begin;
+        long end;
+        try {
+            ready.await();
+            begin = System.nanoTime();
+            start.countDown();
+            long deadline = begin + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            Random random = new Random(42);
+            String removed = null;
+            int removedWeight = 1;
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) break;
+                if (churnIntervalMillis <= 0) {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                    continue;
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(churnIntervalMillis)));
+                if (System.nanoTime() >= deadline) break;
+
+                RingSnapshot before = ring.getSnapshot();
+                if (removed != null) {
+                    ring.addServer(removed, removedWeight);
+                    removed = null;
+                } else if (before.serverCount() > 1) {
+                    int ordinal = random.nextInt(before.serverCount());
+                    removed = before.server(ordinal);
+                    removedWeight = before.weight(ordinal);
+                    ring.removeServer(removed);
+                } else {
+                    continue;
+                }
+                movedKeys += countMoved(before, ring.getSnapshot(), sample);
+                churnEvents++;
+            }
+            for (Worker worker : workers) {
+                worker.stop = true;
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            end = System.nanoTime();
+            if (removed != null) ring.addServer(removed, removedWeight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        Map<String, Long> loads = new TreeMap<>();
+        long operations = 0;
+        for (Worker worker : workers) {
+            latency.add(worker.latency);
+            worker.loads.forEach((server, count) -> loads.merge(server, count[0], Long::sum));
+            operations += worker.operations;
+        }
+        return new SimulationReport(distribution.name(), threads, virtualThreads, end - begin, operations,
+                latency, loads, churnEvents, sample.length, movedKeys);
+    }
+
+    private static long countMoved(RingSnapshot before, RingSnapshot after, String[] sample) {
+        long moved = 0;
+        for (String key : sample) {
+            String from = before.getServer(key);
+            if (from != null && !from.equals(after.getServer(key))) moved++;
+        }
+        return moved;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later (running "
+                    + Runtime.version().feature() + ")");
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final KeyGenerator generator;
+        private final CountDownLatch ready;
+        private final CountDownLatch start;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<String, long[]> loads = new HashMap<>();
+        private long operations;
+        private volatile boolean stop;
+
+        Worker(KeyGenerator generator, CountDownLatch ready, CountDownLatch start) {
+            this.generator = generator;
+            this.ready = ready;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            ready.countDown();
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            while (!stop) {
+                // Check the stop flag once per batch so the volatile read stays off the hot path
+                for (int i = 0; i < 256; i++) {
+                    String key = generator.nextKey();
+                    long begin = System.nanoTime();
+                    String server = ring.getServer(key);
+                    latency.record(System.nanoTime() - begin);
+                    if (server != null) {
+                        loads.computeIfAbsent(server, s -> new long[1])[0]++;
+                    }
+                }
+                operations += 256;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.hashing;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-flight load per server for bounded-load routing ("Consistent Hashing
+ * with Bounded Loads", Mirrokni et al.). Counters are LongAdders, so
+ * concurrent acquire/release calls update striped cells instead of
+ * contending on one shared value.
+ *
+ * The bound is checked without a lock, so under heavy concurrency a server
+ * may briefly exceed its capacity by the number of racing acquirers. The
+ * allowed overload is passed in per check, so a ring keeps one tracker for
+ * its lifetime and releases always reach the counters their acquire used.
+ */
+final class LoadTracker {
+    private final ConcurrentHashMap<String, LongAdder> loads = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Maximum load a server may carry: ceil((1 + epsilon) x average), counting the request being placed
+     *
+     * @param servers Number of servers sharing the load
+     * @param epsilon Allowed overload above the average
+     * @return Capacity per server
+     */
+    long capacity(int servers, double epsilon) {
+        return (long) Math.ceil((1 + epsilon) * (total.sum() + 1) / servers);
+    }
+
+    long load(String server) {
+        LongAdder load = loads.get(server);
+        return load == null ? 0 : load.sum();
+    }
+
+    void increment(String server) {
+        loads.computeIfAbsent(server, s -> new LongAdder()).increment();
+        total.increment();
+    }
+
+    void decrement(String server) {
+        LongAdder load = loads.get(server);
+        if (load == null) {
+            throw new IllegalStateException("release without acquire for server " + server);
+        }
+        load.decrement();
+        total.decrement();
+    }
+
+    Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        loads.forEach((server, load) -> result.put(server, load.sum()));
+        return result;
+    }
+}
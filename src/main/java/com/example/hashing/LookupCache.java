@@ -0,0 +1,237 @@
+package com.example.hashing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded near cache of key → server routing decisions in front of a
+ * ConsistentHashRing, for skewed (Zipfian) traffic.
+ *
+ * Every entry remembers the ring epoch it was computed for; an entry from an
+ * older epoch is treated as a miss and refreshed in place, so a membership
+ * change invalidates the whole cache in O(1) without clearing it.
+ *
+ * Eviction follows W-TinyLFU: keys seen at least twice enter a small LRU
+ * window (1% of each stripe), and a key leaving the window is admitted to the main LRU only if
+ * the frequency sketch says it is more popular than the main region's
+ * eviction victim. The cache is split into independently locked stripes;
+ * hits are served from a concurrent index without taking the lock.
+ *
+ * The cache routes through the ring's plain placement and should not be used
+ * together with bounded-load mode, whose answers depend on live load.
+ */
+public class LookupCache {
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final ConsistentHashRing ring;
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int maximumSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static final class Entry {
+        final String server;
+        final long epoch;
+
+        Entry(String server, long epoch) {
+            this.server = server;
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * One independently locked slice of the cache. Reads go through the
+     * concurrent index without locking; the LRU regions and the admission
+     * policy are only changed under the stripe lock.
+     */
+    private static final class Stripe {
+        final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<>();
+        final LinkedHashMap<String, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+        final LinkedHashMap<String, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+        final ReentrantLock lock = new ReentrantLock();
+        final FrequencySketch sketch;
+        final int windowCapacity;
+        final int mainCapacity;
+
+        /**
+         * @param capacity Entries the stripe may hold (at least 2: one window and one main entry)
+         */
+        Stripe(int capacity) {
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.mainCapacity = capacity - windowCapacity;
+            this.sketch = new FrequencySketch(capacity);
+        }
+    }
+
+    public LookupCache(ConsistentHashRing ring, int maximumSize) {
+        this(ring, maximumSize, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param ring        Ring to route through on a miss
+     * @param maximumSize Maximum number of cached keys (the memory budget)
+     * @param stripes     Number of independently locked stripes (rounded up to a power of two,
+     *                    at most maximumSize / 2 so every stripe holds two entries)
+     */
+    public LookupCache(ConsistentHashRing ring, int maximumSize, int stripes) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("maximumSize must be at least 2: " + maximumSize);
+        }
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be at least 1: " + stripes);
+        }
+        int requested = Integer.highestOneBit(Math.min(stripes, 1 << 30) * 2 - 1);
+        // Rounding down here keeps window + main of every stripe within maximumSize / count
+        int count = Math.min(requested, Integer.highestOneBit(maximumSize / 2));
+        this.ring = ring;
+        this.maximumSize = maximumSize;
+        this.stripes = new Stripe[count];
+        // Stripes take the top bits; the maps inside a stripe index by the low bits
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(count);
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(maximumSize / count);
+        }
+    }
+
+    /**
+     * Find the server responsible for a key, from the cache when possible
+     *
+     * @param key The key to route
+     * @return Server identifier or null if no servers available
+     */
+    public String getServer(String key) {
+        int hash = spread(key.hashCode());
+        Stripe stripe = stripeFor(hash);
+        RingSnapshot snapshot = ring.getSnapshot();
+        long epoch = snapshot.epoch();
+
+        Entry entry = stripe.index.get(key);
+        if (entry != null && entry.epoch == epoch) {
+            hits.increment();
+            // Recency and frequency are best effort: skip them if a writer holds the stripe
+            if (stripe.lock.tryLock()) {
+                try {
+                    stripe.sketch.increment(hash);
+                    if (stripe.window.get(key) == null) {
+                        stripe.main.get(key);
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            return entry.server;
+        }
+
+        misses.increment();
+        String server = snapshot.getServer(key);
+        if (server == null) return null;
+
+        Entry fresh = new Entry(server, epoch);
+        stripe.lock.lock();
+        try {
+            stripe.sketch.increment(hash);
+            Entry current = stripe.index.get(key);
+            if (current != null) {
+                // Stale epoch: refresh in place, never move back to an older epoch
+                if (epoch > current.epoch) {
+                    stripe.index.put(key, fresh);
+                    if (stripe.window.replace(key, fresh) == null) {
+                        stripe.main.replace(key, fresh);
+                    }
+                }
+            } else if (stripe.sketch.frequency(hash) > 1) {
+                // Doorkeeper: a key seen for the first time is not worth an insertion
+                admit(stripe, key, fresh);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return server;
+    }
+
+    private void admit(Stripe stripe, String key, Entry entry) {
+        stripe.index.put(key, entry);
+        stripe.window.put(key, entry);
+        if (stripe.window.size() <= stripe.windowCapacity) return;
+
+        // Window overflow: its LRU entry competes with the main region's victim
+        Iterator<Map.Entry<String, Entry>> windowOldest = stripe.window.entrySet().iterator();
+        Map.Entry<String, Entry> candidate = windowOldest.next();
+        windowOldest.remove();
+
+        if (stripe.main.size() < stripe.mainCapacity) {
+            stripe.main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        Iterator<Map.Entry<String, Entry>> mainOldest = stripe.main.entrySet().iterator();
+        Map.Entry<String, Entry> victim = mainOldest.next();
+        int candidateFrequency = stripe.sketch.frequency(spread(candidate.getKey().hashCode()));
+        int victimFrequency = stripe.sketch.frequency(spread(victim.getKey().hashCode()));
+        if (candidateFrequency > victimFrequency) {
+            mainOldest.remove();
+            stripe.index.remove(victim.getKey());
+            stripe.main.put(candidate.getKey(), candidate.getValue());
+        } else {
+            stripe.index.remove(candidate.getKey());
+        }
+    }
+
+    private Stripe stripeFor(int hash) {
+        return stripes.length == 1 ? stripes[0] : stripes[hash >>> stripeShift];
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x45d9f3b;
+    }
+
+    /**
+     * Fraction of lookups answered from the cache
+     *
+     * @return Hit ratio in [0, 1]
+     */
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of cached keys (including entries from older epochs)
+     *
+     * @return Entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.index.size();
+        }
+        return size;
+    }
+
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Print hit ratio and occupancy
+     */
+    public void printStats() {
+        System.out.printf("🗄️  Lookup cache: %d/%d entries | hits: %d | misses: %d | hit ratio: %.1f%%\n",
+                size(), maximumSize, hitCount(), missCount(), hitRatio() * 100);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.hashing;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maglev-style router: every server walks its own permutation of a fixed
+ * size lookup table and the servers take turns claiming free slots, so each
+ * server ends up with an (almost) equal share. A lookup is one table read.
+ *
+ * The table is rebuilt on every membership change. Because each server's
+ * preference order is fixed, most slots keep their owner and only a little
+ * more than the minimal set of keys moves. Servers fill the table in name
+ * order, so the table does not depend on the order servers were added in.
+ */
+public class MaglevRouter implements KeyRouter {
+    /**
+     * Default table size, a prime well above 100 x the expected server count
+     */
+    public static final int DEFAULT_TABLE_SIZE = 65537;
+
+    private final HashFunction hashFunction;
+    private final int tableSize;
+    private volatile Table table = new Table(new String[0], new int[0]);
+
+    private static final class Table {
+        final String[] servers;
+        final int[] slots;
+
+        Table(String[] servers, int[] slots) {
+            this.servers = servers;
+            this.slots = slots;
+        }
+    }
+
+    public MaglevRouter() {
+        this(HashFunction.murmur3(), DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Create a Maglev router
+     *
+     * @param hashFunction Hash function for servers and keys
+     * @param tableSize    Lookup table size; must be prime so every permutation visits every slot
+     */
+    public MaglevRouter(HashFunction hashFunction, int tableSize) {
+        if (!isPrime(tableSize)) {
+            throw new IllegalArgumentException("tableSize must be a prime: " + tableSize);
+        }
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        this.tableSize = tableSize;
+    }
+
+    @Override
+    public String getServer(String key) {
+        Table current = table;
+        if (current.servers.length == 0) return null;
+        return current.servers[current.slots[(int) (hashFunction.hash(key) % tableSize)]];
+    }
+
+    @Override
+    public synchronized void addServer(String server) {
+        Set<String> servers = getAllServers();
+        if (servers.add(server)) {
+            table = populate(servers);
+        }
+    }
+
+    @Override
+    public synchronized void removeServer(String server) {
+        Set<String> servers = getAllServers();
+        if (servers.remove(server)) {
+            table = populate(servers);
+        }
+    }
+
+    @Override
+    public Set<String> getAllServers() {
+        return new LinkedHashSet<>(Arrays.asList(table.servers));
+    }
+
+    public int getTableSize() {
+        return tableSize;
+    }
+
+    static boolean isPrime(int n) {
+        if (n < 2) return false;
+        if (n % 2 == 0) return n == 2;
+        for (int d = 3; (long) d * d <= n; d += 2) {
+            if (n % d == 0) return false;
+        }
+        return true;
+    }
+
+    private Table populate(Set<String> members) {
+        String[] servers = members.toArray(new String[0]);
+        Arrays.sort(servers);
+        int n = servers.length;
+        int[] slots = new int[n == 0 ? 0 : tableSize];
+        if (n == 0) return new Table(servers, slots);
+
+        long[] offsets = new long[n];
+        long[] skips = new long[n];
+        long[] next = new long[n];
+        for (int i = 0; i < n; i++) {
+            long h = hashFunction.hash(servers[i]);
+            offsets[i] = h % tableSize;
+            // 0 < skip < tableSize and tableSize prime: each permutation visits every slot once
+            skips[i] = Math.floorMod(Murmur3HashFunction.fmix64(h), tableSize - 1) + 1;
+        }
+
+        Arrays.fill(slots, -1);
+        int filled = 0;
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                int slot = (int) ((offsets[i] + next[i] * skips[i]) % tableSize);
+                while (slots[slot] >= 0) {
+                    next[i]++;
+                    slot = (int) ((offsets[i] + next[i] * skips[i]) % tableSize);
+                }
+                slots[slot] = i;
+                next[i]++;
+                if (++filled == tableSize) return new Table(servers, slots);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.hashing;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Read-only ring served straight from a memory-mapped snapshot file.
+ *
+ * Lookups binary-search the mapped position array, so a router is ready as
+ * soon as the file is mapped and the operating system pages in only the
+ * parts of the ring that are actually touched. Routing is identical to the
+ * ConsistentHashRing the snapshot was written from, including servers that
+ * were marked down: while any server is down the file carries each
+ * position's routing owner, so lookups still read a single owner entry.
+ * Call toRing() to get a mutable ring when membership has to change.
+ *
+ * The mapping is released when this object is garbage collected.
+ */
+public final class MappedRing {
+    private final LongBuffer positions;
+    private final IntBuffer owners;
+    private final IntBuffer routes;
+    private final String[] servers;
+    private final int[] weights;
+    private final boolean[] down;
+    private final long epoch;
+    private final int virtualNodes;
+    private final HashFunction hashFunction;
+
+    MappedRing(LongBuffer positions, IntBuffer owners, IntBuffer routes, String[] servers, int[] weights,
+               boolean[] down, long epoch, int virtualNodes, HashFunction hashFunction) {
+        this.positions = positions;
+        this.owners = owners;
+        this.routes = routes;
+        this.servers = servers;
+        this.weights = weights;
+        this.down = down;
+        this.epoch = epoch;
+        this.virtualNodes = virtualNodes;
+        this.hashFunction = hashFunction;
+    }
+
+    /**
+     * Find the server responsible for a key
+     *
+     * @param key Key to route
+     * @return Server identifier or null if the ring is empty or every server is down
+     */
+    public String getServer(String key) {
+        return serverFor(hashFunction.hash(key));
+    }
+
+    /**
+     * Find the server for a numeric key; same result as getServer(Long.toString(key))
+     *
+     * @param key Numeric key
+     * @return Server identifier or null if the ring is empty or every server is down
+     */
+    public String getServer(long key) {
+        return serverFor(hashFunction.hash(key));
+    }
+
+    /**
+     * Find the server owning a hash
+     *
+     * @param hash Key hash
+     * @return Server identifier or null if the ring is empty or every server is down
+     */
+    public String serverFor(long hash) {
+        int index = indexFor(hash);
+        if (index < 0) return null;
+        int owner = (routes == null ? owners : routes).get(index);
+        return owner < 0 ? null : servers[owner];
+    }
+
+    /**
+     * Index of the first position clockwise from a hash (wrapping around)
+     *
+     * @param hash Key hash
+     * @return Position index, or -1 if the ring is empty
+     */
+    public int indexFor(long hash) {
+        LongBuffer positions = this.positions;
+        int size = positions.limit();
+        if (size == 0) return -1;
+
+        int base = 0;
+        int n = size;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = positions.get(base + half) < hash ? base + half : base;
+            n -= half;
+        }
+        int index = base + (positions.get(base) < hash ? 1 : 0);
+        return index == size ? 0 : index;
+    }
+
+    /**
+     * Copy the mapped arrays into a heap snapshot
+     *
+     * @return Snapshot with the same positions, servers, down servers and epoch
+     */
+    public RingSnapshot toSnapshot() {
+        long[] positionArray = new long[positions.limit()];
+        int[] ownerArray = new int[owners.limit()];
+        positions.duplicate().get(positionArray);
+        owners.duplicate().get(ownerArray);
+        RingSnapshot snapshot = new RingSnapshot(positionArray, ownerArray, servers.clone(), weights.clone(), epoch, hashFunction);
+        return down == null ? snapshot : snapshot.withHealth(getDownServers(), epoch);
+    }
+
+    /**
+     * Build a mutable ring starting from this snapshot
+     *
+     * @return Ring with the same membership, down servers, virtual nodes and epoch
+     */
+    public ConsistentHashRing toRing() {
+        return new ConsistentHashRing(toSnapshot(), virtualNodes);
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public HashFunction hashFunction() {
+        return hashFunction;
+    }
+
+    /**
+     * Number of positions on the ring
+     *
+     * @return Position count
+     */
+    public int size() {
+        return positions.limit();
+    }
+
+    public boolean isEmpty() {
+        return positions.limit() == 0;
+    }
+
+    public long positionAt(int index) {
+        return positions.get(index);
+    }
+
+    public String serverAt(int index) {
+        return servers[owners.get(index)];
+    }
+
+    /**
+     * Members that were marked down when the snapshot was written
+     *
+     * @return Set of server identifiers
+     */
+    public Set<String> getDownServers() {
+        Set<String> result = new LinkedHashSet<>();
+        if (down == null) return result;
+        for (int ordinal = 0; ordinal < servers.length; ordinal++) {
+            if (down[ordinal]) result.add(servers[ordinal]);
+        }
+        return result;
+    }
+
+    /**
+     * Servers that are members of the snapshot
+     *
+     * @return Set of server identifiers
+     */
+    public Set<String> getAllServers() {
+        return new LinkedHashSet<>(Arrays.asList(servers));
+    }
+}
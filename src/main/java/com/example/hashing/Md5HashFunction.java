@@ -0,0 +1,57 @@
+package com.example.hashing;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * MD5 hash function - first 8 bytes of the digest, made positive.
+ * Same placement as the original ring on UTF-8 platforms; the digest
+ * instance is cached per thread instead of looked up on every call.
+ */
+public final class Md5HashFunction implements HashFunction {
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 algorithm not available", e);
+        }
+    });
+    private static final ThreadLocal<byte[]> OUTPUT = ThreadLocal.withInitial(() -> new byte[16]);
+
+    @Override
+    public long hash(byte[] data, int offset, int length) {
+        MessageDigest md5 = DIGEST.get();
+        md5.update(data, offset, length);
+        return finish(md5);
+    }
+
+    @Override
+    public long hash(ByteBuffer data) {
+        MessageDigest md5 = DIGEST.get();
+        md5.update(data.duplicate());
+        return finish(md5);
+    }
+
+    private static long finish(MessageDigest md5) {
+        byte[] digest = OUTPUT.get();
+        try {
+            md5.digest(digest, 0, digest.length);
+        } catch (java.security.DigestException e) {
+            throw new RuntimeException("MD5 digest failed", e);
+        }
+
+        // Convert byte array to long (using first 8 bytes)
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+
+        return Math.abs(hash) & Long.MAX_VALUE; // Ensure positive value
+    }
+
+    @Override
+    public String name() {
+        return "md5";
+    }
+}
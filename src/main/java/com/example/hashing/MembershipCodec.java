@@ -0,0 +1,143 @@
+package com.example.hashing;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of membership log records. Every integer is an unsigned
+ * LEB128 varint and entries are sorted by server name and front-coded:
+ * each name is stored as the number of leading bytes it shares with the
+ * previous name plus the remaining bytes, so "10.0.3.17:8080" after
+ * "10.0.3.12:8080" costs 7 bytes instead of 15.
+ *
+ * <pre>
+ * record  := varint epochDelta, varint count, entry*
+ * entry   := byte op, varint shared, varint suffixLength, suffix, [varint weight unless REMOVE]
+ * </pre>
+ */
+final class MembershipCodec {
+    private static final MembershipEntry.Op[] OPS = MembershipEntry.Op.values();
+
+    private MembershipCodec() {
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static int readCount(ByteBuffer in) {
+        long value = readVarint(in);
+        if (value > in.remaining()) {
+            throw new IllegalArgumentException("Count " + value + " exceeds the " + in.remaining() + " bytes left");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Encode one record; entries are sorted by server name (at most one entry per server)
+     */
+    static byte[] encodeRecord(long epochDelta, List<MembershipEntry> entries) {
+        MembershipEntry[] sorted = entries.toArray(new MembershipEntry[0]);
+        Arrays.sort(sorted, Comparator.comparing(MembershipEntry::getServer));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + sorted.length * 8);
+        writeVarint(out, epochDelta);
+        writeVarint(out, sorted.length);
+        byte[] previous = new byte[0];
+        for (MembershipEntry entry : sorted) {
+            byte[] name = entry.getServer().getBytes(StandardCharsets.UTF_8);
+            int shared = 0;
+            int limit = Math.min(previous.length, name.length);
+            while (shared < limit && previous[shared] == name[shared]) shared++;
+            out.write(entry.getOp().ordinal());
+            writeVarint(out, shared);
+            writeVarint(out, name.length - shared);
+            out.write(name, shared, name.length - shared);
+            if (entry.getOp() != MembershipEntry.Op.REMOVE) writeVarint(out, entry.getWeight());
+            previous = name;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode a full membership as a record of ADD entries
+     */
+    static byte[] encodeMembership(long epochDelta, Map<String, Integer> members) {
+        List<MembershipEntry> entries = new ArrayList<>(members.size());
+        members.forEach((server, weight) -> entries.add(MembershipEntry.add(server, weight)));
+        return encodeRecord(epochDelta, entries);
+    }
+
+    /**
+     * Decode the entries of one record whose epoch delta was already read
+     */
+    static List<MembershipEntry> decodeEntries(ByteBuffer in) {
+        try {
+            int count = readCount(in);
+            List<MembershipEntry> entries = new ArrayList<>(count);
+            byte[] previous = new byte[0];
+            for (int i = 0; i < count; i++) {
+                int op = in.get();
+                if (op < 0 || op >= OPS.length) {
+                    throw new IllegalArgumentException("Unknown membership op " + op);
+                }
+                long sharedBytes = readVarint(in);
+                if (sharedBytes > previous.length) {
+                    throw new IllegalArgumentException("Shared prefix " + sharedBytes + " longer than previous name");
+                }
+                int shared = (int) sharedBytes;
+                int suffix = readCount(in);
+                byte[] name = Arrays.copyOf(previous, shared + suffix);
+                in.get(name, shared, suffix);
+                String server = new String(name, StandardCharsets.UTF_8);
+                switch (OPS[op]) {
+                    case ADD:
+                        entries.add(MembershipEntry.add(server, (int) readVarint(in)));
+                        break;
+                    case WEIGHT:
+                        entries.add(MembershipEntry.weight(server, (int) readVarint(in)));
+                        break;
+                    default:
+                        entries.add(MembershipEntry.remove(server));
+                }
+                previous = name;
+            }
+            return entries;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated membership record", e);
+        }
+    }
+
+    /**
+     * Apply entries to a server to weight map
+     */
+    static void apply(Map<String, Integer> members, List<MembershipEntry> entries) {
+        for (MembershipEntry entry : entries) {
+            if (entry.getOp() == MembershipEntry.Op.REMOVE) {
+                members.remove(entry.getServer());
+            } else {
+                members.put(entry.getServer(), entry.getWeight());
+            }
+        }
+    }
+}
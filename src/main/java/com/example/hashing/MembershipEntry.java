@@ -0,0 +1,74 @@
+package com.example.hashing;
+
+import java.util.Objects;
+
+/**
+ * One membership change in a MembershipLog record
+ */
+public final class MembershipEntry {
+    public enum Op {
+        ADD, REMOVE, WEIGHT
+    }
+
+    private final Op op;
+    private final String server;
+    private final int weight;
+
+    private MembershipEntry(Op op, String server, int weight) {
+        this.op = op;
+        this.server = Objects.requireNonNull(server, "server");
+        this.weight = weight;
+    }
+
+    public static MembershipEntry add(String server, int weight) {
+        return new MembershipEntry(Op.ADD, server, checkWeight(weight));
+    }
+
+    public static MembershipEntry remove(String server) {
+        return new MembershipEntry(Op.REMOVE, server, 0);
+    }
+
+    public static MembershipEntry weight(String server, int weight) {
+        return new MembershipEntry(Op.WEIGHT, server, checkWeight(weight));
+    }
+
+    private static int checkWeight(int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be at least 1: " + weight);
+        }
+        return weight;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * New weight for ADD and WEIGHT entries (0 for REMOVE)
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MembershipEntry)) return false;
+        MembershipEntry other = (MembershipEntry) o;
+        return op == other.op && weight == other.weight && server.equals(other.server);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(op, server, weight);
+    }
+
+    @Override
+    public String toString() {
+        return op == Op.REMOVE ? op + " " + server : op + " " + server + " x" + weight;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.hashing;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a router's ring in sync with a MembershipLog by applying encoded
+ * updates. All records of one update are folded into a net change first
+ * and published with a single ConsistentHashRing.applyChanges, so an
+ * update costs one incremental snapshot merge however many records it
+ * holds; a full update is diffed against the current membership and
+ * patched the same way.
+ */
+public class MembershipFollower {
+    private final ConsistentHashRing ring;
+    private final Map<String, Integer> weights = new HashMap<>();
+    private long epoch;
+
+    /**
+     * Follow a log, starting at epoch 0; servers already in the ring are
+     * reconciled by the first full update
+     *
+     * @param ring Ring to patch; change its membership only through this follower
+     */
+    public MembershipFollower(ConsistentHashRing ring) {
+        this.ring = ring;
+        RingSnapshot snapshot = ring.getSnapshot();
+        for (int ordinal = 0; ordinal < snapshot.serverCount(); ordinal++) {
+            weights.put(snapshot.server(ordinal), snapshot.weight(ordinal));
+        }
+    }
+
+    /**
+     * Apply an update from MembershipLog.encodeSince
+     *
+     * @param update Encoded update
+     * @return Number of records applied (records at or before the current epoch are skipped)
+     * @throws IllegalStateException    if a delta starts after the current epoch
+     * @throws IllegalArgumentException if the update is malformed
+     */
+    public synchronized int apply(ByteBuffer update) {
+        byte kind = update.get();
+        long start = MembershipCodec.readVarint(update);
+        // Net change over the whole update: weight 0 means removed
+        Map<String, Integer> changes = new LinkedHashMap<>();
+        if (kind == MembershipLog.FULL) {
+            MembershipCodec.readVarint(update);
+            Map<String, Integer> target = new HashMap<>();
+            MembershipCodec.apply(target, MembershipCodec.decodeEntries(update));
+            for (String server : weights.keySet()) {
+                if (!target.containsKey(server)) changes.put(server, 0);
+            }
+            changes.putAll(target);
+        } else if (kind != MembershipLog.DELTA) {
+            throw new IllegalArgumentException("Unknown update kind " + kind);
+        } else if (start > epoch) {
+            throw new IllegalStateException("Update starts at epoch " + start + " but the follower is at " + epoch);
+        }
+
+        long recordEpoch = start;
+        int applied = 0;
+        int count = MembershipCodec.readCount(update);
+        for (int r = 0; r < count; r++) {
+            recordEpoch += MembershipCodec.readVarint(update);
+            List<MembershipEntry> entries = MembershipCodec.decodeEntries(update);
+            if (kind == MembershipLog.DELTA && recordEpoch <= epoch) continue;
+            for (MembershipEntry entry : entries) {
+                changes.put(entry.getServer(), entry.getOp() == MembershipEntry.Op.REMOVE ? 0 : entry.getWeight());
+            }
+            applied++;
+        }
+        if (kind == MembershipLog.DELTA && recordEpoch <= epoch) return 0;
+
+        Map<String, Integer> add = new LinkedHashMap<>();
+        List<String> remove = new ArrayList<>();
+        for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            String server = change.getKey();
+            int weight = change.getValue();
+            Integer current = weights.get(server);
+            if (current != null && current == weight) continue;
+            if (current != null) remove.add(server);
+            if (weight > 0) add.put(server, weight);
+        }
+        ring.applyChanges(add, remove);
+        for (String server : remove) {
+            weights.remove(server);
+        }
+        weights.putAll(add);
+        epoch = recordEpoch;
+        return applied;
+    }
+
+    /**
+     * Last log epoch applied (0 before the first update)
+     */
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Current membership as applied
+     *
+     * @return Server to weight
+     */
+    public synchronized Map<String, Integer> getMembership() {
+        return new HashMap<>(weights);
+    }
+}
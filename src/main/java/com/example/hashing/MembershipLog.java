@@ -0,0 +1,224 @@
+package com.example.hashing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned membership change log. Every appended record of add, remove
+ * and weight entries gets the next epoch; routers fetch the records after
+ * the epoch they have applied (encodeSince) and patch their ring with a
+ * MembershipFollower instead of rebuilding it from the full server list.
+ *
+ * Records are stored encoded (MembershipCodec). compact folds the oldest
+ * records into a checkpoint of the membership at that epoch; a router
+ * that is further behind than the checkpoint receives the checkpoint plus
+ * the remaining records.
+ *
+ * Update layout, all integers varints:
+ * <pre>
+ *   byte   kind (0 = delta, 1 = full)
+ *   varint start epoch (the epoch the receiver must be at for a delta, the checkpoint epoch for a full update)
+ *   [full only] checkpoint record of ADD entries
+ *   varint record count, then the records (epoch deltas relative to the start epoch)
+ * </pre>
+ *
+ * Files written by write add a little-endian int MAGIC and VERSION before a
+ * full update and a CRC32C of every preceding byte after it.
+ */
+public class MembershipLog {
+    static final byte DELTA = 0;
+    static final byte FULL = 1;
+    static final int MAGIC = 0x474F4C4D;
+    static final int VERSION = 1;
+
+    private final TreeMap<String, Integer> checkpoint = new TreeMap<>();
+    private final TreeMap<String, Integer> members = new TreeMap<>();
+    private final List<byte[]> records = new ArrayList<>();
+    private long baseEpoch;
+    private long recordBytes;
+
+    /**
+     * Append a record
+     *
+     * @param entries Changes, at most one per server
+     * @return Epoch of the record
+     * @throws IllegalArgumentException if an entry does not match the current membership
+     */
+    public synchronized long append(List<MembershipEntry> entries) {
+        Set<String> seen = new HashSet<>();
+        for (MembershipEntry entry : entries) {
+            String server = entry.getServer();
+            if (!seen.add(server)) {
+                throw new IllegalArgumentException("More than one entry for " + server + " in one record");
+            }
+            boolean member = members.containsKey(server);
+            if (entry.getOp() == MembershipEntry.Op.ADD ? member : !member) {
+                throw new IllegalArgumentException("Cannot apply " + entry + (member ? ": already a member" : ": not a member"));
+            }
+        }
+        byte[] record = MembershipCodec.encodeRecord(1, entries);
+        MembershipCodec.apply(members, entries);
+        records.add(record);
+        recordBytes += record.length;
+        return getEpoch();
+    }
+
+    public synchronized long getEpoch() {
+        return baseEpoch + records.size();
+    }
+
+    /**
+     * Epoch of the checkpoint; updates for older epochs are full updates
+     */
+    public synchronized long getBaseEpoch() {
+        return baseEpoch;
+    }
+
+    /**
+     * Current membership
+     *
+     * @return Server to weight, sorted by server
+     */
+    public synchronized Map<String, Integer> getMembership() {
+        return Collections.unmodifiableMap(new TreeMap<>(members));
+    }
+
+    /**
+     * Encoded size of the retained records (the checkpoint is not counted)
+     */
+    public synchronized long getRecordBytes() {
+        return recordBytes;
+    }
+
+    public synchronized int getRecordCount() {
+        return records.size();
+    }
+
+    /**
+     * Encode the update a router at an epoch needs to reach the current epoch
+     *
+     * @param epoch Epoch the router has applied (0 for a new router)
+     * @return Delta update, or a full update if the epoch is older than the checkpoint
+     */
+    public synchronized byte[] encodeSince(long epoch) {
+        if (epoch > getEpoch() || epoch < 0) {
+            throw new IllegalArgumentException("Epoch " + epoch + " outside [0, " + getEpoch() + "]");
+        }
+        return encode(epoch < baseEpoch, epoch);
+    }
+
+    private synchronized byte[] encode(boolean full, long epoch) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(full ? FULL : DELTA);
+        MembershipCodec.writeVarint(out, full ? baseEpoch : epoch);
+        if (full) out.writeBytes(MembershipCodec.encodeMembership(0, checkpoint));
+        int first = full ? 0 : (int) (epoch - baseEpoch);
+        MembershipCodec.writeVarint(out, records.size() - first);
+        for (int r = first; r < records.size(); r++) {
+            out.writeBytes(records.get(r));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Fold every record up to an epoch into the checkpoint
+     *
+     * @param epoch Last epoch to fold (clamped to the current epoch)
+     * @return Record bytes released
+     */
+    public synchronized long compact(long epoch) {
+        int fold = (int) Math.max(0, Math.min(epoch, getEpoch()) - baseEpoch);
+        long released = 0;
+        for (int r = 0; r < fold; r++) {
+            byte[] record = records.get(r);
+            ByteBuffer in = ByteBuffer.wrap(record);
+            MembershipCodec.readVarint(in);
+            MembershipCodec.apply(checkpoint, MembershipCodec.decodeEntries(in));
+            released += record.length;
+        }
+        records.subList(0, fold).clear();
+        baseEpoch += fold;
+        recordBytes -= released;
+        return released;
+    }
+
+    /**
+     * Write the log (checkpoint and records) to a file, atomically replacing it
+     *
+     * @param path Destination
+     */
+    public void write(Path path) throws IOException {
+        byte[] update = encode(true, 0);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + update.length + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).put(update);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Read a log written by write
+     *
+     * @param path Log file
+     * @return Log with the same checkpoint, records and epoch
+     * @throws IOException if the file is unreadable, corrupt or of another version
+     */
+    public static MembershipLog read(Path path) throws IOException {
+        byte[] data = Files.readAllBytes(path);
+        if (data.length < 13) throw new IOException("Membership log too short: " + path);
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC) throw new IOException("Not a membership log: " + path);
+        int version = buffer.getInt();
+        if (version != VERSION) throw new IOException("Unsupported membership log version " + version);
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != buffer.getInt(data.length - 4)) {
+            throw new IOException("Membership log checksum mismatch: " + path);
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(data, 8, data.length - 12).slice();
+        MembershipLog log = new MembershipLog();
+        try {
+            if (in.get() != FULL) throw new IOException("Membership log file must hold a full update");
+            log.baseEpoch = MembershipCodec.readVarint(in);
+            MembershipCodec.readVarint(in);
+            MembershipCodec.apply(log.checkpoint, MembershipCodec.decodeEntries(in));
+            log.members.putAll(log.checkpoint);
+            int count = MembershipCodec.readCount(in);
+            for (int r = 0; r < count; r++) {
+                int start = in.position();
+                if (MembershipCodec.readVarint(in) != 1) throw new IOException("Gap in membership log epochs");
+                List<MembershipEntry> entries = MembershipCodec.decodeEntries(in);
+                byte[] record = new byte[in.position() - start];
+                in.get(start, record);
+                MembershipCodec.apply(log.members, entries);
+                log.records.add(record);
+                log.recordBytes += record.length;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt membership log: " + path, e);
+        }
+        return log;
+    }
+}
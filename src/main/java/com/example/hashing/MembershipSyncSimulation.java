@@ -0,0 +1,258 @@
+package com.example.hashing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local multi-router membership sync: a coordinator appends churn to a
+ * MembershipLog and streams encoded updates over pipes to router threads,
+ * each patching its own ring through a MembershipFollower. One router is
+ * cut off for a while and catches up from its epoch; a late router joins
+ * after compaction and bootstraps from the checkpoint. Reports sync bytes
+ * and apply latency against rebuilding a ring from the full server list.
+ *
+ * Usage: MembershipSyncSimulation [servers] [routers] [events] [virtualNodes]
+ */
+public class MembershipSyncSimulation {
+    private static final int SAMPLE_KEYS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int servers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int routerCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int events = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        int virtualNodes = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        System.out.println("📜 ============================================");
+        System.out.println("📜        MEMBERSHIP LOG SYNC SIMULATION      ");
+        System.out.println("📜 ============================================\n");
+
+        MembershipLog log = new MembershipLog();
+        Random random = new Random(42);
+        List<String> live = new ArrayList<>();
+        List<MembershipEntry> initial = new ArrayList<>();
+        for (int s = 0; s < servers; s++) {
+            String server = serverName(s);
+            live.add(server);
+            initial.add(MembershipEntry.add(server, 1 + random.nextInt(4)));
+        }
+        log.append(initial);
+        log.compact(log.getEpoch());
+        long textBytes = textSize(log.getMembership());
+        System.out.printf("%,d servers | %d routers | %d churn events | %d virtual nodes\n",
+                servers, routerCount, events, virtualNodes);
+
+        long rebuildStart = System.nanoTime();
+        ConsistentHashRing rebuilt = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+        rebuilt.applyChanges(log.getMembership(), List.of());
+        long rebuildNanos = System.nanoTime() - rebuildStart;
+
+        List<Router> routers = new ArrayList<>();
+        for (int r = 0; r < routerCount; r++) {
+            routers.add(new Router("router-" + r, virtualNodes));
+        }
+        int lagging = routerCount - 1;
+        int cutFrom = events / 5;
+        int cutTo = events * 3 / 5;
+        byte[] bootstrap = log.encodeSince(0);
+        for (Router router : routers) {
+            router.send(bootstrap, true);
+            router.awaitEpoch(log.getEpoch());
+        }
+
+        Router late = null;
+        int nextServer = servers;
+        for (int event = 1; event <= events; event++) {
+            List<MembershipEntry> entries = new ArrayList<>();
+            int removes = 1 + random.nextInt(3);
+            for (int i = 0; i < removes; i++) {
+                entries.add(MembershipEntry.remove(live.remove(random.nextInt(live.size()))));
+            }
+            for (int i = 0, adds = 1 + random.nextInt(3); i < adds; i++) {
+                String server = serverName(nextServer++);
+                entries.add(MembershipEntry.add(server, 1 + random.nextInt(4)));
+                live.add(server);
+            }
+            String reweighted = live.get(random.nextInt(live.size() - 3));
+            entries.add(MembershipEntry.weight(reweighted, 1 + random.nextInt(4)));
+            long epoch = log.append(entries);
+
+            byte[] delta = log.encodeSince(epoch - 1);
+            for (int r = 0; r < routers.size(); r++) {
+                if (r == lagging && event >= cutFrom && event < cutTo) continue;
+                Router router = routers.get(r);
+                if (r == lagging && event == cutTo) {
+                    // Reconnected: catch up from the last epoch the router reported
+                    router.send(log.encodeSince(router.follower.getEpoch()), true);
+                } else {
+                    router.send(delta, false);
+                }
+                // Routers are separate processes in production: apply one at a time so they do not share the core
+                router.awaitEpoch(epoch);
+            }
+            if (late != null) {
+                late.send(delta, false);
+                late.awaitEpoch(epoch);
+            }
+
+            if (event == events * 4 / 5) {
+                log.compact(epoch - 50);
+                late = new Router("router-late", virtualNodes);
+                late.send(log.encodeSince(0), true);
+                late.awaitEpoch(epoch);
+            }
+        }
+        if (late != null) routers.add(late);
+        for (Router router : routers) {
+            router.close();
+        }
+
+        Path file = Files.createTempFile("membership", ".mlog");
+        log.write(file);
+        long fileBytes = Files.size(file);
+        MembershipLog reread = MembershipLog.read(file);
+        Files.delete(file);
+
+        ConsistentHashRing reference = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+        reference.applyChanges(reread.getMembership(), List.of());
+        String[] keys = new String[SAMPLE_KEYS];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key_" + i;
+        }
+
+        System.out.println("\n📊 Sync bytes:");
+        System.out.printf("  Full list as text:          %,12d bytes\n", textBytes);
+        System.out.printf("  Bootstrap (checkpoint):     %,12d bytes\n", bootstrap.length);
+        System.out.printf("  Delta per event (avg):      %,12.1f bytes\n", routers.get(0).deltaBytes.sum() / (double) events);
+        System.out.printf("  Catch-up after %d events:  %,12d bytes\n", cutTo - cutFrom, routers.get(lagging).lastCatchUpBytes);
+        System.out.printf("  Log file (base %d, %d records): %,d bytes\n", reread.getBaseEpoch(), reread.getRecordCount(), fileBytes);
+
+        System.out.println("\n⏱️ Apply latency:");
+        System.out.printf("  Full rebuild from list:     %10.2f ms\n", rebuildNanos / 1e6);
+        for (Router router : routers) {
+            boolean consistent = router.follower.getEpoch() == log.getEpoch()
+                    && router.follower.getMembership().equals(log.getMembership())
+                    && sameRouting(router.ring, reference, keys);
+            System.out.printf("  %-12s bootstrap %8.2f ms | delta p50 %6.2f ms p99 %6.2f ms | epoch %d %s\n",
+                    router.name, router.bootstrapNanos / 1e6, router.deltaLatency.percentile(50) / 1e6,
+                    router.deltaLatency.percentile(99) / 1e6, router.follower.getEpoch(), consistent ? "✅" : "❌");
+        }
+    }
+
+    private static boolean sameRouting(ConsistentHashRing ring, ConsistentHashRing reference, String[] keys) {
+        for (String key : keys) {
+            if (!ring.getServer(key).equals(reference.getServer(key))) return false;
+        }
+        return true;
+    }
+
+    private static String serverName(int index) {
+        return "10." + (index >> 16 & 255) + "." + (index >> 8 & 255) + "." + (index & 255) + ":8080";
+    }
+
+    private static long textSize(Map<String, Integer> members) {
+        long bytes = 0;
+        for (Map.Entry<String, Integer> member : members.entrySet()) {
+            bytes += (member.getKey() + "," + member.getValue() + "\n").getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+
+    /**
+     * A router process: reads length-prefixed updates from its pipe and applies them
+     */
+    private static final class Router implements Runnable {
+        final String name;
+        final ConsistentHashRing ring;
+        final MembershipFollower follower;
+        final LatencyHistogram deltaLatency = new LatencyHistogram();
+        final LongAdder deltaBytes = new LongAdder();
+        volatile long bootstrapNanos;
+        volatile long lastCatchUpBytes;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private final Thread thread;
+        private IOException failure;
+
+        Router(String name, int virtualNodes) throws IOException {
+            this.name = name;
+            this.ring = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+            this.follower = new MembershipFollower(ring);
+            Pipe pipe = Pipe.open();
+            this.out = new DataOutputStream(Channels.newOutputStream(pipe.sink()));
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(pipe.source()), 1 << 16));
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Frame: int length, boolean bulk (bootstrap or catch-up), update bytes
+         */
+        void send(byte[] update, boolean bulk) throws IOException {
+            out.writeInt(update.length);
+            out.writeBoolean(bulk);
+            out.write(update);
+            out.flush();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        return;
+                    }
+                    boolean bulk = in.readBoolean();
+                    byte[] update = new byte[length];
+                    in.readFully(update);
+                    long start = System.nanoTime();
+                    follower.apply(ByteBuffer.wrap(update));
+                    long elapsed = System.nanoTime() - start;
+                    if (bulk) {
+                        if (bootstrapNanos == 0) bootstrapNanos = elapsed;
+                        else lastCatchUpBytes = length;
+                    } else {
+                        deltaLatency.record(elapsed);
+                        deltaBytes.add(length);
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Wait until the router has applied an epoch and report the epoch it is at
+         */
+        long awaitEpoch(long epoch) throws InterruptedException {
+            while (follower.getEpoch() < epoch) {
+                if (!thread.isAlive()) throw new IllegalStateException(name + " stopped at epoch " + follower.getEpoch());
+                Thread.sleep(0, 100_000);
+            }
+            return follower.getEpoch();
+        }
+
+        void close() throws Exception {
+            out.close();
+            thread.join();
+            if (failure != null) throw failure;
+        }
+    }
+}
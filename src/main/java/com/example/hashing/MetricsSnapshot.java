@@ -0,0 +1,95 @@
+package com.example.hashing;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time view of the lookup metrics of a ring
+ */
+public final class MetricsSnapshot {
+    private final long totalLookups;
+    private final Map<String, Long> lookupsPerServer;
+    private final long sampledLookups;
+    private final double meanLatencyNanos;
+    private final long p50LatencyNanos;
+    private final long p99LatencyNanos;
+    private final long p999LatencyNanos;
+    private final long maxLatencyNanos;
+    private final List<HotKey> hotKeys;
+
+    MetricsSnapshot(long totalLookups, Map<String, Long> lookupsPerServer, LatencyHistogram latency, List<HotKey> hotKeys) {
+        this.totalLookups = totalLookups;
+        this.lookupsPerServer = lookupsPerServer;
+        this.sampledLookups = latency.count();
+        this.meanLatencyNanos = latency.mean();
+        this.p50LatencyNanos = latency.percentile(50);
+        this.p99LatencyNanos = latency.percentile(99);
+        this.p999LatencyNanos = latency.percentile(99.9);
+        this.maxLatencyNanos = latency.max();
+        this.hotKeys = hotKeys;
+    }
+
+    public long getTotalLookups() {
+        return totalLookups;
+    }
+
+    /**
+     * Exact lookup count per server (servers never looked up are absent)
+     */
+    public Map<String, Long> getLookupsPerServer() {
+        return lookupsPerServer;
+    }
+
+    /**
+     * Number of lookups whose latency was recorded
+     */
+    public long getSampledLookups() {
+        return sampledLookups;
+    }
+
+    public double getMeanLatencyNanos() {
+        return meanLatencyNanos;
+    }
+
+    public long getP50LatencyNanos() {
+        return p50LatencyNanos;
+    }
+
+    public long getP99LatencyNanos() {
+        return p99LatencyNanos;
+    }
+
+    public long getP999LatencyNanos() {
+        return p999LatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /**
+     * Hottest keys, most frequent first
+     */
+    public List<HotKey> getHotKeys() {
+        return hotKeys;
+    }
+
+    /**
+     * Print the snapshot
+     */
+    public void print() {
+        System.out.println("\n📡 === LOOKUP METRICS ===");
+        System.out.println("Total lookups: " + totalLookups);
+        for (Map.Entry<String, Long> entry : lookupsPerServer.entrySet()) {
+            System.out.printf("%-20s: %10d lookups (%5.1f%%)\n", entry.getKey(), entry.getValue(),
+                    totalLookups == 0 ? 0 : entry.getValue() * 100.0 / totalLookups);
+        }
+        System.out.printf("Latency (%d sampled): mean %.0f ns | p50 %d ns | p99 %d ns | p999 %d ns | max %d ns\n",
+                sampledLookups, meanLatencyNanos, p50LatencyNanos, p99LatencyNanos, p999LatencyNanos, maxLatencyNanos);
+        System.out.println("Hot keys:");
+        for (HotKey hotKey : hotKeys) {
+            System.out.println("  " + hotKey);
+        }
+        System.out.println("========================\n");
+    }
+}
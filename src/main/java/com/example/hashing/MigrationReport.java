@@ -0,0 +1,114 @@
+package com.example.hashing;
+
+/**
+ * Result of one Rebalancer migration
+ */
+public final class MigrationReport {
+    private final long fromEpoch;
+    private final long toEpoch;
+    private final int ranges;
+    private final double movedFraction;
+    private final int streams;
+    private final long keysMoved;
+    private final long bytesMoved;
+    private final long keysSkipped;
+    private final long elapsedNanos;
+    private final long throttledNanos;
+
+    MigrationReport(long fromEpoch, long toEpoch, int ranges, double movedFraction, int streams,
+                    long keysMoved, long bytesMoved, long keysSkipped, long elapsedNanos, long throttledNanos) {
+        this.fromEpoch = fromEpoch;
+        this.toEpoch = toEpoch;
+        this.ranges = ranges;
+        this.movedFraction = movedFraction;
+        this.streams = streams;
+        this.keysMoved = keysMoved;
+        this.bytesMoved = bytesMoved;
+        this.keysSkipped = keysSkipped;
+        this.elapsedNanos = elapsedNanos;
+        this.throttledNanos = throttledNanos;
+    }
+
+    public long getFromEpoch() {
+        return fromEpoch;
+    }
+
+    public long getToEpoch() {
+        return toEpoch;
+    }
+
+    /**
+     * Number of hash ranges that changed owner
+     */
+    public int getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Fraction of the hash space that changed owner
+     */
+    public double getMovedFraction() {
+        return movedFraction;
+    }
+
+    public int getStreams() {
+        return streams;
+    }
+
+    public long getKeysMoved() {
+        return keysMoved;
+    }
+
+    /**
+     * UTF-8 key bytes plus value bytes copied to new owners
+     */
+    public long getBytesMoved() {
+        return bytesMoved;
+    }
+
+    /**
+     * Keys not copied because the new owner already had a newer foreground write
+     */
+    public long getKeysSkipped() {
+        return keysSkipped;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Time streams spent waiting for the rate limit, summed over streams
+     */
+    public long getThrottledNanos() {
+        return throttledNanos;
+    }
+
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesMoved * 1e9 / elapsedNanos;
+    }
+
+    public double getKeysPerSecond() {
+        return elapsedNanos == 0 ? 0 : keysMoved * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Print the report
+     */
+    public void print() {
+        System.out.println("\n🚚 === MIGRATION ===");
+        System.out.printf("Epoch %d → %d | %d ranges (%.2f%% of hash space) | %d streams\n",
+                fromEpoch, toEpoch, ranges, movedFraction * 100, streams);
+        System.out.printf("Moved: %,d keys | %,d bytes | %,d skipped (newer write at destination)\n",
+                keysMoved, bytesMoved, keysSkipped);
+        System.out.printf("Time: %.1f ms | %,.0f keys/s | %.2f MB/s | throttled %.1f ms\n",
+                elapsedNanos / 1e6, getKeysPerSecond(), getBytesPerSecond() / (1 << 20), throttledNanos / 1e6);
+        System.out.println("===================\n");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MigrationReport{epoch %d → %d, %d ranges, %d keys, %d bytes, %.1f ms}",
+                fromEpoch, toEpoch, ranges, keysMoved, bytesMoved, elapsedNanos / 1e6);
+    }
+}
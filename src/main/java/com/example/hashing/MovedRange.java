@@ -0,0 +1,76 @@
+package com.example.hashing;
+
+/**
+ * A range of the hash space that changes owner between two rings.
+ * Covers hashes h with start < h <= end; when start >= end the range wraps
+ * past the top of the hash space back to zero.
+ */
+public final class MovedRange {
+    private final long start;
+    private final long end;
+    private final String from;
+    private final String to;
+
+    MovedRange(long start, long end, String from, String to) {
+        this.start = start;
+        this.end = end;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Exclusive lower bound of the range
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Inclusive upper bound of the range
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Server that owned the range before the change (null if the old ring was empty)
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * Server that owns the range after the change (null if the new ring is empty)
+     */
+    public String getTo() {
+        return to;
+    }
+
+    public boolean wraps() {
+        return start >= end;
+    }
+
+    /**
+     * Fraction of the whole hash space covered by this range
+     *
+     * @return Value in (0, 1]
+     */
+    public double fraction() {
+        return RingAnalytics.arcFraction(start, end);
+    }
+
+    /**
+     * Check whether a hash falls inside this range
+     *
+     * @param hash Key hash
+     * @return true if the key moves with this range
+     */
+    public boolean contains(long hash) {
+        return wraps() ? hash > start || hash <= end : hash > start && hash <= end;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%d, %d] %s → %s (%.4f%%)", start, end, from, to, fraction() * 100);
+    }
+}
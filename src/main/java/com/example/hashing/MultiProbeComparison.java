@@ -0,0 +1,97 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory, lookup latency and balance of multi-probe rings (one position per
+ * server, K probes per key) against rings with virtual nodes. Keys are
+ * pre-hashed so only server selection is timed; peak/avg is the busiest
+ * server's key count over the mean.
+ */
+public class MultiProbeComparison {
+    private static final int KEYS = 1 << 22;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int[] serverCounts = args.length > 0 ? parse(args[0]) : new int[]{100, 1000};
+        int[] virtualNodeCounts = {1, 100, 1000};
+        int[] probeCounts = {5, 11, 21, 41};
+
+        HashFunction hashFunction = HashFunction.murmur3();
+        long[] hashes = new long[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            hashes[i] = hashFunction.hash("key_" + i);
+        }
+
+        System.out.println("🎯 === MULTI-PROBE VS VIRTUAL NODES ===");
+        System.out.printf("%-8s %-18s %10s %12s %12s %10s\n",
+                "Servers", "Engine", "Positions", "Heap KB", "Lookup (ns)", "Peak/avg");
+        for (int servers : serverCounts) {
+            List<String> names = new ArrayList<>(servers);
+            for (int s = 0; s < servers; s++) {
+                names.add("Server-" + s);
+            }
+            for (int virtualNodes : virtualNodeCounts) {
+                run(servers, "vnodes=" + virtualNodes, new ConsistentHashRing(hashFunction, virtualNodes), names, hashes);
+            }
+            for (int probes : probeCounts) {
+                run(servers, "probes=" + probes, new ConsistentHashRing(hashFunction, 1, probes), names, hashes);
+            }
+        }
+        System.out.println("=======================================\n");
+    }
+
+    private static void run(int servers, String engine, ConsistentHashRing ring, List<String> names, long[] hashes) {
+        long before = usedHeap();
+        ring.applyChanges(names, List.of());
+        long bytes = usedHeap() - before;
+        RingSnapshot snapshot = ring.getSnapshot();
+
+        System.out.printf("%-8d %-18s %10d %12.1f %12.1f %10.3f\n", servers, engine, snapshot.size(),
+                Math.max(0, bytes) / 1024.0, measure(snapshot, hashes), peakToAverage(snapshot, hashes));
+    }
+
+    private static double measure(RingSnapshot snapshot, long[] hashes) {
+        double best = Double.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (long hash : hashes) {
+                sink += snapshot.routeIndex(hash);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / (double) hashes.length);
+        }
+        if (sink == 42) System.out.println();
+        return best;
+    }
+
+    private static double peakToAverage(RingSnapshot snapshot, long[] hashes) {
+        int[] counts = new int[snapshot.serverCount()];
+        for (long hash : hashes) {
+            counts[snapshot.ownerAt(snapshot.routeIndex(hash))]++;
+        }
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        return max * (double) counts.length / hashes.length;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static int[] parse(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+}
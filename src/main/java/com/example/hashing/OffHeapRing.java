@@ -0,0 +1,538 @@
+package com.example.hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash ring whose positions live off the Java heap.
+ *
+ * Every position takes 12 bytes of a direct buffer: a 64-bit hash in the
+ * hash block and a 32-bit server ordinal in the owner block that follows
+ * it, so the search only touches hashes (eight per cache line). Both blocks
+ * are in Eytzinger order: the sorted positions laid out
+ * as an implicit binary search tree, root at slot 1 and the children of
+ * slot k at 2k and 2k+1. A lookup descends the tree without data-dependent
+ * branches and touches the hot top levels of the tree from the same few
+ * cache lines for every key. Slot 0 holds the smallest position, which is
+ * where lookups past the last position wrap to.
+ *
+ * The owner block holds the server each position routes to, so servers
+ * marked down are skipped without extra reads. While any server is down a
+ * second block keeps the layout owners, so marking it up restores the
+ * previous routing.
+ *
+ * Placement is identical to ConsistentHashRing with the same hash function
+ * and virtual nodes. Only the server table stays on the heap; membership
+ * and health changes stream the current buffer in sorted order into a new
+ * one and publish it atomically, as the heap ring does, without copying
+ * the positions onto the heap.
+ */
+public class OffHeapRing implements KeyRouter {
+    static final int ENTRY_BYTES = 12;
+
+    private final HashFunction hashFunction;
+    private final int virtualNodes;
+    private final Object writeLock = new Object();
+    private volatile Table table;
+
+    public OffHeapRing(HashFunction hashFunction, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be at least 1: " + virtualNodes);
+        }
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        this.virtualNodes = virtualNodes;
+        this.table = Table.of(RingSnapshot.empty(hashFunction));
+    }
+
+    /**
+     * Create an off-heap copy of a snapshot (e.g. of a running ConsistentHashRing)
+     *
+     * @param snapshot     Snapshot to copy
+     * @param virtualNodes Virtual nodes the snapshot was built with
+     */
+    public OffHeapRing(RingSnapshot snapshot, int virtualNodes) {
+        this(snapshot.hashFunction(), virtualNodes);
+        if (snapshot.probes() > 1) {
+            throw new IllegalArgumentException("Off-heap rings do not support multi-probe lookups: " + snapshot.probes() + " probes");
+        }
+        this.table = Table.of(snapshot);
+    }
+
+    @Override
+    public String getServer(String key) {
+        return serverFor(hashFunction.hash(key));
+    }
+
+    /**
+     * Find the server for a numeric key; same result as getServer(Long.toString(key))
+     *
+     * @param key Numeric key
+     * @return Server identifier or null if no servers available
+     */
+    public String getServer(long key) {
+        return serverFor(hashFunction.hash(key));
+    }
+
+    /**
+     * Find the server owning a hash
+     *
+     * @param hash Key hash
+     * @return Server identifier or null if the ring is empty or every server is down
+     */
+    public String serverFor(long hash) {
+        Table current = table;
+        int n = current.size;
+        if (n == 0) return null;
+
+        int k = slotFor(current.entries, n, hash);
+        int owner = current.entries.getInt(current.ownersOffset + (k << 2));
+        return owner < 0 ? null : current.servers[owner];
+    }
+
+    /**
+     * Eytzinger lower bound: slot of the first position >= hash, or slot 0
+     * (a copy of the smallest position) if the hash is past the last one
+     */
+    private static int slotFor(ByteBuffer entries, int n, long hash) {
+        int k = 1;
+        while (k <= n) {
+            // Positions and hashes are non-negative, so the sign of the difference is position < hash;
+            // shifting it out instead of comparing keeps the JIT from emitting a branch
+            k = (k << 1) | (int) ((entries.getLong(k << 3) - hash) >>> 63);
+        }
+        // Undo the trailing right turns to get back to the last left turn
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    @Override
+    public void addServer(String server) {
+        addServer(server, 1);
+    }
+
+    /**
+     * Add a server with a weight; it gets weight x virtual nodes ring positions
+     *
+     * @param server Server identifier
+     * @param weight Relative capacity of the server (at least 1)
+     */
+    public void addServer(String server, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be at least 1: " + weight);
+        }
+        synchronized (writeLock) {
+            Table current = table;
+            if (current.ordinalOf(server) >= 0) return;
+            long[] positions = ConsistentHashRing.positionsOf(hashFunction, server, virtualNodes * weight);
+            table = current.withChanges(Set.of(), new String[]{server}, new int[]{weight}, new long[][]{positions},
+                    current.epoch + 1);
+        }
+    }
+
+    @Override
+    public void removeServer(String server) {
+        synchronized (writeLock) {
+            Table current = table;
+            if (current.ordinalOf(server) < 0) return;
+            table = current.withChanges(Set.of(server), new String[0], new int[0], new long[0][], current.epoch + 1);
+        }
+    }
+
+    /**
+     * Add and remove several servers (weight 1) with a single rebuild,
+     * with the same semantics as ConsistentHashRing.applyChanges
+     *
+     * @param add    Servers to add
+     * @param remove Servers to remove
+     * @return true if the ring changed
+     */
+    public boolean applyChanges(Collection<String> add, Collection<String> remove) {
+        synchronized (writeLock) {
+            Table current = table;
+            Set<String> removed = new LinkedHashSet<>();
+            for (String server : remove) {
+                if (current.ordinalOf(server) >= 0) removed.add(server);
+            }
+            Set<String> members = new HashSet<>(Arrays.asList(current.servers));
+            members.removeAll(removed);
+            TreeSet<String> added = new TreeSet<>();
+            for (String server : add) {
+                if (!members.contains(server)) added.add(server);
+            }
+            if (removed.isEmpty() && added.isEmpty()) return false;
+
+            String[] addedServers = added.toArray(new String[0]);
+            int[] addedWeights = new int[addedServers.length];
+            long[][] addedPositions = new long[addedServers.length][];
+            for (int a = 0; a < addedServers.length; a++) {
+                addedWeights[a] = 1;
+                addedPositions[a] = ConsistentHashRing.positionsOf(hashFunction, addedServers[a], virtualNodes);
+            }
+            table = current.withChanges(removed, addedServers, addedWeights, addedPositions, current.epoch + 1);
+            return true;
+        }
+    }
+
+    /**
+     * Route around a server without changing the layout, as ConsistentHashRing.markDown does
+     *
+     * @param server Member to mark down
+     * @return true if the server was up and is now down
+     */
+    public boolean markDown(String server) {
+        synchronized (writeLock) {
+            Table current = table;
+            int ordinal = current.ordinalOf(server);
+            if (ordinal < 0 || current.isDown(ordinal)) return false;
+            boolean[] down = current.down == null ? new boolean[current.servers.length] : current.down.clone();
+            down[ordinal] = true;
+            table = current.withHealth(down, current.epoch + 1);
+            return true;
+        }
+    }
+
+    /**
+     * Bring a server marked down back; it owns exactly the keys it owned before
+     *
+     * @param server Server to mark up
+     * @return true if the server was down and is now up
+     */
+    public boolean markUp(String server) {
+        synchronized (writeLock) {
+            Table current = table;
+            int ordinal = current.ordinalOf(server);
+            if (ordinal < 0 || !current.isDown(ordinal)) return false;
+            boolean[] down = current.down.clone();
+            down[ordinal] = false;
+            table = current.withHealth(anyDown(down) ? down : null, current.epoch + 1);
+            return true;
+        }
+    }
+
+    public Set<String> getDownServers() {
+        return table.downServers();
+    }
+
+    /**
+     * Copy the ring back into a heap snapshot (positions in sorted order)
+     *
+     * @return Snapshot with the same positions, servers, down servers and epoch
+     */
+    public RingSnapshot toSnapshot() {
+        Table current = table;
+        int n = current.size;
+        long[] positions = new long[n];
+        int[] owners = new int[n];
+        for (int i = 0, k = firstSlot(n); i < n; i++, k = nextSlot(k, n)) {
+            positions[i] = current.entries.getLong(k << 3);
+            owners[i] = current.layoutOwner(k);
+        }
+        RingSnapshot snapshot = new RingSnapshot(positions, owners, current.servers.clone(), current.weights.clone(),
+                current.epoch, hashFunction);
+        return current.down == null ? snapshot : snapshot.withHealth(current.downServers(), current.epoch);
+    }
+
+    @Override
+    public Set<String> getAllServers() {
+        return new LinkedHashSet<>(Arrays.asList(table.servers));
+    }
+
+    /**
+     * Get total number of positions on the ring (all virtual nodes)
+     *
+     * @return Number of positions
+     */
+    public int getRingSize() {
+        return table.size;
+    }
+
+    public long getEpoch() {
+        return table.epoch;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
+
+    /**
+     * Off-heap bytes used by the position table (4 more per position while a server is down)
+     *
+     * @return Direct buffer capacity in bytes
+     */
+    public long offHeapBytes() {
+        return table.entries.capacity();
+    }
+
+    /**
+     * Eytzinger slot of the smallest position (n >= 1)
+     */
+    static int firstSlot(int n) {
+        int k = 1;
+        while (k << 1 <= n) k <<= 1;
+        return k;
+    }
+
+    /**
+     * Slot of the next larger position, or 0 after the largest one
+     */
+    static int nextSlot(int k, int n) {
+        if ((k << 1 | 1) <= n) {
+            k = k << 1 | 1;
+            while (k << 1 <= n) k <<= 1;
+            return k;
+        }
+        // Climb past the right turns, then one left turn up
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /**
+     * Eytzinger slot of the largest position (n >= 1)
+     */
+    static int lastSlot(int n) {
+        int k = 1;
+        while ((k << 1 | 1) <= n) k = k << 1 | 1;
+        return k;
+    }
+
+    /**
+     * Slot of the next smaller position, or 0 before the smallest one
+     */
+    static int previousSlot(int k, int n) {
+        if (k << 1 <= n) {
+            k <<= 1;
+            while ((k << 1 | 1) <= n) k = k << 1 | 1;
+            return k;
+        }
+        return k >>> (Integer.numberOfTrailingZeros(k) + 1);
+    }
+
+    private static boolean anyDown(boolean[] down) {
+        for (boolean isDown : down) {
+            if (isDown) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Immutable published state: the off-heap entries plus the heap server
+     * table. New tables are derived by streaming the entries of the previous
+     * one in sorted order, so a change never copies the ring onto the heap.
+     */
+    private static final class Table {
+        final ByteBuffer entries;
+        final int size;
+        final int ownersOffset;
+        final int layoutOffset;
+        final String[] servers;
+        final Map<String, Integer> ordinals;
+        final int[] weights;
+        final boolean[] down;
+        final long epoch;
+
+        /**
+         * Allocate an empty table; fill it with put, then call finish
+         *
+         * @param down Down flag per server, or null if every server is up
+         */
+        private Table(int size, String[] servers, int[] weights, boolean[] down, long epoch) {
+            int entryBytes = down == null ? ENTRY_BYTES : ENTRY_BYTES + 4;
+            if ((size + 1L) * entryBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many positions for one buffer: " + size);
+            }
+            this.entries = ByteBuffer.allocateDirect((size + 1) * entryBytes).order(ByteOrder.nativeOrder());
+            this.size = size;
+            this.ownersOffset = (size + 1) << 3;
+            this.layoutOffset = down == null ? -1 : ownersOffset + ((size + 1) << 2);
+            this.servers = servers;
+            this.ordinals = RingSnapshot.indexOrdinals(servers);
+            this.weights = weights;
+            this.down = down;
+            this.epoch = epoch;
+        }
+
+        static Table of(RingSnapshot snapshot) {
+            int n = snapshot.size();
+            boolean anyDown = snapshot.healthyServerCount() < snapshot.serverCount();
+            String[] servers = new String[snapshot.serverCount()];
+            int[] weights = new int[servers.length];
+            boolean[] down = anyDown ? new boolean[servers.length] : null;
+            for (int ordinal = 0; ordinal < servers.length; ordinal++) {
+                servers[ordinal] = snapshot.server(ordinal);
+                weights[ordinal] = snapshot.weight(ordinal);
+                if (anyDown) down[ordinal] = snapshot.isDown(ordinal);
+            }
+            Table table = new Table(n, servers, weights, down, snapshot.epoch());
+            for (int i = 0, k = n == 0 ? 0 : firstSlot(n); i < n; i++, k = nextSlot(k, n)) {
+                table.put(k, snapshot.positionAt(i), snapshot.ownerAt(i));
+            }
+            return table.finish();
+        }
+
+        /**
+         * Derive a table with servers removed and added, as RingSnapshot.withChanges
+         * does: the kept entries are streamed in sorted order and merged with the
+         * sorted added positions. Servers stay down across the change, by name.
+         */
+        Table withChanges(Set<String> removedServers, String[] addedServers, int[] addedWeights,
+                          long[][] addedPositions, long epoch) {
+            Set<String> downNames = downServers();
+            int kept = 0;
+            int[] remap = new int[servers.length];
+            for (int s = 0; s < servers.length; s++) {
+                remap[s] = removedServers.contains(servers[s]) ? -1 : kept++;
+            }
+            String[] newServers = new String[kept + addedServers.length];
+            int[] newWeights = new int[newServers.length];
+            for (int s = 0; s < servers.length; s++) {
+                if (remap[s] < 0) continue;
+                newServers[remap[s]] = servers[s];
+                newWeights[remap[s]] = weights[s];
+            }
+            int addedCount = 0;
+            for (int a = 0; a < addedServers.length; a++) {
+                newServers[kept + a] = addedServers[a];
+                newWeights[kept + a] = addedWeights[a];
+                addedCount += addedPositions[a].length;
+            }
+            boolean[] newDown = new boolean[newServers.length];
+            for (int s = 0; s < newServers.length; s++) {
+                newDown[s] = downNames.contains(newServers[s]);
+            }
+
+            // Added servers are in name order and the sort is stable, so ties stay ordered by name
+            long[] added = new long[addedCount];
+            int[] addedOwners = new int[addedCount];
+            for (int a = 0, j = 0; a < addedServers.length; a++) {
+                for (long position : addedPositions[a]) {
+                    added[j] = position;
+                    addedOwners[j++] = kept + a;
+                }
+            }
+            BatchLookup.sort(added, addedOwners);
+
+            int keptPositions = 0;
+            for (int k = 1; k <= size; k++) {
+                if (remap[layoutOwner(k)] >= 0) keptPositions++;
+            }
+            int n = keptPositions + addedCount;
+            Table result = new Table(n, newServers, newWeights, anyDown(newDown) ? newDown : null, epoch);
+            int r = size == 0 ? 0 : firstSlot(size);
+            int w = n == 0 ? 0 : firstSlot(n);
+            int j = 0;
+            while (r != 0 || j < addedCount) {
+                int owner = r == 0 ? -1 : layoutOwner(r);
+                if (owner >= 0 && remap[owner] < 0) {
+                    r = nextSlot(r, size);
+                    continue;
+                }
+                long existing = r == 0 ? 0 : entries.getLong(r << 3);
+                boolean takeExisting = j == addedCount
+                        || (r != 0 && (existing < added[j]
+                        || (existing == added[j] && servers[owner].compareTo(newServers[addedOwners[j]]) < 0)));
+                if (takeExisting) {
+                    result.put(w, existing, remap[owner]);
+                    r = nextSlot(r, size);
+                } else {
+                    result.put(w, added[j], addedOwners[j++]);
+                }
+                w = nextSlot(w, n);
+            }
+            return result.finish();
+        }
+
+        /**
+         * Derive a table with the same layout and another health overlay
+         *
+         * @param down Down flag per server, or null if every server is up
+         */
+        Table withHealth(boolean[] down, long epoch) {
+            Table result = new Table(size, servers, weights, down, epoch);
+            int ownerBytes = (size + 1) << 2;
+            result.entries.put(0, entries, 0, ownersOffset);
+            result.entries.put(result.layoutBlock(), entries, layoutBlock(), ownerBytes);
+            return result.route();
+        }
+
+        /**
+         * Write the position and layout owner of a slot
+         */
+        private void put(int k, long position, int owner) {
+            entries.putLong(k << 3, position);
+            entries.putInt(layoutBlock() + (k << 2), owner);
+        }
+
+        /**
+         * Copy the smallest position into slot 0 and fill the routing owners
+         */
+        private Table finish() {
+            if (size == 0) return this;
+            int first = firstSlot(size);
+            entries.putLong(0, entries.getLong(first << 3));
+            entries.putInt(layoutBlock(), layoutOwner(first));
+            return route();
+        }
+
+        /**
+         * Fill each slot's routing owner: the owner of the first healthy
+         * position at or after it, wrapping around (-1 if every server is down)
+         */
+        private Table route() {
+            if (down == null || size == 0) return this;
+            int wrap = -1;
+            for (int k = firstSlot(size); k != 0; k = nextSlot(k, size)) {
+                if (!down[layoutOwner(k)]) {
+                    wrap = layoutOwner(k);
+                    break;
+                }
+            }
+            int next = wrap;
+            for (int k = lastSlot(size); k != 0; k = previousSlot(k, size)) {
+                int owner = layoutOwner(k);
+                if (!down[owner]) next = owner;
+                entries.putInt(ownersOffset + (k << 2), next);
+            }
+            entries.putInt(ownersOffset, entries.getInt(ownersOffset + (firstSlot(size) << 2)));
+            return this;
+        }
+
+        /**
+         * Offset of the layout owners; the owner block doubles as it while every server is up
+         */
+        private int layoutBlock() {
+            return layoutOffset >= 0 ? layoutOffset : ownersOffset;
+        }
+
+        int layoutOwner(int k) {
+            return entries.getInt(layoutBlock() + (k << 2));
+        }
+
+        int ordinalOf(String server) {
+            Integer ordinal = ordinals.get(server);
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        boolean isDown(int ordinal) {
+            return down != null && down[ordinal];
+        }
+
+        Set<String> downServers() {
+            Set<String> result = new LinkedHashSet<>();
+            if (down == null) return result;
+            for (int ordinal = 0; ordinal < servers.length; ordinal++) {
+                if (down[ordinal]) result.add(servers[ordinal]);
+            }
+            return result;
+        }
+    }
+}
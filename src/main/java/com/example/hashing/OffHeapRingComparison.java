@@ -0,0 +1,104 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+
+/**
+ * Memory per position and lookup latency of the original TreeMap ring, the
+ * heap array ring (ConsistentHashRing) and the off-heap Eytzinger ring.
+ * Keys are pre-hashed so only the position search is timed.
+ */
+public class OffHeapRingComparison {
+    private static final int KEYS = 1 << 20;
+    private static final int ROUNDS = 7;
+
+    public static void main(String[] args) {
+        int servers = 1000;
+        int[] virtualNodeCounts = {100, 1000};
+
+        System.out.println("💾 === OFF-HEAP RING COMPARISON ===");
+        System.out.printf("%-12s %-10s %14s %14s %14s\n",
+                "Engine", "Positions", "Heap B/pos", "Off-heap B/pos", "Lookup (ns)");
+
+        HashFunction hashFunction = HashFunction.murmur3();
+        long[] hashes = new long[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            hashes[i] = hashFunction.hash("key_" + i);
+        }
+
+        for (int virtualNodes : virtualNodeCounts) {
+            long before = usedHeap();
+            TreeMap<Long, String> treeMap = new TreeMap<>();
+            for (int s = 0; s < servers; s++) {
+                String server = "Server-" + s;
+                for (long position : ConsistentHashRing.positionsOf(hashFunction, server, virtualNodes)) {
+                    treeMap.putIfAbsent(position, server);
+                }
+            }
+            long treeMapBytes = usedHeap() - before;
+
+            before = usedHeap();
+            ConsistentHashRing ring = new ConsistentHashRing(hashFunction, virtualNodes);
+            ring.applyChanges(serverNames(servers), List.of());
+            long ringBytes = usedHeap() - before;
+
+            before = usedHeap();
+            OffHeapRing offHeap = new OffHeapRing(ring.getSnapshot(), virtualNodes);
+            long offHeapHeapBytes = usedHeap() - before;
+
+            RingSnapshot snapshot = ring.getSnapshot();
+            for (long hash : hashes) {
+                if (!snapshot.serverFor(hash).equals(offHeap.serverFor(hash))) {
+                    throw new IllegalStateException("Off-heap ring disagrees for hash " + hash);
+                }
+            }
+
+            int positions = snapshot.size();
+            print("TreeMap", positions, treeMapBytes, 0, measure(hash -> {
+                Map.Entry<Long, String> entry = treeMap.ceilingEntry(hash);
+                return entry != null ? entry.getValue() : treeMap.firstEntry().getValue();
+            }, hashes));
+            print("Array ring", positions, ringBytes, 0, measure(snapshot::serverFor, hashes));
+            print("Off-heap", positions, offHeapHeapBytes, offHeap.offHeapBytes(), measure(offHeap::serverFor, hashes));
+        }
+        System.out.println("===================================\n");
+    }
+
+    private static void print(String engine, int positions, long heapBytes, long offHeapBytes, double nanos) {
+        System.out.printf("%-12s %-10d %14.1f %14.1f %14.1f\n", engine, positions,
+                Math.max(0, heapBytes) / (double) positions, offHeapBytes / (double) positions, nanos);
+    }
+
+    private static double measure(LongFunction<String> lookup, long[] hashes) {
+        double best = Double.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (long hash : hashes) {
+                sink += lookup.apply(hash).length();
+            }
+            best = Math.min(best, (System.nanoTime() - start) / (double) hashes.length);
+        }
+        if (sink == 42) System.out.println();
+        return best;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static List<String> serverNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            names.add("Server-" + s);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures what a membership change costs in a ShardedStore: loads the
+ * store, runs foreground reads and writes, then adds and removes a server
+ * while the rebalancer streams the moved ranges under a rate limit.
+ * Prints migration throughput and foreground latency per phase.
+ *
+ * Usage: RebalanceSimulation [keys] [valueBytes] [bytesPerSecond] [streams]
+ */
+public class RebalanceSimulation {
+    private static final int SERVERS = 8;
+    private static final int FOREGROUND_THREADS = 2;
+    private static final int WRITE_PERCENT = 10;
+    private static final long PHASE_MILLIS = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int valueBytes = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        long bytesPerSecond = args.length > 2 ? Long.parseLong(args[2]) : 16L << 20;
+        int streams = args.length > 3 ? Integer.parseInt(args[3]) : Rebalancer.DEFAULT_STREAMS;
+
+        System.out.println("🚚 ============================================");
+        System.out.println("🚚      SHARDED STORE REBALANCE SIMULATION    ");
+        System.out.println("🚚 ============================================\n");
+
+        ConsistentHashRing ring = new ConsistentHashRing(HashFunction.murmur3(), 100);
+        for (int i = 1; i <= SERVERS; i++) {
+            ring.addServer("node-" + i);
+        }
+        ShardedStore store = new ShardedStore(ring, new Rebalancer().streams(streams).bytesPerSecond(bytesPerSecond));
+        byte[] value = new byte[valueBytes];
+        for (int i = 0; i < keys; i++) {
+            store.put("key-" + i, value);
+        }
+        System.out.printf("Loaded %,d keys of %d bytes into %d nodes | rate limit %s | %d streams\n",
+                keys, valueBytes, SERVERS, bytesPerSecond == 0 ? "none" : (bytesPerSecond >> 20) + " MB/s", streams);
+
+        Foreground foreground = new Foreground(store, keys, valueBytes);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < FOREGROUND_THREADS; t++) {
+            Thread thread = new Thread(foreground, "foreground-" + t);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        List<Phase> phases = new ArrayList<>();
+        phases.add(foreground.measure("steady", () -> Thread.sleep(PHASE_MILLIS)));
+        MigrationReport[] reports = new MigrationReport[2];
+        phases.add(foreground.measure("add node-9", () -> reports[0] = store.addServer("node-9").join()));
+        phases.add(foreground.measure("remove node-3", () -> reports[1] = store.removeServer("node-3").join()));
+        phases.add(foreground.measure("steady", () -> Thread.sleep(PHASE_MILLIS)));
+        foreground.stop = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (MigrationReport report : reports) {
+            report.print();
+        }
+        System.out.println("📊 Foreground traffic (" + FOREGROUND_THREADS + " threads, "
+                + WRITE_PERCENT + "% writes):");
+        System.out.printf("%-14s %12s %10s %10s %10s %8s\n", "Phase", "Ops/s", "p50 (us)", "p99 (us)", "p999 (us)", "Misses");
+        for (Phase phase : phases) {
+            System.out.printf("%-14s %,12.0f %10.1f %10.1f %10.1f %8d\n", phase.name, phase.throughput(),
+                    phase.latency.percentile(50) / 1e3, phase.latency.percentile(99) / 1e3,
+                    phase.latency.percentile(99.9) / 1e3, phase.misses);
+        }
+
+        long missing = 0;
+        for (int i = 0; i < keys; i++) {
+            if (store.get("key-" + i) == null) missing++;
+        }
+        store.printNodes();
+        System.out.printf("%s %,d keys stored, %,d missing\n", missing == 0 ? "✅" : "❌", store.keyCount(), missing);
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static final class Phase {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        long operations;
+        long misses;
+        long elapsedNanos;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        double throughput() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * Foreground workers record into whichever phase is current
+     */
+    private static final class Foreground implements Runnable {
+        private final ShardedStore store;
+        private final int keys;
+        private final int valueBytes;
+        private volatile Phase phase = new Phase("warmup");
+        private volatile boolean stop;
+
+        Foreground(ShardedStore store, int keys, int valueBytes) {
+            this.store = store;
+            this.keys = keys;
+            this.valueBytes = valueBytes;
+        }
+
+        Phase measure(String name, Action action) throws Exception {
+            Phase next = new Phase(name);
+            long begin = System.nanoTime();
+            phase = next;
+            action.run();
+            next.elapsedNanos = System.nanoTime() - begin;
+            phase = new Phase("idle");
+            return next;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            byte[] value = new byte[valueBytes];
+            while (!stop) {
+                Phase current = phase;
+                long misses = 0;
+                // Record a batch locally, then publish it to the phase it started in
+                LatencyHistogram batch = new LatencyHistogram();
+                for (int i = 0; i < 256; i++) {
+                    String key = "key-" + random.nextInt(keys);
+                    long begin = System.nanoTime();
+                    if (random.nextInt(100) < WRITE_PERCENT) {
+                        store.put(key, value);
+                    } else if (store.get(key) == null) {
+                        misses++;
+                    }
+                    batch.record(System.nanoTime() - begin);
+                }
+                synchronized (current) {
+                    current.latency.add(batch);
+                    current.operations += 256;
+                    current.misses += misses;
+                }
+            }
+        }
+    }
+}
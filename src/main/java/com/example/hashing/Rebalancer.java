@@ -0,0 +1,253 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams the hash ranges that changed owner in a RingChange from their old
+ * owners to their new owners. Only the moved ranges are read, by walking each
+ * source node's hash-ordered range; everything else stays put.
+ *
+ * Ranges are spread over a number of parallel streams that share one byte
+ * rate limit. Copies never overwrite a value at the destination, so
+ * foreground writes made to the new owner during the migration win; a copy
+ * whose source entry was deleted meanwhile is undone.
+ */
+public class Rebalancer {
+    public static final int DEFAULT_STREAMS = 4;
+    public static final int DEFAULT_BATCH_BYTES = 64 * 1024;
+
+    private int streams = DEFAULT_STREAMS;
+    private long bytesPerSecond;
+    private int batchBytes = DEFAULT_BATCH_BYTES;
+
+    public Rebalancer streams(int streams) {
+        if (streams < 1) {
+            throw new IllegalArgumentException("streams must be at least 1: " + streams);
+        }
+        this.streams = streams;
+        return this;
+    }
+
+    /**
+     * Limit the copy rate over all streams
+     *
+     * @param bytesPerSecond Bytes per second (0 = unlimited)
+     * @return This rebalancer
+     */
+    public Rebalancer bytesPerSecond(long bytesPerSecond) {
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("bytesPerSecond must not be negative: " + bytesPerSecond);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Bytes a stream copies between two rate limit checks
+     *
+     * @param batchBytes Batch size in bytes
+     * @return This rebalancer
+     */
+    public Rebalancer batchBytes(int batchBytes) {
+        if (batchBytes < 1) {
+            throw new IllegalArgumentException("batchBytes must be at least 1: " + batchBytes);
+        }
+        this.batchBytes = batchBytes;
+        return this;
+    }
+
+    public int getStreams() {
+        return streams;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Copy every moved range to its new owner; blocks until all streams finish.
+     * Sources keep their copies until dropMoved.
+     *
+     * @param change Ring change to migrate
+     * @param nodes  Storage nodes by server, including added and removed servers
+     * @return Migration report
+     */
+    public MigrationReport migrate(RingChange change, Map<String, StorageNode> nodes) {
+        if (change.getSnapshot().probes() > 1) {
+            // Moved ranges are clockwise arcs; multi-probe keys do not follow them
+            throw new IllegalArgumentException("Cannot migrate a multi-probe ring by moved ranges");
+        }
+        List<MovedRange> ranges = change.getMovedRanges();
+        ConcurrentLinkedQueue<Task> tasks = new ConcurrentLinkedQueue<>();
+        for (MovedRange range : ranges) {
+            // Nothing to copy from an empty ring; nowhere to copy to an empty one
+            if (range.getFrom() == null || range.getTo() == null) continue;
+            StorageNode source = node(nodes, range.getFrom());
+            StorageNode target = node(nodes, range.getTo());
+            forEachInterval(range, (lo, hi) -> tasks.add(new Task(source, target, lo, hi)));
+        }
+
+        Throttle throttle = bytesPerSecond > 0 ? new Throttle(bytesPerSecond) : null;
+        LongAdder keys = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        LongAdder skipped = new LongAdder();
+        LongAdder throttled = new LongAdder();
+        int workers = Math.max(1, Math.min(streams, tasks.size()));
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "rebalancer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long begin = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    Task task;
+                    while ((task = tasks.poll()) != null) {
+                        task.copy(throttle, keys, bytes, skipped, throttled);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Migration interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Migration stream failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new MigrationReport(change.getPreviousEpoch(), change.getEpoch(), ranges.size(),
+                RingAnalytics.movedFraction(ranges), workers, keys.sum(), bytes.sum(), skipped.sum(),
+                System.nanoTime() - begin, throttled.sum());
+    }
+
+    /**
+     * Delete the moved ranges from their old owners once readers no longer fall back to them
+     *
+     * @param change Migrated ring change
+     * @param nodes  Storage nodes by server
+     */
+    void dropMoved(RingChange change, Map<String, StorageNode> nodes) {
+        for (MovedRange range : change.getMovedRanges()) {
+            StorageNode source = range.getFrom() == null || range.getTo() == null ? null : nodes.get(range.getFrom());
+            if (source != null) forEachInterval(range, source::clearRange);
+        }
+    }
+
+    private static StorageNode node(Map<String, StorageNode> nodes, String server) {
+        StorageNode node = nodes.get(server);
+        if (node == null) {
+            throw new IllegalStateException("No storage node for server " + server);
+        }
+        return node;
+    }
+
+    /**
+     * Split a range into intervals lo < hash <= hi that do not wrap
+     */
+    private static void forEachInterval(MovedRange range, Interval interval) {
+        if (range.wraps()) {
+            interval.accept(range.getStart(), Long.MAX_VALUE);
+            interval.accept(-1, range.getEnd());
+        } else {
+            interval.accept(range.getStart(), range.getEnd());
+        }
+    }
+
+    private interface Interval {
+        void accept(long lo, long hi);
+    }
+
+    private final class Task {
+        private final StorageNode source;
+        private final StorageNode target;
+        private final long lo;
+        private final long hi;
+
+        Task(StorageNode source, StorageNode target, long lo, long hi) {
+            this.source = source;
+            this.target = target;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        void copy(Throttle throttle, LongAdder keys, LongAdder bytes, LongAdder skipped, LongAdder throttled) {
+            long batch = 0;
+            for (Map.Entry<Long, StorageNode.Entry> head : source.range(lo, hi).entrySet()) {
+                long hash = head.getKey();
+                for (StorageNode.Entry entry = head.getValue(); entry != null; entry = entry.next) {
+                    if (!target.putIfAbsent(hash, entry.key, entry.value)) {
+                        skipped.increment();
+                        continue;
+                    }
+                    // A delete runs source first, then destination: if it has reached
+                    // the source already, take the copy back
+                    if (source.get(hash, entry.key) != entry.value) {
+                        target.remove(hash, entry.key, entry.value);
+                        skipped.increment();
+                        continue;
+                    }
+                    long size = entry.bytes();
+                    keys.increment();
+                    bytes.add(size);
+                    batch += size;
+                }
+                if (batch >= batchBytes) {
+                    if (throttle != null) throttled.add(throttle.acquire(batch));
+                    batch = 0;
+                }
+            }
+            if (batch > 0 && throttle != null) throttled.add(throttle.acquire(batch));
+        }
+    }
+
+    /**
+     * Pacing rate limiter shared by all streams: every batch reserves the
+     * next free slot of the byte budget and sleeps until it starts
+     */
+    private static final class Throttle {
+        private final double nanosPerByte;
+        private long nextFree = System.nanoTime();
+
+        Throttle(long bytesPerSecond) {
+            this.nanosPerByte = 1e9 / bytesPerSecond;
+        }
+
+        /**
+         * @return Nanoseconds waited
+         */
+        long acquire(long bytes) {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (nextFree < now) nextFree = now;
+                wait = nextFree - now;
+                nextFree += (long) (bytes * nanosPerByte);
+            }
+            long deadline = System.nanoTime() + wait;
+            for (long left = wait; left > 0; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+                if (Thread.interrupted()) {
+                    throw new IllegalStateException("Migration interrupted");
+                }
+            }
+            return wait;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Lookup latency and balance of rendezvous hashing against the ring's
+ * binary search for growing server counts, to find where the O(n) scoring
+ * loop stops paying off. Keys are pre-hashed so only server selection is
+ * timed. The vector column needs a -Pvector build and
+ * --add-modules jdk.incubator.vector.
+ */
+public class RendezvousComparison {
+    private static final int KEYS = 1 << 18;
+    private static final int ROUNDS = 7;
+    private static final int VIRTUAL_NODES = 100;
+
+    public static void main(String[] args) {
+        int[] serverCounts = {5, 10, 20, 50, 100, 200, 500, 1000};
+
+        HashFunction hashFunction = HashFunction.murmur3();
+        long[] hashes = new long[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            hashes[i] = hashFunction.hash("key_" + i);
+        }
+        RendezvousRouter probe = new RendezvousRouter(hashFunction, true);
+        boolean vector = probe.isVectorized();
+
+        System.out.println("🎲 === RENDEZVOUS VS RING ===");
+        System.out.println("Ring: " + VIRTUAL_NODES + " virtual nodes | vector scorer: "
+                + (vector ? "enabled" : "not available"));
+        System.out.printf("%-8s %10s %10s %10s %10s %12s %12s\n", "Servers", "Ring (ns)", "HRW (ns)",
+                "Vector (ns)", "Weighted", "Ring peak", "HRW peak");
+
+        for (int servers : serverCounts) {
+            List<String> names = new ArrayList<>(servers);
+            for (int s = 0; s < servers; s++) {
+                names.add("Server-" + s);
+            }
+            ConsistentHashRing ring = new ConsistentHashRing(hashFunction, VIRTUAL_NODES);
+            ring.applyChanges(names, List.of());
+            RingSnapshot snapshot = ring.getSnapshot();
+            RendezvousRouter scalar = new RendezvousRouter(hashFunction, false);
+            RendezvousRouter vectorized = new RendezvousRouter(hashFunction, true);
+            RendezvousRouter weighted = new RendezvousRouter(hashFunction, false);
+            for (int s = 0; s < servers; s++) {
+                scalar.addServer(names.get(s));
+                vectorized.addServer(names.get(s));
+                weighted.addServer(names.get(s), 1 + s % 3);
+            }
+            for (long hash : hashes) {
+                if (!scalar.serverFor(hash).equals(vectorized.serverFor(hash))) {
+                    throw new IllegalStateException("Vector scorer disagrees for hash " + hash);
+                }
+            }
+
+            System.out.printf("%-8d %10.1f %10.1f %10s %10.1f %12.3f %12.3f\n", servers,
+                    measure(snapshot::serverFor, hashes),
+                    measure(scalar::serverFor, hashes),
+                    vector ? String.format("%.1f", measure(vectorized::serverFor, hashes)) : "-",
+                    measure(weighted::serverFor, hashes),
+                    peakToAverage(snapshot::serverFor, hashes, servers),
+                    peakToAverage(scalar::serverFor, hashes, servers));
+        }
+        System.out.println("==============================\n");
+    }
+
+    private static double measure(LongFunction<String> lookup, long[] hashes) {
+        double best = Double.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (long hash : hashes) {
+                sink += lookup.apply(hash).length();
+            }
+            best = Math.min(best, (System.nanoTime() - start) / (double) hashes.length);
+        }
+        if (sink == 42) System.out.println();
+        return best;
+    }
+
+    private static double peakToAverage(LongFunction<String> lookup, long[] hashes, int servers) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (long hash : hashes) {
+            counts.merge(lookup.apply(hash), 1, Integer::sum);
+        }
+        int max = 0;
+        for (int count : counts.values()) {
+            max = Math.max(max, count);
+        }
+        return max * (double) servers / hashes.length;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Rendezvous (highest random weight) router: every server gets a random
+ * score for the key and the highest score wins. Needs no virtual nodes,
+ * balances perfectly in expectation, and removing a server only moves the
+ * keys it won. The replica list for a key is simply the servers in score
+ * order.
+ *
+ * A lookup scores all n servers, O(n) against the ring's O(log n) binary
+ * search, but the loop over the primitive seed array is cheap enough to
+ * win for pools of up to a few dozen servers (see RendezvousComparison).
+ *
+ * Weighted servers use logarithmic scoring, weight / -ln(u) for a uniform
+ * u, which gives each server a share of keys proportional to its weight
+ * and still moves only the minimal set of keys on a change. While all
+ * weights are equal the unweighted loop is used.
+ */
+public class RendezvousRouter implements KeyRouter {
+    /**
+     * System property that enables the jdk.incubator.vector scorer when it
+     * was built (mvn -Pvector) and the JVM runs with --add-modules jdk.incubator.vector
+     */
+    public static final String VECTOR_PROPERTY = "hashing.rendezvous.vector";
+
+    private static final RendezvousScorer DEFAULT_SCORER =
+            Boolean.getBoolean(VECTOR_PROPERTY) ? loadVectorScorer() : RendezvousScorer.SCALAR;
+
+    private final HashFunction hashFunction;
+    private final RendezvousScorer scorer;
+    private volatile Table table = new Table(new String[0], new long[0], new double[0]);
+
+    private static final class Table {
+        final String[] servers;
+        final long[] seeds;
+        final double[] weights;
+        final double[] inverseWeights;
+        final boolean weighted;
+
+        Table(String[] servers, long[] seeds, double[] weights) {
+            this.servers = servers;
+            this.seeds = seeds;
+            this.weights = weights;
+            this.inverseWeights = new double[weights.length];
+            boolean uniform = true;
+            for (int i = 0; i < weights.length; i++) {
+                inverseWeights[i] = 1 / weights[i];
+                uniform &= weights[i] == weights[0];
+            }
+            this.weighted = !uniform;
+        }
+    }
+
+    public RendezvousRouter() {
+        this(HashFunction.murmur3());
+    }
+
+    public RendezvousRouter(HashFunction hashFunction) {
+        this(hashFunction, false);
+    }
+
+    /**
+     * Create a router
+     *
+     * @param hashFunction Hash function for servers and keys
+     * @param vector       true to use the jdk.incubator.vector scorer (falls back to the scalar loop if unavailable)
+     */
+    public RendezvousRouter(HashFunction hashFunction, boolean vector) {
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        this.scorer = vector ? loadVectorScorer() : DEFAULT_SCORER;
+    }
+
+    private static RendezvousScorer loadVectorScorer() {
+        try {
+            return (RendezvousScorer) Class.forName("com.example.hashing.VectorRendezvousScorer")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not built with -Pvector, or the incubator module is not enabled
+            return RendezvousScorer.SCALAR;
+        }
+    }
+
+    /**
+     * Check whether lookups go through the jdk.incubator.vector scorer
+     */
+    public boolean isVectorized() {
+        return scorer != RendezvousScorer.SCALAR;
+    }
+
+    @Override
+    public String getServer(String key) {
+        return serverFor(hashFunction.hash(key));
+    }
+
+    /**
+     * Find the server for an already hashed key
+     *
+     * @param hash Key hash
+     * @return Server identifier or null if no servers available
+     */
+    public String serverFor(long hash) {
+        Table current = table;
+        int n = current.servers.length;
+        if (n == 0) return null;
+        if (!current.weighted) return current.servers[scorer.best(hash, current.seeds, n)];
+        return current.servers[bestWeighted(hash, current.seeds, current.inverseWeights, n)];
+    }
+
+    private static int bestWeighted(long hash, long[] seeds, double[] inverseWeights, int count) {
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double s = weightedScore(hash, seeds[i], inverseWeights[i]);
+            if (s > bestScore) {
+                bestScore = s;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * ln(u) / weight with u uniform in (0, 1) taken from the top 53 score bits;
+     * ranks servers like weight / -ln(u) without a division per server
+     */
+    private static double weightedScore(long hash, long seed, double inverseWeight) {
+        double u = ((RendezvousScorer.score(hash, seed) >>> 10) + 0.5) * 0x1.0p-53;
+        return Math.log(u) * inverseWeight;
+    }
+
+    /**
+     * Servers in descending score order for a key
+     *
+     * @param key      Key to route
+     * @param replicas Number of distinct servers wanted
+     * @return Up to replicas servers, the first being getServer(key)
+     */
+    public List<String> getServers(String key, int replicas) {
+        long hash = hashFunction.hash(key);
+        Table current = table;
+        int n = current.servers.length;
+        int wanted = Math.min(replicas, n);
+        List<String> result = new ArrayList<>(wanted);
+        if (wanted <= 0) return result;
+
+        // Partial selection sort: replica counts are small. Taken servers
+        // get a score below every real one
+        if (!current.weighted) {
+            long[] scores = new long[n];
+            for (int i = 0; i < n; i++) {
+                scores[i] = RendezvousScorer.score(hash, current.seeds[i]);
+            }
+            for (int r = 0; r < wanted; r++) {
+                int best = 0;
+                for (int i = 1; i < n; i++) {
+                    if (scores[i] > scores[best]) best = i;
+                }
+                result.add(current.servers[best]);
+                scores[best] = -1;
+            }
+        } else {
+            double[] scores = new double[n];
+            for (int i = 0; i < n; i++) {
+                scores[i] = weightedScore(hash, current.seeds[i], current.inverseWeights[i]);
+            }
+            for (int r = 0; r < wanted; r++) {
+                int best = 0;
+                for (int i = 1; i < n; i++) {
+                    if (scores[i] > scores[best]) best = i;
+                }
+                result.add(current.servers[best]);
+                scores[best] = Double.NEGATIVE_INFINITY;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void addServer(String server) {
+        addServer(server, 1);
+    }
+
+    /**
+     * Add a server or change its weight
+     *
+     * @param server Server identifier
+     * @param weight Relative share of keys (positive)
+     */
+    public synchronized void addServer(String server, double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("weight must be positive: " + weight);
+        }
+        Table current = table;
+        int n = current.servers.length;
+        int index = indexOf(current.servers, server);
+        String[] servers = index >= 0 ? current.servers : Arrays.copyOf(current.servers, n + 1);
+        long[] seeds = index >= 0 ? current.seeds : Arrays.copyOf(current.seeds, n + 1);
+        double[] weights = Arrays.copyOf(current.weights, servers.length);
+        if (index < 0) {
+            index = n;
+            servers[index] = server;
+            seeds[index] = hashFunction.hash(server);
+        }
+        weights[index] = weight;
+        table = new Table(servers, seeds, weights);
+    }
+
+    @Override
+    public synchronized void removeServer(String server) {
+        Table current = table;
+        int index = indexOf(current.servers, server);
+        if (index < 0) return;
+        int n = current.servers.length - 1;
+        String[] servers = new String[n];
+        long[] seeds = new long[n];
+        double[] weights = new double[n];
+        for (int i = 0, j = 0; i <= n; i++) {
+            if (i == index) continue;
+            servers[j] = current.servers[i];
+            seeds[j] = current.seeds[i];
+            weights[j++] = current.weights[i];
+        }
+        table = new Table(servers, seeds, weights);
+    }
+
+    /**
+     * Weight of a server
+     *
+     * @param server Server identifier
+     * @return Weight, or 0 if the server is not a member
+     */
+    public double getWeight(String server) {
+        Table current = table;
+        int index = indexOf(current.servers, server);
+        return index < 0 ? 0 : current.weights[index];
+    }
+
+    @Override
+    public Set<String> getAllServers() {
+        return new LinkedHashSet<>(Arrays.asList(table.servers));
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+}
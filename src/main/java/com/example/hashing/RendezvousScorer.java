@@ -0,0 +1,48 @@
+package com.example.hashing;
+
+/**
+ * Scores every server of a RendezvousRouter for one key hash and returns
+ * the winner. The scalar implementation is always available; a
+ * jdk.incubator.vector implementation is built by the vector profile.
+ */
+interface RendezvousScorer {
+
+    /**
+     * Server with the highest score(hash, seed)
+     *
+     * @param hash  Key hash
+     * @param seeds Per-server seeds
+     * @param count Number of servers (at least 1)
+     * @return Index of the winner; the lowest index on ties
+     */
+    int best(long hash, long[] seeds, int count);
+
+    /**
+     * Random 63-bit score of a server for a key
+     */
+    static long score(long hash, long seed) {
+        long x = hash ^ seed;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x >>> 1;
+    }
+
+    /**
+     * Plain loop over the seed array; the mixing is branch-free so the only
+     * dependency between iterations is the running maximum
+     */
+    RendezvousScorer SCALAR = (hash, seeds, count) -> {
+        int best = 0;
+        long bestScore = -1;
+        for (int i = 0; i < count; i++) {
+            long s = score(hash, seeds[i]);
+            if (s > bestScore) {
+                bestScore = s;
+                best = i;
+            }
+        }
+        return best;
+    };
+}
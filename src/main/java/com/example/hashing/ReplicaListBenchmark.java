@@ -0,0 +1,103 @@
+package com.example.hashing;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Microbenchmark: replica preference lists through the skip pointers in the
+ * ring snapshot versus a naive walk that visits every position clockwise
+ * until N distinct servers are found.
+ */
+public class ReplicaListBenchmark {
+    private static final int KEYS = 1 << 16;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int[] serverCounts = {16, 128};
+        int[] virtualNodeCounts = {1, 100, 1000};
+        int[] replicaCounts = {3, 8};
+
+        System.out.println("⏱️  === REPLICA LIST BENCHMARK ===");
+        System.out.printf("%-8s %-8s %-8s %14s %14s %8s\n",
+                "Servers", "VNodes", "Replicas", "Skip (ns/op)", "Naive (ns/op)", "Speedup");
+
+        String[] keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key_" + i;
+        }
+
+        PrintStream console = System.out;
+        for (int servers : serverCounts) {
+            for (int virtualNodes : virtualNodeCounts) {
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                ConsistentHashRing ring = new ConsistentHashRing(HashFunction.murmur3(), virtualNodes);
+                for (int s = 0; s < servers; s++) {
+                    ring.addServer("Server-" + s);
+                }
+                System.setOut(console);
+
+                RingSnapshot snapshot = ring.getSnapshot();
+                long[] hashes = new long[KEYS];
+                for (int i = 0; i < KEYS; i++) {
+                    hashes[i] = ring.computeHash(keys[i]);
+                }
+
+                for (int replicas : replicaCounts) {
+                    double skip = measure(() -> skipWalk(snapshot, hashes, replicas));
+                    double naive = measure(() -> naiveWalk(snapshot, hashes, replicas));
+                    System.out.printf("%-8d %-8d %-8d %14.1f %14.1f %7.1fx\n",
+                            servers, virtualNodes, replicas, skip, naive, naive / skip);
+                }
+            }
+        }
+        System.out.println("=================================\n");
+    }
+
+    private static double measure(java.util.function.LongSupplier body) {
+        long sink = 0;
+        // Warm up, then keep the best round
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += body.getAsLong();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += body.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == 42) System.out.print("");
+        return (double) best / KEYS;
+    }
+
+    private static long skipWalk(RingSnapshot snapshot, long[] hashes, int replicas) {
+        long sink = 0;
+        for (long hash : hashes) {
+            sink += snapshot.replicasFor(hash, replicas)[0];
+        }
+        return sink;
+    }
+
+    /**
+     * Naive preference list: step one position at a time and look up each owner
+     */
+    private static long naiveWalk(RingSnapshot snapshot, long[] hashes, int replicas) {
+        long sink = 0;
+        int wanted = Math.min(replicas, snapshot.serverCount());
+        for (long hash : hashes) {
+            int[] chosen = new int[wanted];
+            int found = 0;
+            int index = snapshot.indexFor(hash);
+            while (found < wanted) {
+                int owner = snapshot.ownerAt(index);
+                boolean seen = false;
+                for (int i = 0; i < found; i++) {
+                    seen |= chosen[i] == owner;
+                }
+                if (!seen) chosen[found++] = owner;
+                index = index + 1 == snapshot.size() ? 0 : index + 1;
+            }
+            sink += chosen[0];
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact ring analytics computed from arc lengths instead of sampled keys.
+ * Hash functions produce values in [0, 2^63), so each position owns the arc
+ * from the previous position (exclusive) up to itself (inclusive), and the
+ * first position also owns the wrap-around arc above the last position.
+ * Arcs are credited to the server a position routes to, so servers marked
+ * down own nothing and their arcs count for the healthy server that takes
+ * their keys. Multi-probe snapshots do not route keys by arc and are rejected.
+ */
+public final class RingAnalytics {
+    /**
+     * Size of the hash space shared by every HashFunction
+     */
+    public static final double HASH_SPACE = 0x1p63;
+
+    private RingAnalytics() {
+    }
+
+    /**
+     * Exact fraction of the hash space owned by each server
+     *
+     * @param snapshot Ring to analyze
+     * @return Server to ownership fraction, in server table order (fractions sum to 1
+     *         unless every server is down; down servers own 0)
+     */
+    public static Map<String, Double> ownership(RingSnapshot snapshot) {
+        double[] fractions = ownershipByOrdinal(snapshot);
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int s = 0; s < fractions.length; s++) {
+            result.put(snapshot.server(s), fractions[s]);
+        }
+        return result;
+    }
+
+    /**
+     * Exact ownership fractions indexed by server ordinal
+     *
+     * @param snapshot Ring to analyze
+     * @return Fraction of the hash space per server ordinal
+     * @throws IllegalArgumentException if the snapshot is multi-probe
+     */
+    public static double[] ownershipByOrdinal(RingSnapshot snapshot) {
+        requireArcRouting(snapshot);
+        double[] fractions = new double[snapshot.serverCount()];
+        int size = snapshot.size();
+        if (size == 0) return fractions;
+
+        // The first position owns the wrap-around arc; duplicates own nothing
+        for (int i = 0; i < size; i++) {
+            int routed = snapshot.healthyIndex(i);
+            if (routed < 0) break;
+            fractions[snapshot.ownerAt(routed)] += i == 0
+                    ? arcFraction(snapshot.positionAt(size - 1), snapshot.positionAt(0))
+                    : (snapshot.positionAt(i) - snapshot.positionAt(i - 1)) / HASH_SPACE;
+        }
+        return fractions;
+    }
+
+    /**
+     * Peak-to-average ownership ratio over healthy servers (1.0 means perfectly balanced)
+     *
+     * @param snapshot Ring to analyze
+     * @return Largest ownership divided by the mean ownership
+     */
+    public static double peakToAverage(RingSnapshot snapshot) {
+        double[] fractions = ownershipByOrdinal(snapshot);
+        if (snapshot.healthyServerCount() == 0) return 0;
+        double max = 0;
+        for (double fraction : fractions) {
+            max = Math.max(max, fraction);
+        }
+        return max * snapshot.healthyServerCount();
+    }
+
+    /**
+     * List the hash ranges whose keys are routed to a different server in
+     * the new ring, including moves caused by servers marked down or up.
+     * Adjacent ranges with the same source and destination are merged.
+     *
+     * @param oldRing Ring before the membership change
+     * @param newRing Ring after the membership change
+     * @return Moved ranges in hash order
+     * @throws IllegalArgumentException if either ring is multi-probe
+     */
+    public static List<MovedRange> diff(RingSnapshot oldRing, RingSnapshot newRing) {
+        requireArcRouting(oldRing);
+        requireArcRouting(newRing);
+        List<MovedRange> moved = new ArrayList<>();
+        int oldSize = oldRing.size();
+        int newSize = newRing.size();
+        if (oldSize == 0 && newSize == 0) return moved;
+
+        // Walk the union of both position sets; between two consecutive
+        // boundaries neither ring changes owner
+        long[] boundaries = union(oldRing, newRing);
+        int count = boundaries.length;
+        int oldIndex = 0;
+        int newIndex = 0;
+        long previous = boundaries[count - 1];
+        for (int b = 0; b < count; b++) {
+            long boundary = boundaries[b];
+            while (oldIndex < oldSize && oldRing.positionAt(oldIndex) < boundary) oldIndex++;
+            while (newIndex < newSize && newRing.positionAt(newIndex) < boundary) newIndex++;
+            String from = ownerAt(oldRing, oldIndex);
+            String to = ownerAt(newRing, newIndex);
+
+            if (from == null ? to != null : !from.equals(to)) {
+                MovedRange last = moved.isEmpty() ? null : moved.get(moved.size() - 1);
+                if (last != null && last.getEnd() == previous && same(last.getFrom(), from) && same(last.getTo(), to)) {
+                    moved.set(moved.size() - 1, new MovedRange(last.getStart(), boundary, from, to));
+                } else {
+                    moved.add(new MovedRange(previous, boundary, from, to));
+                }
+            }
+            previous = boundary;
+        }
+
+        // The wrap-around range may continue the last range
+        if (moved.size() > 1) {
+            MovedRange first = moved.get(0);
+            MovedRange last = moved.get(moved.size() - 1);
+            if (first.getStart() == last.getEnd() && same(first.getFrom(), last.getFrom()) && same(first.getTo(), last.getTo())) {
+                moved.set(0, new MovedRange(last.getStart(), first.getEnd(), first.getFrom(), first.getTo()));
+                moved.remove(moved.size() - 1);
+            }
+        }
+        return moved;
+    }
+
+    private static void requireArcRouting(RingSnapshot snapshot) {
+        if (snapshot.probes() > 1) {
+            throw new IllegalArgumentException("Arc analytics do not apply to multi-probe rings: " + snapshot.probes() + " probes");
+        }
+    }
+
+    /**
+     * Total fraction of the hash space covered by a list of ranges
+     *
+     * @param ranges Ranges (e.g. from diff)
+     * @return Fraction of keys expected to move
+     */
+    public static double movedFraction(List<MovedRange> ranges) {
+        double total = 0;
+        for (MovedRange range : ranges) {
+            total += range.fraction();
+        }
+        return total;
+    }
+
+    /**
+     * Sum moved fractions per source → destination pair
+     *
+     * @param ranges Ranges (e.g. from diff)
+     * @return "from → to" to moved fraction
+     */
+    public static Map<String, Double> movedBetween(List<MovedRange> ranges) {
+        Map<String, Double> flows = new LinkedHashMap<>();
+        for (MovedRange range : ranges) {
+            flows.merge(range.getFrom() + " → " + range.getTo(), range.fraction(), Double::sum);
+        }
+        return flows;
+    }
+
+    /**
+     * Fraction of the hash space in the arc (start, end], wrapping when start >= end
+     */
+    static double arcFraction(long start, long end) {
+        if (start < end) {
+            return (end - start) / HASH_SPACE;
+        }
+        // Wrap: (start, 2^63) plus [0, end]; a single position owns everything
+        return ((HASH_SPACE - start) + end) / HASH_SPACE;
+    }
+
+    /**
+     * Server the position at index routes to, or null if none does
+     */
+    private static String ownerAt(RingSnapshot ring, int index) {
+        if (ring.isEmpty()) return null;
+        int routed = ring.healthyIndex(index == ring.size() ? 0 : index);
+        return routed < 0 ? null : ring.serverAt(routed);
+    }
+
+    private static boolean same(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static long[] union(RingSnapshot a, RingSnapshot b) {
+        long[] merged = new long[a.size() + b.size()];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.size() || j < b.size()) {
+            long next;
+            if (j >= b.size() || (i < a.size() && a.positionAt(i) <= b.positionAt(j))) {
+                next = a.positionAt(i++);
+            } else {
+                next = b.positionAt(j++);
+            }
+            if (k == 0 || merged[k - 1] != next) {
+                merged[k++] = next;
+            }
+        }
+        return java.util.Arrays.copyOf(merged, k);
+    }
+}
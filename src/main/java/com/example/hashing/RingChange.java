@@ -0,0 +1,77 @@
+package com.example.hashing;
+
+import java.util.List;
+
+/**
+ * Delta between two consecutive published ring snapshots: the servers that
+ * were added and removed and the hash ranges that changed owner.
+ * Moved ranges are computed on first access, on the listener's thread.
+ */
+public final class RingChange {
+    private final RingSnapshot previous;
+    private final RingSnapshot current;
+    private final List<String> addedServers;
+    private final List<String> removedServers;
+    private volatile List<MovedRange> movedRanges;
+
+    RingChange(RingSnapshot previous, RingSnapshot current, List<String> addedServers, List<String> removedServers) {
+        this.previous = previous;
+        this.current = current;
+        this.addedServers = List.copyOf(addedServers);
+        this.removedServers = List.copyOf(removedServers);
+    }
+
+    public long getPreviousEpoch() {
+        return previous.epoch();
+    }
+
+    public long getEpoch() {
+        return current.epoch();
+    }
+
+    public List<String> getAddedServers() {
+        return addedServers;
+    }
+
+    public List<String> getRemovedServers() {
+        return removedServers;
+    }
+
+    /**
+     * Hash ranges whose owner changed
+     *
+     * @return Moved ranges in ring order
+     * @throws IllegalArgumentException for multi-probe rings, whose keys do not move by range
+     */
+    public List<MovedRange> getMovedRanges() {
+        List<MovedRange> ranges = movedRanges;
+        if (ranges == null) {
+            ranges = List.copyOf(RingAnalytics.diff(previous, current));
+            movedRanges = ranges;
+        }
+        return ranges;
+    }
+
+    /**
+     * Fraction of the hash space that changed owner
+     *
+     * @return Value between 0 and 1
+     */
+    public double getMovedFraction() {
+        return RingAnalytics.movedFraction(getMovedRanges());
+    }
+
+    public RingSnapshot getPreviousSnapshot() {
+        return previous;
+    }
+
+    public RingSnapshot getSnapshot() {
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "RingChange{epoch " + previous.epoch() + " → " + current.epoch()
+                + ", added=" + addedServers + ", removed=" + removedServers + "}";
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.hashing;
+
+/**
+ * Receives membership changes published by a ConsistentHashRing.
+ *
+ * Listeners are called on the ring's notifier thread, one change at a time
+ * in epoch order, after the new snapshot is already serving lookups. A slow
+ * listener delays later notifications but never blocks membership changes.
+ */
+@FunctionalInterface
+public interface RingChangeListener {
+
+    /**
+     * Handle a published change
+     *
+     * @param change Delta between the previous and the new snapshot
+     */
+    void onRingChange(RingChange change);
+}
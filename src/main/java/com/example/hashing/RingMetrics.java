@@ -0,0 +1,299 @@
+package com.example.hashing;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lookup instrumentation for a ConsistentHashRing.
+ *
+ * Every lookup increments an exact per-server LongAdder. One lookup in
+ * sampleRate is also timed into a log-linear latency histogram and fed to a
+ * count-min sketch; keys whose estimate reaches the current top-K threshold
+ * are kept in a small hot-key table. Every 10 x sketch width samples the
+ * sketch and the hot-key counts are halved, so hot keys follow recent
+ * traffic rather than all-time totals. Sampling keeps the cost of the timer
+ * and the sketch off most lookups, and a ring without metrics pays only one
+ * volatile read.
+ *
+ * Batch lookups (getServers(String[], String[]), groupByServer) are counted
+ * per server like single lookups but neither timed nor key-tracked, since a
+ * merged batch has no per-key latency.
+ */
+public class RingMetrics implements RingMetricsMXBean {
+    public static final int DEFAULT_SAMPLE_RATE = 16;
+    public static final int DEFAULT_TOP_KEYS = 10;
+
+    private final Supplier<RingSnapshot> ring;
+    private final int sampleMask;
+    private final int topKeys;
+    private final ConcurrentHashMap<String, LongAdder> lookups = new ConcurrentHashMap<>();
+    private final LongAdder totalLookups = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final CountMinSketch sketch = new CountMinSketch(4096);
+    private final long decaySamples = 10L * sketch.width();
+    private final AtomicLong samples = new AtomicLong();
+    private final Map<Long, String> hotKeyLabels = new HashMap<>();
+    private final Map<Long, Long> hotKeyCounts = new HashMap<>();
+    private volatile long hotKeyThreshold;
+    private ObjectName registeredName;
+    private String registeredAs;
+
+    RingMetrics(Supplier<RingSnapshot> ring, int sampleRate, int topKeys) {
+        if (sampleRate < 1 || Integer.bitCount(sampleRate) != 1) {
+            throw new IllegalArgumentException("sampleRate must be a power of two: " + sampleRate);
+        }
+        if (topKeys < 1) {
+            throw new IllegalArgumentException("topKeys must be at least 1: " + topKeys);
+        }
+        this.ring = ring;
+        this.sampleMask = sampleRate - 1;
+        this.topKeys = topKeys;
+    }
+
+    /**
+     * Decide whether the next lookup on this thread is sampled
+     *
+     * @return true if the lookup should be timed and key-tracked
+     */
+    boolean sample() {
+        return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+    }
+
+    /**
+     * Count a lookup against its server
+     *
+     * @param server Server returned (null if the ring was empty)
+     */
+    void count(String server) {
+        totalLookups.increment();
+        if (server != null) {
+            lookups.computeIfAbsent(server, s -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Count a batch of lookups against their servers
+     *
+     * @param snapshot Snapshot the batch was routed against
+     * @param ordinals Server ordinal per key, or null if the ring had no healthy server
+     * @param count    Number of keys
+     */
+    void countBatch(RingSnapshot snapshot, int[] ordinals, int count) {
+        totalLookups.add(count);
+        if (ordinals == null) return;
+        int[] perServer = new int[snapshot.serverCount()];
+        for (int i = 0; i < count; i++) {
+            perServer[ordinals[i]]++;
+        }
+        for (int ordinal = 0; ordinal < perServer.length; ordinal++) {
+            if (perServer[ordinal] > 0) {
+                lookups.computeIfAbsent(snapshot.server(ordinal), s -> new LongAdder()).add(perServer[ordinal]);
+            }
+        }
+    }
+
+    /**
+     * Record latency and key frequency of a sampled lookup
+     *
+     * @param key          Key label
+     * @param hash         Key hash
+     * @param elapsedNanos Lookup latency
+     */
+    void recordSample(String key, long hash, long elapsedNanos) {
+        latency.record(elapsedNanos);
+        long estimate = sketch.add(hash);
+        if (estimate >= hotKeyThreshold) {
+            offerHotKey(key, hash, estimate);
+        }
+        if (samples.incrementAndGet() % decaySamples == 0) {
+            decay();
+        }
+    }
+
+    /**
+     * Halve the sketch and the hot-key counts
+     */
+    private synchronized void decay() {
+        sketch.halve();
+        hotKeyCounts.replaceAll((hash, count) -> count >>> 1);
+        if (hotKeyCounts.size() == topKeys) hotKeyThreshold = minimumHotKeyCount();
+    }
+
+    private synchronized void offerHotKey(String key, long hash, long estimate) {
+        hotKeyCounts.put(hash, estimate);
+        hotKeyLabels.putIfAbsent(hash, key);
+        if (hotKeyCounts.size() <= topKeys) {
+            if (hotKeyCounts.size() == topKeys) hotKeyThreshold = minimumHotKeyCount();
+            return;
+        }
+        long coldest = 0;
+        long coldestCount = Long.MAX_VALUE;
+        for (Map.Entry<Long, Long> entry : hotKeyCounts.entrySet()) {
+            if (entry.getValue() < coldestCount) {
+                coldest = entry.getKey();
+                coldestCount = entry.getValue();
+            }
+        }
+        hotKeyCounts.remove(coldest);
+        hotKeyLabels.remove(coldest);
+        hotKeyThreshold = minimumHotKeyCount();
+    }
+
+    private long minimumHotKeyCount() {
+        long minimum = Long.MAX_VALUE;
+        for (long count : hotKeyCounts.values()) {
+            minimum = Math.min(minimum, count);
+        }
+        return minimum;
+    }
+
+    /**
+     * Take a snapshot of all metrics
+     *
+     * @return Metrics snapshot
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> perServer = new TreeMap<>();
+        lookups.forEach((server, count) -> perServer.put(server, count.sum()));
+        return new MetricsSnapshot(totalLookups.sum(), perServer, latency, hotKeys());
+    }
+
+    /**
+     * Hottest keys with the arc of the current ring they fall into
+     *
+     * @return Hot keys, most frequent first
+     */
+    public List<HotKey> hotKeys() {
+        Map<Long, String> labels;
+        synchronized (this) {
+            labels = new HashMap<>(hotKeyLabels);
+        }
+        RingSnapshot current = ring.get();
+        List<HotKey> result = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : labels.entrySet()) {
+            long hash = entry.getKey();
+            long estimate = sketch.estimate(hash) * (sampleMask + 1);
+            // Multi-probe keys belong to the position their winning probe routes to
+            int index = current.probes() > 1 ? current.routeIndex(hash) : current.indexFor(hash);
+            if (index < 0) {
+                result.add(new HotKey(entry.getValue(), hash, estimate, null, -1, 0, 0));
+            } else {
+                long start = current.positionAt(index == 0 ? current.size() - 1 : index - 1);
+                result.add(new HotKey(entry.getValue(), hash, estimate, current.serverFor(hash),
+                        index, start, current.positionAt(index)));
+            }
+        }
+        result.sort(Comparator.comparingLong(HotKey::getEstimatedLookups).reversed());
+        return result;
+    }
+
+    @Override
+    public long getTotalLookups() {
+        return totalLookups.sum();
+    }
+
+    @Override
+    public Map<String, Long> getLookupsPerServer() {
+        return snapshot().getLookupsPerServer();
+    }
+
+    @Override
+    public long getP50LatencyNanos() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getP99LatencyNanos() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public long getP999LatencyNanos() {
+        return latency.percentile(99.9);
+    }
+
+    @Override
+    public long getMaxLatencyNanos() {
+        return latency.max();
+    }
+
+    @Override
+    public List<String> getHotKeys() {
+        List<String> formatted = new ArrayList<>();
+        for (HotKey hotKey : hotKeys()) {
+            formatted.add(hotKey.toString());
+        }
+        return formatted;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleMask + 1;
+    }
+
+    @Override
+    public synchronized void reset() {
+        lookups.clear();
+        totalLookups.reset();
+        latency.reset();
+        sketch.reset();
+        samples.set(0);
+        hotKeyCounts.clear();
+        hotKeyLabels.clear();
+        hotKeyThreshold = 0;
+    }
+
+    /**
+     * Register with the platform MBean server as
+     * com.example.hashing:type=ConsistentHashRing,name=&lt;name&gt;
+     *
+     * @param name Name distinguishing this ring
+     */
+    public synchronized void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.example.hashing:type=ConsistentHashRing,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            registeredName = objectName;
+            registeredAs = name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register ring metrics MBean " + name, e);
+        }
+    }
+
+    /**
+     * Remove the MBean registered by registerMBean (no-op if not registered)
+     */
+    public synchronized void unregisterMBean() {
+        if (registeredName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister ring metrics MBean " + registeredName, e);
+        }
+        registeredName = null;
+        registeredAs = null;
+    }
+
+    /**
+     * Name passed to registerMBean
+     *
+     * @return Name or null if not registered
+     */
+    synchronized String getMBeanName() {
+        return registeredAs;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.hashing;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMX view of a ring's lookup metrics
+ */
+public interface RingMetricsMXBean {
+
+    long getTotalLookups();
+
+    Map<String, Long> getLookupsPerServer();
+
+    long getP50LatencyNanos();
+
+    long getP99LatencyNanos();
+
+    long getP999LatencyNanos();
+
+    long getMaxLatencyNanos();
+
+    /**
+     * Hottest keys formatted as "key ~count → server (arc)"
+     */
+    List<String> getHotKeys();
+
+    /**
+     * Sampling rate of latency and hot-key tracking (1 in N lookups)
+     */
+    int getSampleRate();
+
+    void reset();
+}
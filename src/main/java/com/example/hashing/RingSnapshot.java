@@ -0,0 +1,667 @@
+package com.example.hashing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, array-backed view of the ring used to serve lookups.
+ * Positions are kept in a sorted primitive array with a parallel array of
+ * server ordinals, so a lookup is one binary search with no boxing.
+ * Every published snapshot carries the membership epoch it was built for.
+ *
+ * Membership changes derive a new snapshot from the previous one by merging
+ * or filtering the sorted arrays, so adding a server with k positions costs
+ * O(n + k log k) instead of re-sorting the whole ring. Positions that collide
+ * are ordered by server name, which keeps placement independent of the
+ * order servers were added in.
+ *
+ * Each snapshot also stores, for every position, the index of the next
+ * position clockwise owned by a different server. Replica walks follow these
+ * pointers, so runs of virtual nodes from one server are skipped in one step.
+ *
+ * Servers can be marked down without changing the layout: a health overlay
+ * maps every position to the first position at or after it (clockwise) owned
+ * by a healthy server, so a lookup stays one binary search plus one array
+ * read however many servers are down, and marking a server up again restores
+ * exactly the previous routing.
+ *
+ * A multi-probe snapshot (probes > 1) hashes every key to several probe
+ * points derived from the one key hash and routes it to the probe whose
+ * clockwise successor is nearest. Balance then comes from the probes rather
+ * than from virtual nodes, so servers can keep a single position. The arc
+ * based tools in RingAnalytics describe the clockwise layout only and do not
+ * apply to such snapshots.
+ */
+public final class RingSnapshot {
+    private final long[] positions;
+    private final int[] owners;
+    private final String[] servers;
+    private final Map<String, Integer> ordinals;
+    private final int[] weights;
+    private final int[] nextDistinct;
+    private final boolean[] down;
+    private final int[] nextHealthy;
+    private final int healthyServers;
+    private final long epoch;
+    private final HashFunction hashFunction;
+    private final int probes;
+
+    RingSnapshot(long[] positions, int[] owners, String[] servers, int[] weights,
+                 long epoch, HashFunction hashFunction) {
+        this(positions, owners, servers, weights, epoch, hashFunction, 1);
+    }
+
+    RingSnapshot(long[] positions, int[] owners, String[] servers, int[] weights,
+                 long epoch, HashFunction hashFunction, int probes) {
+        this.positions = positions;
+        this.owners = owners;
+        this.servers = servers;
+        this.ordinals = indexOrdinals(servers);
+        this.weights = weights;
+        this.nextDistinct = computeNextDistinct(owners);
+        this.down = null;
+        this.nextHealthy = null;
+        this.healthyServers = servers.length;
+        this.epoch = epoch;
+        this.hashFunction = hashFunction;
+        this.probes = probes;
+    }
+
+    /**
+     * Same layout as base (arrays shared) with a different health overlay
+     */
+    private RingSnapshot(RingSnapshot base, boolean[] down, int[] nextHealthy, int healthyServers, long epoch) {
+        this.positions = base.positions;
+        this.owners = base.owners;
+        this.servers = base.servers;
+        this.ordinals = base.ordinals;
+        this.weights = base.weights;
+        this.nextDistinct = base.nextDistinct;
+        this.down = down;
+        this.nextHealthy = nextHealthy;
+        this.healthyServers = healthyServers;
+        this.epoch = epoch;
+        this.hashFunction = base.hashFunction;
+        this.probes = base.probes;
+    }
+
+    static RingSnapshot empty(HashFunction hashFunction) {
+        return empty(hashFunction, 1);
+    }
+
+    static RingSnapshot empty(HashFunction hashFunction, int probes) {
+        return new RingSnapshot(new long[0], new int[0], new String[0], new int[0], 0, hashFunction, probes);
+    }
+
+    /**
+     * Derive a snapshot with one more server
+     *
+     * @param server          Server to add (must not be a member)
+     * @param weight          Server weight
+     * @param serverPositions The server's ring positions, sorted ascending
+     * @param epoch           Epoch of the new snapshot
+     * @return New snapshot
+     */
+    RingSnapshot withServer(String server, int weight, long[] serverPositions, long epoch) {
+        int ordinal = servers.length;
+        String[] newServers = Arrays.copyOf(servers, ordinal + 1);
+        int[] newWeights = Arrays.copyOf(weights, ordinal + 1);
+        newServers[ordinal] = server;
+        newWeights[ordinal] = weight;
+
+        long[] newPositions = new long[positions.length + serverPositions.length];
+        int[] newOwners = new int[newPositions.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < positions.length && j < serverPositions.length) {
+            long existing = positions[i];
+            long added = serverPositions[j];
+            if (existing < added || (existing == added && servers[owners[i]].compareTo(server) < 0)) {
+                newPositions[k] = existing;
+                newOwners[k++] = owners[i++];
+            } else {
+                newPositions[k] = added;
+                newOwners[k++] = ordinal;
+                j++;
+            }
+        }
+        while (i < positions.length) {
+            newPositions[k] = positions[i];
+            newOwners[k++] = owners[i++];
+        }
+        while (j < serverPositions.length) {
+            newPositions[k] = serverPositions[j++];
+            newOwners[k++] = ordinal;
+        }
+        return new RingSnapshot(newPositions, newOwners, newServers, newWeights, epoch, hashFunction, probes);
+    }
+
+    /**
+     * Derive a snapshot without a server
+     *
+     * @param server Server to remove (must be a member)
+     * @param epoch  Epoch of the new snapshot
+     * @return New snapshot
+     */
+    RingSnapshot withoutServer(String server, long epoch) {
+        int removed = ordinalOf(server);
+        String[] newServers = new String[servers.length - 1];
+        int[] newWeights = new int[servers.length - 1];
+        int[] remap = new int[servers.length];
+        for (int s = 0, t = 0; s < servers.length; s++) {
+            if (s == removed) {
+                remap[s] = -1;
+                continue;
+            }
+            newServers[t] = servers[s];
+            newWeights[t] = weights[s];
+            remap[s] = t++;
+        }
+
+        int removedPositions = 0;
+        for (int owner : owners) {
+            if (owner == removed) removedPositions++;
+        }
+        long[] newPositions = new long[positions.length - removedPositions];
+        int[] newOwners = new int[newPositions.length];
+        for (int i = 0, k = 0; i < positions.length; i++) {
+            if (owners[i] == removed) continue;
+            newPositions[k] = positions[i];
+            newOwners[k++] = remap[owners[i]];
+        }
+        return new RingSnapshot(newPositions, newOwners, newServers, newWeights, epoch, hashFunction, probes);
+    }
+
+    /**
+     * Derive a snapshot with several servers removed and added in one pass.
+     * Removed servers are filtered out, the added positions are sorted together
+     * and merged in, so the cost is O(n + k log k) for k added positions.
+     *
+     * @param removedServers  Members to remove
+     * @param addedServers    Servers to add (not members after removal), sorted by name
+     * @param addedWeights    Weight of each added server
+     * @param addedPositions  Ring positions of each added server
+     * @param epoch           Epoch of the new snapshot
+     * @return New snapshot
+     */
+    RingSnapshot withChanges(Set<String> removedServers, String[] addedServers, int[] addedWeights,
+                             long[][] addedPositions, long epoch) {
+        int kept = 0;
+        int[] remap = new int[servers.length];
+        for (int s = 0; s < servers.length; s++) {
+            remap[s] = removedServers.contains(servers[s]) ? -1 : kept++;
+        }
+        String[] newServers = new String[kept + addedServers.length];
+        int[] newWeights = new int[newServers.length];
+        for (int s = 0; s < servers.length; s++) {
+            if (remap[s] < 0) continue;
+            newServers[remap[s]] = servers[s];
+            newWeights[remap[s]] = weights[s];
+        }
+
+        int addedCount = 0;
+        for (int a = 0; a < addedServers.length; a++) {
+            newServers[kept + a] = addedServers[a];
+            newWeights[kept + a] = addedWeights[a];
+            addedCount += addedPositions[a].length;
+        }
+        // Added servers are in name order and the sort is stable, so ties stay ordered by name
+        long[] added = new long[addedCount];
+        int[] addedOwners = new int[addedCount];
+        for (int a = 0, k = 0; a < addedServers.length; a++) {
+            for (long position : addedPositions[a]) {
+                added[k] = position;
+                addedOwners[k++] = kept + a;
+            }
+        }
+        BatchLookup.sort(added, addedOwners);
+
+        int keptPositions = 0;
+        for (int owner : owners) {
+            if (remap[owner] >= 0) keptPositions++;
+        }
+        long[] newPositions = new long[keptPositions + addedCount];
+        int[] newOwners = new int[newPositions.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < positions.length || j < addedCount) {
+            if (i < positions.length && remap[owners[i]] < 0) {
+                i++;
+                continue;
+            }
+            boolean takeExisting = j == addedCount
+                    || (i < positions.length && (positions[i] < added[j]
+                    || (positions[i] == added[j] && servers[owners[i]].compareTo(newServers[addedOwners[j]]) < 0)));
+            if (takeExisting) {
+                newPositions[k] = positions[i];
+                newOwners[k++] = remap[owners[i++]];
+            } else {
+                newPositions[k] = added[j];
+                newOwners[k++] = addedOwners[j++];
+            }
+        }
+        return new RingSnapshot(newPositions, newOwners, newServers, newWeights, epoch, hashFunction, probes);
+    }
+
+    /**
+     * Derive a snapshot with the same servers and weights where individual
+     * positions were added and removed. A removed position is identified by
+     * its value and owner; unknown ones are ignored.
+     *
+     * @param added          Positions to add (permuted in place)
+     * @param addedOwners    Owner ordinal of each added position
+     * @param removed        Positions to remove (permuted in place)
+     * @param removedOwners  Owner ordinal of each removed position
+     * @param epoch          Epoch of the new snapshot
+     * @return New snapshot
+     */
+    RingSnapshot withPositions(long[] added, int[] addedOwners, long[] removed, int[] removedOwners, long epoch) {
+        BatchLookup.sort(added, addedOwners);
+        BatchLookup.sort(removed, removedOwners);
+        boolean[] drop = new boolean[positions.length];
+        int dropped = 0;
+        boolean[] used = new boolean[removed.length];
+        for (int i = 0, r = 0; i < positions.length && r < removed.length; i++) {
+            while (r < removed.length && removed[r] < positions[i]) r++;
+            // Several owners may share a position value: match the owner as well
+            for (int t = r; t < removed.length && removed[t] == positions[i]; t++) {
+                if (!used[t] && removedOwners[t] == owners[i]) {
+                    used[t] = true;
+                    drop[i] = true;
+                    dropped++;
+                    break;
+                }
+            }
+        }
+
+        long[] newPositions = new long[positions.length - dropped + added.length];
+        int[] newOwners = new int[newPositions.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < positions.length || j < added.length) {
+            if (i < positions.length && drop[i]) {
+                i++;
+                continue;
+            }
+            boolean takeExisting = j == added.length
+                    || (i < positions.length && (positions[i] < added[j]
+                    || (positions[i] == added[j] && servers[owners[i]].compareTo(servers[addedOwners[j]]) < 0)));
+            if (takeExisting) {
+                newPositions[k] = positions[i];
+                newOwners[k++] = owners[i++];
+            } else {
+                newPositions[k] = added[j];
+                newOwners[k++] = addedOwners[j++];
+            }
+        }
+        return new RingSnapshot(newPositions, newOwners, servers, weights, epoch, hashFunction, probes);
+    }
+
+    /**
+     * Number of ring positions of every server
+     *
+     * @return Position count by ordinal
+     */
+    int[] positionCounts() {
+        int[] counts = new int[servers.length];
+        for (int owner : owners) {
+            counts[owner]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Derive a snapshot with the same layout where the given servers are down.
+     * Non-members are ignored; an empty set brings every server back up.
+     *
+     * @param downServers Servers to route around
+     * @param epoch       Epoch of the new snapshot
+     * @return New snapshot sharing this snapshot's arrays
+     */
+    RingSnapshot withHealth(Set<String> downServers, long epoch) {
+        boolean[] newDown = new boolean[servers.length];
+        int downCount = 0;
+        for (int ordinal = 0; ordinal < servers.length; ordinal++) {
+            if (downServers.contains(servers[ordinal])) {
+                newDown[ordinal] = true;
+                downCount++;
+            }
+        }
+        if (downCount == 0) return new RingSnapshot(this, null, null, servers.length, epoch);
+
+        // Walk two laps counter-clockwise so positions before the first healthy one wrap around
+        int n = positions.length;
+        int[] healthy = new int[n];
+        int next = -1;
+        for (int i = 2 * n - 1; i >= 0; i--) {
+            int index = i < n ? i : i - n;
+            if (!newDown[owners[index]]) next = index;
+            if (i < n) healthy[index] = next;
+        }
+        return new RingSnapshot(this, newDown, healthy, servers.length - downCount, epoch);
+    }
+
+    /**
+     * For each position, the next position clockwise with a different owner (-1 if none)
+     */
+    private static int[] computeNextDistinct(int[] owners) {
+        int n = owners.length;
+        int[] next = new int[n];
+        java.util.Arrays.fill(next, -1);
+        // Two backward passes around the ring resolve the wraparound
+        for (int k = 2 * n - 2; k >= 0; k--) {
+            int i = k % n;
+            int j = (k + 1) % n;
+            next[i] = owners[j] != owners[i] ? j : next[j];
+        }
+        return next;
+    }
+
+    /**
+     * Preference list for a hash: the first N distinct servers clockwise
+     *
+     * @param hash     Key hash
+     * @param replicas Number of distinct servers wanted
+     * @return Server ordinals in preference order (fewer if the ring has fewer servers)
+     */
+    public int[] replicasFor(long hash, int replicas) {
+        int wanted = Math.min(replicas, healthyServers);
+        int[] chosen = new int[Math.max(wanted, 0)];
+        if (wanted <= 0) return chosen;
+
+        int index = routeIndex(hash);
+        chosen[0] = owners[index];
+        int found = 1;
+        while (found < wanted) {
+            index = nextDistinct[index];
+            int owner = owners[index];
+            if ((down == null || !down[owner]) && !contains(chosen, found, owner)) {
+                chosen[found++] = owner;
+            }
+        }
+        return chosen;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Next position clockwise owned by a different server
+     *
+     * @param index Position index
+     * @return Position index, or -1 if every position has the same owner
+     */
+    public int nextDistinctAt(int index) {
+        return nextDistinct[index];
+    }
+
+    /**
+     * Ordinal of a server in the server table
+     *
+     * @param server Server identifier
+     * @return Ordinal, or -1 if the server is not a member
+     */
+    public int ordinalOf(String server) {
+        Integer ordinal = ordinals.get(server);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Name to ordinal index, so batched changes of k servers cost O(k) lookups
+     */
+    static Map<String, Integer> indexOrdinals(String[] servers) {
+        Map<String, Integer> ordinals = new HashMap<>(servers.length * 2);
+        for (int s = 0; s < servers.length; s++) {
+            ordinals.put(servers[s], s);
+        }
+        return ordinals;
+    }
+
+    /**
+     * Find the server responsible for a key in this snapshot
+     *
+     * @param key Key to hash
+     * @return Server identifier or null if the ring is empty
+     */
+    public String getServer(CharSequence key) {
+        if (positions.length == 0) return null;
+        return serverFor(hashFunction.hash(key));
+    }
+
+    /**
+     * Membership epoch of this snapshot; bumped by every published change
+     *
+     * @return Epoch number
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    public HashFunction hashFunction() {
+        return hashFunction;
+    }
+
+    /**
+     * Number of probe points hashed per key (1 for a classic ring)
+     *
+     * @return Probes per key
+     */
+    public int probes() {
+        return probes;
+    }
+
+    /**
+     * Index of the first position clockwise from a hash (wrapping around)
+     *
+     * @param hash Key hash
+     * @return Position index, or -1 if the ring is empty
+     */
+    public int indexFor(long hash) {
+        long[] positions = this.positions;
+        int n = positions.length;
+        if (n == 0) return -1;
+
+        // Branch-light lower bound: the loop trip count only depends on n
+        int base = 0;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = positions[base + half] < hash ? base + half : base;
+            n -= half;
+        }
+        int index = base + (positions[base] < hash ? 1 : 0);
+        return index == positions.length ? 0 : index;
+    }
+
+    /**
+     * Index of the position a hash routes to: the first position clockwise
+     * owned by a healthy server, or the nearest such position over all probe
+     * points of a multi-probe snapshot
+     *
+     * @param hash Key hash
+     * @return Position index, or -1 if the ring is empty or every server is down
+     */
+    public int routeIndex(long hash) {
+        if (probes > 1) return probeIndex(hash);
+        int index = indexFor(hash);
+        return nextHealthy == null || index < 0 ? index : nextHealthy[index];
+    }
+
+    /**
+     * Multi-probe lookup: of the routed positions of all probe points, the
+     * one with the shortest clockwise distance from its probe
+     */
+    private int probeIndex(long hash) {
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (int p = 0; p < probes; p++) {
+            long probe = probeHash(hash, p);
+            int index = indexFor(probe);
+            if (nextHealthy != null && index >= 0) index = nextHealthy[index];
+            if (index < 0) return -1;
+            // Clockwise distance in the 63-bit hash space, wrapping past the end
+            long distance = (positions[index] - probe) & Long.MAX_VALUE;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The p-th probe point of a key hash; probe 0 is the hash itself, so a
+     * single probe routes like a classic ring
+     *
+     * @param hash  Key hash
+     * @param probe Probe number
+     * @return Probe point in the 63-bit hash space
+     */
+    static long probeHash(long hash, int probe) {
+        return probe == 0 ? hash : Murmur3HashFunction.fmix64(hash + probe * 0x9E3779B97F4A7C15L) >>> 1;
+    }
+
+    /**
+     * Map a position index to the position its hashes route to
+     *
+     * @param index Position index
+     * @return Index of the first healthy position at or after it, or -1 if every server is down
+     */
+    public int healthyIndex(int index) {
+        return nextHealthy == null ? index : nextHealthy[index];
+    }
+
+    /**
+     * Find the server owning a hash, skipping servers that are down
+     *
+     * @param hash Key hash
+     * @return Server identifier or null if the ring is empty or every server is down
+     */
+    public String serverFor(long hash) {
+        int index = routeIndex(hash);
+        return index < 0 ? null : servers[owners[index]];
+    }
+
+    /**
+     * Whether a server is marked down in this snapshot
+     *
+     * @param ordinal Index into the server table
+     * @return true if lookups route around the server
+     */
+    public boolean isDown(int ordinal) {
+        return down != null && down[ordinal];
+    }
+
+    /**
+     * Number of members that are not marked down
+     *
+     * @return Healthy server count
+     */
+    public int healthyServerCount() {
+        return healthyServers;
+    }
+
+    /**
+     * Members that are marked down
+     *
+     * @return Set of server identifiers
+     */
+    public Set<String> downServers() {
+        Set<String> result = new LinkedHashSet<>();
+        if (down == null) return result;
+        for (int ordinal = 0; ordinal < servers.length; ordinal++) {
+            if (down[ordinal]) result.add(servers[ordinal]);
+        }
+        return result;
+    }
+
+    /**
+     * Number of positions on the ring
+     *
+     * @return Position count
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    public boolean isEmpty() {
+        return positions.length == 0;
+    }
+
+    /**
+     * Hash of the position at an index (positions are sorted ascending)
+     *
+     * @param index Position index
+     * @return Position hash
+     */
+    public long positionAt(int index) {
+        return positions[index];
+    }
+
+    /**
+     * Server ordinal of the position at an index
+     *
+     * @param index Position index
+     * @return Index into the server table
+     */
+    public int ownerAt(int index) {
+        return owners[index];
+    }
+
+    /**
+     * Server owning the position at an index
+     *
+     * @param index Position index
+     * @return Server identifier
+     */
+    public String serverAt(int index) {
+        return servers[owners[index]];
+    }
+
+    /**
+     * Number of distinct servers in the server table
+     *
+     * @return Server count
+     */
+    public int serverCount() {
+        return servers.length;
+    }
+
+    /**
+     * Server identifier for an ordinal
+     *
+     * @param ordinal Index into the server table
+     * @return Server identifier
+     */
+    public String server(int ordinal) {
+        return servers[ordinal];
+    }
+
+    /**
+     * Weight a server was added with
+     *
+     * @param ordinal Index into the server table
+     * @return Weight (positions = weight x virtual nodes)
+     */
+    public int weight(int ordinal) {
+        return weights[ordinal];
+    }
+
+    /**
+     * Servers that are members of this snapshot
+     *
+     * @return Set of server identifiers
+     */
+    public Set<String> servers() {
+        return new LinkedHashSet<>(Arrays.asList(servers));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.hashing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Loads ring snapshots written by RingSnapshotWriter.
+ *
+ * The file is memory-mapped read-only and the checksum verified; the small
+ * server table and down set are decoded, while positions and owners stay in
+ * the mapped region and are searched in place by MappedRing. Files in the
+ * previous format version, which had no down set, are read as all healthy.
+ */
+public final class RingSnapshotLoader {
+
+    private RingSnapshotLoader() {
+    }
+
+    /**
+     * Map a snapshot file, resolving the hash function by its stored name
+     *
+     * @param file Snapshot file
+     * @return Read-only ring backed by the mapped file
+     * @throws IOException If the file cannot be read or is corrupt
+     */
+    public static MappedRing load(Path file) throws IOException {
+        return load(file, null);
+    }
+
+    /**
+     * Map a snapshot file with a given hash function (e.g. one with a custom seed)
+     *
+     * @param file         Snapshot file
+     * @param hashFunction Hash function, must have the stored name; null to resolve by name
+     * @return Read-only ring backed by the mapped file
+     * @throws IOException If the file cannot be read or is corrupt
+     */
+    public static MappedRing load(Path file, HashFunction hashFunction) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file too large: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        try {
+            return decode(buffer.order(RingSnapshotWriter.ORDER), hashFunction);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt ring snapshot " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decode an encoded snapshot without copying the position arrays
+     *
+     * @param buffer       Little-endian buffer holding exactly one snapshot
+     * @param hashFunction Hash function or null to resolve by name
+     * @return Ring backed by the buffer
+     */
+    static MappedRing decode(ByteBuffer buffer, HashFunction hashFunction) {
+        int limit = buffer.limit();
+        if (limit < RingSnapshotWriter.V1_HEADER_SIZE + 6) {
+            throw new IllegalArgumentException("truncated header");
+        }
+        if (buffer.getInt(0) != RingSnapshotWriter.MAGIC) {
+            throw new IllegalArgumentException("bad magic");
+        }
+        int version = buffer.getInt(4);
+        if (version != RingSnapshotWriter.VERSION && version != 1) {
+            throw new IllegalArgumentException("unsupported version " + version);
+        }
+        int headerSize = version == 1 ? RingSnapshotWriter.V1_HEADER_SIZE : RingSnapshotWriter.HEADER_SIZE;
+        if (limit < headerSize + 6) {
+            throw new IllegalArgumentException("truncated header");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(limit - 4));
+        if ((int) crc.getValue() != buffer.getInt(limit - 4)) {
+            throw new IllegalArgumentException("checksum mismatch");
+        }
+
+        long epoch = buffer.getLong(8);
+        int n = buffer.getInt(16);
+        int serverCount = buffer.getInt(20);
+        int virtualNodes = buffer.getInt(24);
+        int positionsOffset = buffer.getInt(28);
+        int downCount = version == 1 ? 0 : buffer.getInt(32);
+        if (n < 0 || serverCount < 0 || positionsOffset < 0 || downCount < 0 || downCount > serverCount
+                || (long) positionsOffset + (downCount == 0 ? 12L : 16L) * n + 4 != limit) {
+            throw new IllegalArgumentException("inconsistent sizes");
+        }
+
+        ByteBuffer table = buffer.duplicate().order(RingSnapshotWriter.ORDER).position(headerSize);
+        String hashName = readString(table, table.getShort());
+        if (hashFunction == null) {
+            hashFunction = HashFunction.forName(hashName);
+        } else if (!hashFunction.name().equals(hashName)) {
+            throw new IllegalArgumentException("snapshot uses " + hashName + ", not " + hashFunction.name());
+        }
+        String[] servers = new String[serverCount];
+        int[] weights = new int[serverCount];
+        for (int ordinal = 0; ordinal < serverCount; ordinal++) {
+            weights[ordinal] = table.getInt();
+            servers[ordinal] = readString(table, table.getInt());
+        }
+        boolean[] down = downCount == 0 ? null : new boolean[serverCount];
+        for (int d = 0; d < downCount; d++) {
+            int ordinal = table.getInt();
+            if (ordinal < 0 || ordinal >= serverCount) {
+                throw new IllegalArgumentException("bad down server ordinal " + ordinal);
+            }
+            down[ordinal] = true;
+        }
+        if (table.position() > positionsOffset) {
+            throw new IllegalArgumentException("server table overruns positions");
+        }
+
+        int ownersOffset = positionsOffset + 8 * n;
+        ByteBuffer positions = buffer.duplicate().position(positionsOffset).limit(ownersOffset).slice();
+        ByteBuffer owners = buffer.duplicate().position(ownersOffset).limit(ownersOffset + 4 * n).slice();
+        ByteBuffer routes = down == null ? null
+                : buffer.duplicate().position(ownersOffset + 4 * n).limit(limit - 4).slice();
+        return new MappedRing(
+                positions.order(RingSnapshotWriter.ORDER).asLongBuffer(),
+                owners.order(RingSnapshotWriter.ORDER).asIntBuffer(),
+                routes == null ? null : routes.order(RingSnapshotWriter.ORDER).asIntBuffer(),
+                servers, weights, down, epoch, virtualNodes, hashFunction);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.hashing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes ring snapshots in a compact little-endian binary format that
+ * RingSnapshotLoader can memory-map and serve lookups from directly.
+ *
+ * Layout:
+ * <pre>
+ *   0  int    magic "CHRS"
+ *   4  int    format version
+ *   8  long   epoch
+ *  16  int    position count (n)
+ *  20  int    server count (s)
+ *  24  int    virtual nodes
+ *  28  int    offset of the position array (8-byte aligned)
+ *  32  int    down server count (d)
+ *  36  short  hash function name length, then UTF-8 bytes
+ *      s x    (int weight, int name length, UTF-8 name bytes)
+ *      d x    int  ordinal of a server marked down
+ *      pad    zeros up to the position array offset
+ *      n x    long position (sorted ascending)
+ *      n x    int  owner ordinal
+ *      n x    int  routing owner ordinal, -1 if every server is down (only if d > 0)
+ *      int    CRC32C of every preceding byte
+ * </pre>
+ *
+ * The routing owners apply the health overlay, so a mapped ring routes
+ * around down servers with the same single read as a healthy one. Version 1
+ * files (32-byte header, no health overlay) can still be loaded.
+ *
+ * Files are written to a temporary sibling and atomically moved into place,
+ * so a loader never maps a half-written snapshot.
+ */
+public final class RingSnapshotWriter {
+    static final int MAGIC = 0x53524843;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 36;
+    static final int V1_HEADER_SIZE = 32;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private RingSnapshotWriter() {
+    }
+
+    /**
+     * Write the current snapshot of a ring
+     *
+     * @param ring Ring to persist
+     * @param file Destination file (replaced if it exists)
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(ConsistentHashRing ring, Path file) throws IOException {
+        write(ring.getSnapshot(), ring.getVirtualNodes(), file);
+    }
+
+    /**
+     * Write a snapshot
+     *
+     * @param snapshot     Snapshot to persist
+     * @param virtualNodes Virtual nodes the snapshot was built with
+     * @param file         Destination file (replaced if it exists)
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(RingSnapshot snapshot, int virtualNodes, Path file) throws IOException {
+        ByteBuffer buffer = encode(snapshot, virtualNodes);
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Encode a snapshot into a buffer positioned at 0
+     *
+     * @param snapshot     Snapshot to encode
+     * @param virtualNodes Virtual nodes the snapshot was built with
+     * @return Encoded snapshot
+     */
+    static ByteBuffer encode(RingSnapshot snapshot, int virtualNodes) {
+        if (snapshot.probes() > 1) {
+            throw new IllegalArgumentException("Multi-probe snapshots cannot be encoded: " + snapshot.probes() + " probes");
+        }
+        byte[] hashName = snapshot.hashFunction().name().getBytes(StandardCharsets.UTF_8);
+        int serverCount = snapshot.serverCount();
+        byte[][] names = new byte[serverCount][];
+        long tableSize = 0;
+        for (int ordinal = 0; ordinal < serverCount; ordinal++) {
+            names[ordinal] = snapshot.server(ordinal).getBytes(StandardCharsets.UTF_8);
+            tableSize += 8 + names[ordinal].length;
+        }
+
+        int n = snapshot.size();
+        int[] down = new int[serverCount - snapshot.healthyServerCount()];
+        for (int ordinal = 0, d = 0; ordinal < serverCount; ordinal++) {
+            if (snapshot.isDown(ordinal)) down[d++] = ordinal;
+        }
+        long positionsOffset = align8(HEADER_SIZE + 2 + hashName.length + tableSize + 4L * down.length);
+        long total = positionsOffset + (down.length == 0 ? 12L : 16L) * n + 4;
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot too large to encode: " + total + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) total).order(ORDER);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(snapshot.epoch())
+                .putInt(n)
+                .putInt(serverCount)
+                .putInt(virtualNodes)
+                .putInt((int) positionsOffset)
+                .putInt(down.length)
+                .putShort((short) hashName.length)
+                .put(hashName);
+        for (int ordinal = 0; ordinal < serverCount; ordinal++) {
+            buffer.putInt(snapshot.weight(ordinal)).putInt(names[ordinal].length).put(names[ordinal]);
+        }
+        for (int ordinal : down) {
+            buffer.putInt(ordinal);
+        }
+        buffer.position((int) positionsOffset);
+        for (int i = 0; i < n; i++) {
+            buffer.putLong(snapshot.positionAt(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(snapshot.ownerAt(i));
+        }
+        if (down.length > 0) {
+            for (int i = 0; i < n; i++) {
+                int healthy = snapshot.healthyIndex(i);
+                buffer.putInt(healthy < 0 ? -1 : snapshot.ownerAt(healthy));
+            }
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    private static long align8(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.hashing;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Client for RoutingServer. Safe for concurrent use; all requests share
+ * one connection and are pipelined, with responses matched to requests by
+ * id on a reader thread.
+ *
+ * lookupAsync collects keys into a batch that is sent as one BATCH_LOOKUP
+ * frame once it holds maxBatch keys or flush() is called, which turns many
+ * small lookups into a few large frames. With maxBatch 1 every key is sent
+ * on its own as a LOOKUP frame.
+ */
+public class RoutingClient implements Closeable {
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private final SocketChannel channel;
+    private final int maxBatch;
+    private final Object writeLock = new Object();
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<ByteBuffer>> inFlight = new ConcurrentHashMap<>();
+    private final Thread reader;
+    private final Object batchLock = new Object();
+    private List<String> batchKeys = new ArrayList<>();
+    private List<CompletableFuture<String>> batchFutures = new ArrayList<>();
+    private volatile long lastEpoch;
+    private volatile boolean closed;
+    private volatile IOException broken;
+
+    public RoutingClient(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Connect to a routing server
+     *
+     * @param address  Server address
+     * @param maxBatch Keys per automatically sent batch
+     * @throws IOException If the connection fails
+     */
+    public RoutingClient(InetSocketAddress address, int maxBatch) throws IOException {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be at least 1: " + maxBatch);
+        }
+        this.maxBatch = maxBatch;
+        this.channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.reader = new Thread(this::readResponses, "routing-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Look up one key in its own request
+     *
+     * @param key Key to route
+     * @return Server identifier or null if the ring is empty
+     */
+    public String lookup(String key) {
+        return send(RoutingProtocol.keyRequest(nextId(), RoutingProtocol.LOOKUP, null, key), RoutingProtocol::getString).join();
+    }
+
+    /**
+     * Queue a key for the next batch; the batch is sent when full or on flush()
+     *
+     * @param key Key to route
+     * @return Future server identifier
+     */
+    public CompletableFuture<String> lookupAsync(String key) {
+        if (maxBatch == 1) {
+            return send(RoutingProtocol.keyRequest(nextId(), RoutingProtocol.LOOKUP, null, key), RoutingProtocol::getString);
+        }
+        CompletableFuture<String> future = new CompletableFuture<>();
+        synchronized (batchLock) {
+            batchKeys.add(key);
+            batchFutures.add(future);
+            if (batchKeys.size() >= maxBatch) flush();
+        }
+        return future;
+    }
+
+    /**
+     * Send the keys queued by lookupAsync now
+     */
+    public void flush() {
+        List<String> keys;
+        List<CompletableFuture<String>> futures;
+        synchronized (batchLock) {
+            if (batchKeys.isEmpty()) return;
+            keys = batchKeys;
+            futures = batchFutures;
+            batchKeys = new ArrayList<>();
+            batchFutures = new ArrayList<>();
+        }
+        lookupBatchAsync(keys).whenComplete((servers, error) -> {
+            for (int i = 0; i < futures.size(); i++) {
+                if (error != null) {
+                    futures.get(i).completeExceptionally(error);
+                } else {
+                    futures.get(i).complete(servers.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Look up many keys in one request
+     *
+     * @param keys Keys to route
+     * @return Servers in key order
+     */
+    public List<String> lookupBatch(List<String> keys) {
+        return lookupBatchAsync(keys).join();
+    }
+
+    public CompletableFuture<List<String>> lookupBatchAsync(List<String> keys) {
+        return send(RoutingProtocol.request(nextId(), RoutingProtocol.BATCH_LOOKUP, keys), RoutingProtocol::getStrings);
+    }
+
+    /**
+     * Preference list for a key
+     *
+     * @param key      Key to route
+     * @param replicas Number of distinct servers wanted
+     * @return Servers in preference order
+     */
+    public List<String> replicas(String key, int replicas) {
+        return send(RoutingProtocol.keyRequest(nextId(), RoutingProtocol.REPLICAS, replicas, key), RoutingProtocol::getStrings).join();
+    }
+
+    /**
+     * Add servers to the shared ring in one change
+     *
+     * @param servers Servers to add
+     * @return true if the ring changed
+     */
+    public boolean addServers(Collection<String> servers) {
+        return send(RoutingProtocol.request(nextId(), RoutingProtocol.ADD, servers), body -> body.get() != 0).join();
+    }
+
+    /**
+     * Remove servers from the shared ring in one change
+     *
+     * @param servers Servers to remove
+     * @return true if the ring changed
+     */
+    public boolean removeServers(Collection<String> servers) {
+        return send(RoutingProtocol.request(nextId(), RoutingProtocol.REMOVE, servers), body -> body.get() != 0).join();
+    }
+
+    /**
+     * Keys per automatically sent batch
+     *
+     * @return Batch size
+     */
+    public int maxBatch() {
+        return maxBatch;
+    }
+
+    /**
+     * Ring epoch reported by the most recent response
+     *
+     * @return Epoch number
+     */
+    public long getLastEpoch() {
+        return lastEpoch;
+    }
+
+    private int nextId() {
+        return nextRequestId.incrementAndGet();
+    }
+
+    private <T> CompletableFuture<T> send(ByteBuffer frame, Function<ByteBuffer, T> decoder) {
+        int requestId = frame.getInt(4);
+        CompletableFuture<ByteBuffer> response = new CompletableFuture<>();
+        inFlight.put(requestId, response);
+        try {
+            synchronized (writeLock) {
+                if (closed) throw new IOException("Client is closed");
+                // The reader fails everything in flight when it stops; don't register behind it
+                if (broken != null) throw broken;
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            inFlight.remove(requestId);
+            response.completeExceptionally(e);
+        }
+        return response.thenApply(decoder);
+    }
+
+    private void readResponses() {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        IOException failure = null;
+        try {
+            while (true) {
+                length.clear();
+                readFully(length);
+                int size = length.getInt(0);
+                if (size < RoutingProtocol.RESPONSE_HEADER || size > RoutingProtocol.MAX_FRAME) {
+                    throw new IOException("Bad response length " + size);
+                }
+                ByteBuffer body = ByteBuffer.allocate(size);
+                readFully(body);
+                body.flip();
+                int requestId = body.getInt();
+                byte status = body.get();
+                lastEpoch = body.getLong();
+                CompletableFuture<ByteBuffer> response = inFlight.remove(requestId);
+                if (response == null) continue;
+                if (status == RoutingProtocol.STATUS_OK) {
+                    response.complete(body);
+                } else {
+                    String message = StandardCharsets.UTF_8.decode(body).toString();
+                    response.completeExceptionally(new IllegalStateException("Routing server error: " + message));
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            IOException cause = failure != null ? failure : new IOException("Connection closed");
+            broken = cause;
+            for (CompletableFuture<ByteBuffer> response : inFlight.values()) {
+                response.completeExceptionally(new CompletionException(cause));
+            }
+            inFlight.clear();
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new EOFException("Routing server closed the connection");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        synchronized (writeLock) {
+            closed = true;
+        }
+        channel.close();
+        try {
+            reader.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.hashing;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback load test for the routing sidecar: starts a RoutingServer on a
+ * free local port and drives it with pipelined clients, first one key per
+ * request, then with client-side batching. Needs no external services.
+ */
+public class RoutingLoadTest {
+    private static final int CLIENTS = 2;
+    private static final int WINDOW = 16;
+    private static final long PHASE_MILLIS = 3_000;
+
+    public static void main(String[] args) throws Exception {
+        ConsistentHashRing ring = new ConsistentHashRing(HashFunction.murmur3(), 100);
+        List<String> servers = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            servers.add("Server-" + i);
+        }
+        ring.applyChanges(servers, List.of());
+
+        try (RoutingServer server = new RoutingServer(ring, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).start()) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            verify(ring, address);
+
+            System.out.println("🛰️  === ROUTING SIDECAR LOAD TEST ===");
+            System.out.printf("%d clients, %d frames in flight per client, %.0f s per phase\n",
+                    CLIENTS, WINDOW, PHASE_MILLIS / 1000.0);
+            System.out.printf("%-12s %14s %14s %10s %10s %10s\n",
+                    "Mode", "Keys/s", "Frames/s", "p50 (us)", "p99 (us)", "p999 (us)");
+            run("Single key", address, 1);
+            run("Batch 64", address, 64);
+            run("Batch 256", address, 256);
+            System.out.println("====================================\n");
+        }
+    }
+
+    private static void verify(ConsistentHashRing ring, InetSocketAddress address) throws IOException {
+        try (RoutingClient client = new RoutingClient(address)) {
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                keys.add("verify_" + i);
+            }
+            List<String> batch = client.lookupBatch(keys);
+            for (int i = 0; i < keys.size(); i++) {
+                String expected = ring.getServer(keys.get(i));
+                if (!expected.equals(batch.get(i)) || !expected.equals(client.lookup(keys.get(i)))) {
+                    throw new IllegalStateException("Sidecar disagrees with the ring for " + keys.get(i));
+                }
+            }
+            if (!ring.getServers("verify_0", 3).equals(client.replicas("verify_0", 3))) {
+                throw new IllegalStateException("Sidecar replicas disagree with the ring");
+            }
+        }
+    }
+
+    private static void run(String mode, InetSocketAddress address, int batch) throws Exception {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder completed = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        List<RoutingClient> clients = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PHASE_MILLIS);
+        for (int c = 0; c < CLIENTS; c++) {
+            RoutingClient client = new RoutingClient(address, batch);
+            clients.add(client);
+            int seed = c;
+            Thread thread = new Thread(() -> drive(client, seed, deadline, latency, completed), "load-client-" + c);
+            threads.add(thread);
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (RoutingClient client : clients) {
+            client.close();
+        }
+        double keysPerSecond = completed.sum() / seconds;
+        System.out.printf("%-12s %,14.0f %,14.0f %10.1f %10.1f %10.1f\n", mode, keysPerSecond, keysPerSecond / batch,
+                latency.percentile(50) / 1e3, latency.percentile(99) / 1e3, latency.percentile(99.9) / 1e3);
+    }
+
+    /**
+     * Keep up to WINDOW batches in flight; latency is measured per key from
+     * queueing to completion, so it includes time spent waiting for the batch to fill
+     */
+    private static void drive(RoutingClient client, int seed, long deadline, LatencyHistogram latency, LongAdder completed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Semaphore window = new Semaphore(WINDOW * client.maxBatch());
+        try {
+            while (System.nanoTime() < deadline) {
+                window.acquire();
+                long begin = System.nanoTime();
+                client.lookupAsync("key_" + random.nextInt(1_000_000)).whenComplete((server, error) -> {
+                    latency.record(System.nanoTime() - begin);
+                    completed.increment();
+                    window.release();
+                });
+            }
+            client.flush();
+            // Drain: wait until every queued lookup has completed
+            window.acquire(WINDOW * client.maxBatch());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Wire format shared by RoutingServer and RoutingClient.
+ *
+ * Every frame is an int length (of the rest of the frame) followed by the
+ * body; all integers are big-endian. Requests and responses carry a request
+ * id so clients can pipeline any number of requests on one connection.
+ * <pre>
+ * request:  int requestId, byte opcode, payload
+ *   LOOKUP        key bytes (rest of frame)
+ *   BATCH_LOOKUP  int count, count x string
+ *   REPLICAS      int replicas, key bytes (rest of frame)
+ *   ADD, REMOVE   int count, count x string
+ * response: int requestId, byte status, long epoch, payload
+ *   LOOKUP        string
+ *   BATCH_LOOKUP  int count, count x string
+ *   REPLICAS      int count, count x string
+ *   ADD, REMOVE   byte changed (1 if the ring changed)
+ *   ERROR status  UTF-8 message (rest of frame)
+ * string:   int length (-1 for null), UTF-8 bytes
+ * </pre>
+ */
+final class RoutingProtocol {
+    static final byte LOOKUP = 1;
+    static final byte BATCH_LOOKUP = 2;
+    static final byte REPLICAS = 3;
+    static final byte ADD = 4;
+    static final byte REMOVE = 5;
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    /** requestId + opcode */
+    static final int REQUEST_HEADER = 5;
+    /** requestId + status + epoch */
+    static final int RESPONSE_HEADER = 13;
+    static final int MAX_FRAME = 16 << 20;
+
+    private RoutingProtocol() {
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String length " + length + " exceeds frame");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static List<String> getStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / 4) {
+            throw new IllegalArgumentException("Bad string count " + count);
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(getString(buffer));
+        }
+        return values;
+    }
+
+    /**
+     * Encode a request frame, length prefix included
+     */
+    static ByteBuffer request(int requestId, byte opcode, Collection<String> strings) {
+        byte[][] encoded = new byte[strings.size()][];
+        int length = REQUEST_HEADER + 4;
+        int i = 0;
+        for (String value : strings) {
+            encoded[i] = value.getBytes(StandardCharsets.UTF_8);
+            length += 4 + encoded[i++].length;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(4 + length);
+        frame.putInt(length).putInt(requestId).put(opcode).putInt(encoded.length);
+        for (byte[] bytes : encoded) {
+            frame.putInt(bytes.length).put(bytes);
+        }
+        return frame.flip();
+    }
+
+    /**
+     * Encode a request frame whose payload is an optional int then raw key bytes
+     */
+    static ByteBuffer keyRequest(int requestId, byte opcode, Integer argument, String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = REQUEST_HEADER + (argument == null ? 0 : 4) + bytes.length;
+        ByteBuffer frame = ByteBuffer.allocate(4 + length);
+        frame.putInt(length).putInt(requestId).put(opcode);
+        if (argument != null) frame.putInt(argument);
+        return frame.put(bytes).flip();
+    }
+}
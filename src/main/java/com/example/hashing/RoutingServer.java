@@ -0,0 +1,430 @@
+package com.example.hashing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Routing sidecar: serves a ConsistentHashRing over the RoutingProtocol
+ * binary protocol so clients do not have to embed the ring.
+ *
+ * One non-blocking selector thread handles every connection. All complete
+ * frames in a read are handled in order and their responses queued, so
+ * clients may pipeline freely. Keys are hashed in place from the receive
+ * buffer, and server names are encoded once per ring snapshot into
+ * read-only direct buffers that responses reference with gathering writes
+ * instead of copying.
+ *
+ * Membership changes rebuild the ring snapshot, which takes time on a large
+ * ring, so they run one at a time on a separate thread. Their responses are
+ * handed back to the selector thread and sent when the change is published;
+ * lookups on every connection keep being served meanwhile. A change's
+ * response may therefore overtake or follow later lookups; clients match
+ * responses by request id.
+ */
+public class RoutingServer implements Closeable {
+    private static final int READ_BUFFER = 64 << 10;
+    private static final int MAX_GATHER = 1024;
+    /** Stop reading from a connection while this many response bytes are queued */
+    private static final long MAX_QUEUED_BYTES = 4 << 20;
+    private static final ByteBuffer NULL_NAME = ByteBuffer.allocateDirect(4).putInt(0, -1).asReadOnlyBuffer();
+
+    private final ConsistentHashRing ring;
+    private final Selector selector;
+    private final ServerSocketChannel acceptor;
+    private final Thread eventLoop;
+    private final ExecutorService membership = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "routing-membership");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Work handed back to the event loop by membership changes */
+    private final ConcurrentLinkedQueue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+    private RingSnapshot namesSnapshot;
+    private Map<String, ByteBuffer> names = new HashMap<>();
+
+    /**
+     * Bind a server; call start() to begin serving
+     *
+     * @param ring    Ring to serve
+     * @param address Address to listen on (port 0 picks a free port)
+     * @throws IOException If the address cannot be bound
+     */
+    public RoutingServer(ConsistentHashRing ring, InetSocketAddress address) throws IOException {
+        this.ring = ring;
+        this.selector = Selector.open();
+        this.acceptor = ServerSocketChannel.open();
+        acceptor.bind(address);
+        acceptor.configureBlocking(false);
+        acceptor.register(selector, SelectionKey.OP_ACCEPT);
+        this.eventLoop = new Thread(this::runEventLoop, "routing-server");
+        eventLoop.setDaemon(true);
+    }
+
+    public RoutingServer start() {
+        eventLoop.start();
+        return this;
+    }
+
+    /**
+     * Port the server is listening on
+     *
+     * @return Local port
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) acceptor.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("Server socket is closed", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        membership.shutdownNow();
+        selector.wakeup();
+        try {
+            eventLoop.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        acceptor.close();
+    }
+
+    private void runEventLoop() {
+        try {
+            while (running) {
+                selector.select();
+                for (Runnable completion; (completion = completions.poll()) != null; ) {
+                    completion.run();
+                }
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (!key.isValid()) continue;
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isWritable()) connection.flush();
+                            if (key.isValid() && key.isReadable()) connection.read();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // A broken or misbehaving client only loses its own connection
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) throw new IllegalStateException("Routing server event loop failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                    // Shutting down anyway
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = acceptor.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    /**
+     * Pre-encoded name of a server, valid until the next membership change
+     */
+    private ByteBuffer encodedName(String server) {
+        if (server == null) return NULL_NAME.duplicate();
+        ByteBuffer encoded = names.get(server);
+        if (encoded == null) {
+            RingSnapshot current = ring.getSnapshot();
+            if (current != namesSnapshot) {
+                names = encodeNames(current);
+                namesSnapshot = current;
+                encoded = names.get(server);
+            }
+            // Server left the ring after routing the key; encode it once more
+            if (encoded == null) encoded = encode(server);
+        }
+        return encoded.duplicate();
+    }
+
+    private static Map<String, ByteBuffer> encodeNames(RingSnapshot snapshot) {
+        Map<String, ByteBuffer> encoded = new HashMap<>();
+        for (int ordinal = 0; ordinal < snapshot.serverCount(); ordinal++) {
+            String server = snapshot.server(ordinal);
+            encoded.put(server, encode(server));
+        }
+        return encoded;
+    }
+
+    private static ByteBuffer encode(String server) {
+        byte[] bytes = server.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 + bytes.length);
+        buffer.putInt(bytes.length).put(bytes).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Per-connection framing state; only touched by the event loop thread
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+        private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+        private ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER);
+        private long queuedBytes;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                key.cancel();
+                channel.close();
+                return;
+            }
+            in.flip();
+            while (in.remaining() >= 4) {
+                int start = in.position();
+                int length = in.getInt(start);
+                if (length < RoutingProtocol.REQUEST_HEADER || length > RoutingProtocol.MAX_FRAME) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (in.remaining() < 4 + length) break;
+                handle(in.slice(start + 4, length));
+                in.position(start + 4 + length);
+            }
+            if (in.remaining() >= 4 && 4 + in.getInt(in.position()) > in.capacity()) {
+                in = grow(in, 4 + in.getInt(in.position()));
+            } else {
+                in.compact();
+            }
+            flush();
+        }
+
+        /**
+         * Copy the unread bytes into a buffer that can hold the whole frame (returned in write mode)
+         */
+        private ByteBuffer grow(ByteBuffer buffer, int frameSize) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(frameSize, buffer.capacity() * 2));
+            larger.put(buffer);
+            return larger;
+        }
+
+        private void handle(ByteBuffer frame) {
+            int requestId = frame.getInt(0);
+            byte opcode = frame.get(4);
+            frame.position(RoutingProtocol.REQUEST_HEADER);
+            try {
+                switch (opcode) {
+                    case RoutingProtocol.LOOKUP:
+                        lookup(requestId, frame);
+                        break;
+                    case RoutingProtocol.BATCH_LOOKUP:
+                        batchLookup(requestId, frame);
+                        break;
+                    case RoutingProtocol.REPLICAS:
+                        replicas(requestId, frame);
+                        break;
+                    case RoutingProtocol.ADD:
+                        changeMembership(requestId, RoutingProtocol.getStrings(frame), List.of());
+                        break;
+                    case RoutingProtocol.REMOVE:
+                        changeMembership(requestId, List.of(), RoutingProtocol.getStrings(frame));
+                        break;
+                    default:
+                        respondError(requestId, "Unknown opcode " + opcode);
+                }
+            } catch (RuntimeException e) {
+                respondError(requestId, String.valueOf(e.getMessage()));
+            }
+        }
+
+        /**
+         * Apply a membership change off the event loop and queue its response back onto it
+         */
+        private void changeMembership(int requestId, List<String> add, List<String> remove) {
+            membership.execute(() -> {
+                Runnable respond;
+                try {
+                    boolean changed = ring.applyChanges(add, remove);
+                    long epoch = ring.getEpoch();
+                    respond = () -> respondChanged(requestId, changed, epoch);
+                } catch (RuntimeException e) {
+                    String message = String.valueOf(e.getMessage());
+                    respond = () -> respondError(requestId, message);
+                }
+                Runnable response = respond;
+                completions.add(() -> {
+                    if (!key.isValid()) return;
+                    try {
+                        response.run();
+                        flush();
+                    } catch (IOException | RuntimeException e) {
+                        key.cancel();
+                        try {
+                            channel.close();
+                        } catch (IOException ignored) {
+                            // Connection is gone either way
+                        }
+                    }
+                });
+                selector.wakeup();
+            });
+        }
+
+        private void lookup(int requestId, ByteBuffer frame) {
+            RingSnapshot snapshot = ring.getSnapshot();
+            respondNames(requestId, snapshot.epoch(), false, snapshot.serverFor(snapshot.hashFunction().hash(frame)));
+        }
+
+        private void batchLookup(int requestId, ByteBuffer frame) {
+            int count = frame.getInt();
+            if (count < 0 || count > frame.remaining() / 4) {
+                throw new IllegalArgumentException("Bad key count " + count);
+            }
+            // One snapshot for the whole batch, so every key is routed at the epoch in the response
+            RingSnapshot snapshot = ring.getSnapshot();
+            HashFunction hashFunction = snapshot.hashFunction();
+            String[] servers = new String[count];
+            ByteBuffer key = frame.duplicate();
+            int position = frame.position();
+            for (int i = 0; i < count; i++) {
+                int length = frame.getInt(position);
+                if (length < 0 || length > frame.limit() - position - 4) {
+                    throw new IllegalArgumentException("Bad key length " + length);
+                }
+                key.limit(position + 4 + length).position(position + 4);
+                servers[i] = snapshot.serverFor(hashFunction.hash(key));
+                position += 4 + length;
+            }
+            respondNames(requestId, snapshot.epoch(), true, servers);
+        }
+
+        private void replicas(int requestId, ByteBuffer frame) {
+            int replicas = frame.getInt();
+            RingSnapshot snapshot = ring.getSnapshot();
+            int[] ordinals = snapshot.replicasFor(snapshot.hashFunction().hash(frame), replicas);
+            String[] servers = new String[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) {
+                servers[i] = snapshot.server(ordinals[i]);
+            }
+            respondNames(requestId, snapshot.epoch(), true, servers);
+        }
+
+        private void respondNames(int requestId, long epoch, boolean counted, String... servers) {
+            ByteBuffer[] encoded = new ByteBuffer[servers.length];
+            int length = RoutingProtocol.RESPONSE_HEADER + (counted ? 4 : 0);
+            for (int i = 0; i < servers.length; i++) {
+                encoded[i] = encodedName(servers[i]);
+                length += encoded[i].remaining();
+            }
+            ByteBuffer header = header(length, requestId, RoutingProtocol.STATUS_OK, epoch, counted ? 4 : 0);
+            if (counted) header.putInt(servers.length);
+            enqueue(header.flip());
+            for (ByteBuffer name : encoded) {
+                enqueue(name);
+            }
+        }
+
+        private void respondChanged(int requestId, boolean changed, long epoch) {
+            enqueue(header(RoutingProtocol.RESPONSE_HEADER + 1, requestId, RoutingProtocol.STATUS_OK, epoch, 1)
+                    .put((byte) (changed ? 1 : 0)).flip());
+        }
+
+        private void respondError(int requestId, String message) {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            enqueue(header(RoutingProtocol.RESPONSE_HEADER + bytes.length, requestId, RoutingProtocol.STATUS_ERROR,
+                    ring.getEpoch(), bytes.length)
+                    .put(bytes).flip());
+        }
+
+        private ByteBuffer header(int length, int requestId, byte status, long epoch, int extra) {
+            return ByteBuffer.allocate(4 + RoutingProtocol.RESPONSE_HEADER + extra)
+                    .putInt(length).putInt(requestId).put(status).putLong(epoch);
+        }
+
+        private void enqueue(ByteBuffer buffer) {
+            outbound.add(buffer);
+            queuedBytes += buffer.remaining();
+        }
+
+        void flush() throws IOException {
+            while (!outbound.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer buffer : outbound) {
+                    gather[count++] = buffer;
+                    if (count == MAX_GATHER) break;
+                }
+                long written = channel.write(gather, 0, count);
+                queuedBytes -= written;
+                while (!outbound.isEmpty() && !outbound.peekFirst().hasRemaining()) {
+                    outbound.pollFirst();
+                }
+                if (written == 0) break;
+            }
+            Arrays.fill(gather, null);
+            // Back-pressure: stop reading new requests until queued responses drain
+            int ops = outbound.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_WRITE;
+            if (queuedBytes < MAX_QUEUED_BYTES) ops |= SelectionKey.OP_READ;
+            key.interestOps(ops);
+        }
+    }
+
+    /**
+     * Run a sidecar with an empty ring; clients add servers through the protocol
+     *
+     * @param args [port] [virtual nodes]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int virtualNodes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        RoutingServer server = new RoutingServer(new ConsistentHashRing(HashFunction.murmur3(), virtualNodes),
+                new InetSocketAddress(port)).start();
+        System.out.println("🛰️  Routing sidecar listening on port " + server.getPort()
+                + " (" + virtualNodes + " virtual nodes)");
+        try {
+            server.eventLoop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.hashing;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-process sharded key-value store: one StorageNode per server of a
+ * ConsistentHashRing and a client that routes every operation through the
+ * ring.
+ *
+ * Membership changes switch the ring at once and hand the moved ranges to
+ * a Rebalancer in the background. Until the migration finishes, writes go
+ * to the new owner and reads that miss there fall back to the owner in the
+ * previous ring, so the store keeps serving throughout. Membership changes
+ * are serialized: a change waits for the previous migration to finish. If a
+ * migration fails the fallback stays on and further changes are refused
+ * until retryMigration succeeds.
+ *
+ * Every operation runs under the shared side of a lock that the ring switch
+ * and the end of the fallback take exclusively. This gives both a grace
+ * period: a write routed by the previous ring lands before its range is
+ * streamed, and a read that fell back to an old owner finishes before the
+ * moved ranges are dropped there.
+ */
+public class ShardedStore {
+    private final ConsistentHashRing ring;
+    private final HashFunction hashFunction;
+    private final Rebalancer rebalancer;
+    private final Map<String, StorageNode> nodes = new ConcurrentHashMap<>();
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "store-rebalance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object membershipLock = new Object();
+    private CompletableFuture<MigrationReport> migration = CompletableFuture.completedFuture(null);
+    private volatile RingSnapshot migratingFrom;
+    private volatile RingChange failedChange;
+    private final StampedLock inFlight = new StampedLock();
+
+    /**
+     * Create a store over a ring; existing servers of the ring start with empty nodes
+     *
+     * @param ring Ring owned by the store from now on (change membership through the store)
+     */
+    public ShardedStore(ConsistentHashRing ring) {
+        this(ring, new Rebalancer());
+    }
+
+    public ShardedStore(ConsistentHashRing ring, Rebalancer rebalancer) {
+        if (ring.getProbes() > 1) {
+            throw new IllegalArgumentException("Sharded stores migrate by moved ranges and need a classic ring, not "
+                    + ring.getProbes() + " probes");
+        }
+        this.ring = ring;
+        this.hashFunction = ring.getHashFunction();
+        this.rebalancer = rebalancer;
+        for (String server : ring.getAllServers()) {
+            nodes.put(server, new StorageNode(server));
+        }
+    }
+
+    public byte[] get(String key) {
+        long hash = hashFunction.hash(key);
+        long stamp = inFlight.readLock();
+        try {
+            StorageNode owner = nodeOf(ring.getSnapshot(), hash);
+            byte[] value = owner == null ? null : owner.get(hash, key);
+            RingSnapshot previous = migratingFrom;
+            if (value != null || previous == null) return value;
+
+            // The old owner keeps the moved ranges until every fallback read has finished
+            StorageNode oldOwner = nodeOf(previous, hash);
+            return oldOwner == null || oldOwner == owner ? null : oldOwner.get(hash, key);
+        } finally {
+            inFlight.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Store a value
+     *
+     * @param key   Key
+     * @param value Value (stored by reference)
+     * @throws IllegalStateException if the store has no servers
+     */
+    public void put(String key, byte[] value) {
+        long hash = hashFunction.hash(key);
+        long stamp = inFlight.readLock();
+        try {
+            ownerOf(hash).put(hash, key, value);
+        } finally {
+            inFlight.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Delete a key
+     *
+     * @param key Key
+     * @return true if the key was present
+     */
+    public boolean remove(String key) {
+        long hash = hashFunction.hash(key);
+        long stamp = inFlight.readLock();
+        try {
+            RingSnapshot previous = migratingFrom;
+            boolean removed = false;
+            if (previous != null) {
+                // Old owner first: the rebalancer checks it after copying to undo a racing copy
+                StorageNode oldOwner = nodeOf(previous, hash);
+                if (oldOwner != null) removed = oldOwner.remove(hash, key) != null;
+            }
+            StorageNode owner = nodeOf(ring.getSnapshot(), hash);
+            return (owner != null && owner.remove(hash, key) != null) || removed;
+        } finally {
+            inFlight.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Node owning a hash in a snapshot, or null if the snapshot has no servers
+     */
+    private StorageNode nodeOf(RingSnapshot snapshot, long hash) {
+        String server = snapshot.serverFor(hash);
+        return server == null ? null : nodes.get(server);
+    }
+
+    private StorageNode ownerOf(long hash) {
+        String server = ring.getSnapshot().serverFor(hash);
+        if (server == null) {
+            throw new IllegalStateException("Store has no servers");
+        }
+        return nodes.get(server);
+    }
+
+    public CompletableFuture<MigrationReport> addServer(String server) {
+        return applyChanges(List.of(server), List.of());
+    }
+
+    public CompletableFuture<MigrationReport> removeServer(String server) {
+        return applyChanges(List.of(), List.of(server));
+    }
+
+    /**
+     * Change membership and migrate the moved ranges in the background.
+     * Waits for a running migration first.
+     *
+     * @param add    Servers to add
+     * @param remove Servers to remove
+     * @return Future completed with the migration report (null if nothing changed)
+     * @throws IllegalStateException if the change would remove every server, or
+     *                               if the previous migration failed and was not retried
+     */
+    public CompletableFuture<MigrationReport> applyChanges(Collection<String> add, Collection<String> remove) {
+        synchronized (membershipLock) {
+            awaitMigration();
+            if (failedChange != null) {
+                throw new IllegalStateException("Previous migration to epoch " + failedChange.getEpoch()
+                        + " failed; call retryMigration first");
+            }
+            Set<String> remaining = new TreeSet<>(ring.getAllServers());
+            remaining.removeAll(remove);
+            remaining.addAll(add);
+            if (remaining.isEmpty()) {
+                throw new IllegalStateException("Cannot remove every server of the store");
+            }
+
+            for (String server : add) {
+                nodes.computeIfAbsent(server, StorageNode::new);
+            }
+            RingSnapshot previous = ring.getSnapshot();
+            boolean changed;
+            long stamp = inFlight.writeLock();
+            try {
+                // Readers must fall back to the previous owners before the ring switches
+                migratingFrom = previous;
+                changed = ring.applyChanges(add, remove);
+                if (!changed) migratingFrom = null;
+            } finally {
+                inFlight.unlockWrite(stamp);
+            }
+            if (!changed) return CompletableFuture.completedFuture(null);
+            return migrate(new RingChange(previous, ring.getSnapshot(), List.copyOf(add), List.copyOf(remove)));
+        }
+    }
+
+    /**
+     * Run a failed migration again; copies are idempotent, so ranges that
+     * made it the first time are skipped
+     *
+     * @return Future completed with the migration report (null if no migration failed)
+     */
+    public CompletableFuture<MigrationReport> retryMigration() {
+        synchronized (membershipLock) {
+            awaitMigration();
+            RingChange change = failedChange;
+            return change == null ? CompletableFuture.completedFuture(null) : migrate(change);
+        }
+    }
+
+    /**
+     * Start migrating a change on the coordinator; called with membershipLock held
+     */
+    private CompletableFuture<MigrationReport> migrate(RingChange change) {
+        migration = CompletableFuture.supplyAsync(() -> {
+            MigrationReport report;
+            try {
+                report = rebalancer.migrate(change, nodes);
+            } catch (RuntimeException e) {
+                // The fallback stays on: the old owners still hold every key
+                failedChange = change;
+                throw e;
+            }
+            failedChange = null;
+            long end = inFlight.writeLock();
+            try {
+                migratingFrom = null;
+            } finally {
+                inFlight.unlockWrite(end);
+            }
+            rebalancer.dropMoved(change, nodes);
+            for (String server : change.getRemovedServers()) {
+                nodes.remove(server);
+            }
+            return report;
+        }, coordinator);
+        return migration;
+    }
+
+    /**
+     * Wait for the running migration, if any; a failure is reported by the
+     * future returned from applyChanges and by hasFailedMigration
+     */
+    public void awaitMigration() {
+        CompletableFuture<MigrationReport> running;
+        synchronized (membershipLock) {
+            running = migration;
+        }
+        running.exceptionally(e -> null).join();
+    }
+
+    /**
+     * @return true if the last migration failed and must be retried before the next membership change
+     */
+    public boolean hasFailedMigration() {
+        return failedChange != null;
+    }
+
+    public boolean isMigrating() {
+        return migratingFrom != null;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    public Rebalancer getRebalancer() {
+        return rebalancer;
+    }
+
+    /**
+     * Storage node of a server, e.g. to inspect its size
+     *
+     * @param server Server identifier
+     * @return Node or null
+     */
+    public StorageNode getNode(String server) {
+        return nodes.get(server);
+    }
+
+    public long keyCount() {
+        long count = 0;
+        for (StorageNode node : nodes.values()) {
+            count += node.keyCount();
+        }
+        return count;
+    }
+
+    /**
+     * Print keys and bytes per node
+     */
+    public void printNodes() {
+        System.out.println("\n🗄️ === STORE NODES ===");
+        for (String server : new TreeSet<>(nodes.keySet())) {
+            StorageNode node = nodes.get(server);
+            System.out.printf("%-20s: %,10d keys | %,14d bytes\n", server, node.keyCount(), node.byteCount());
+        }
+        System.out.println("=====================\n");
+    }
+}
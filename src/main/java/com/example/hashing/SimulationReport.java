@@ -0,0 +1,138 @@
+package com.example.hashing;
+
+import java.util.Map;
+
+/**
+ * Result of a LoadSimulator run
+ */
+public final class SimulationReport {
+    private final String distribution;
+    private final int threads;
+    private final boolean virtualThreads;
+    private final long elapsedNanos;
+    private final long operations;
+    private final double meanLatencyNanos;
+    private final long p50LatencyNanos;
+    private final long p99LatencyNanos;
+    private final long p999LatencyNanos;
+    private final long maxLatencyNanos;
+    private final Map<String, Long> loadPerServer;
+    private final int churnEvents;
+    private final int sampledKeys;
+    private final long movedKeys;
+
+    SimulationReport(String distribution, int threads, boolean virtualThreads, long elapsedNanos, long operations,
+                     LatencyHistogram latency, Map<String, Long> loadPerServer,
+                     int churnEvents, int sampledKeys, long movedKeys) {
+        this.distribution = distribution;
+        this.threads = threads;
+        this.virtualThreads = virtualThreads;
+        this.elapsedNanos = elapsedNanos;
+        this.operations = operations;
+        this.meanLatencyNanos = latency.mean();
+        this.p50LatencyNanos = latency.percentile(50);
+        this.p99LatencyNanos = latency.percentile(99);
+        this.p999LatencyNanos = latency.percentile(99.9);
+        this.maxLatencyNanos = latency.max();
+        this.loadPerServer = loadPerServer;
+        this.churnEvents = churnEvents;
+        this.sampledKeys = sampledKeys;
+        this.movedKeys = movedKeys;
+    }
+
+    public String getDistribution() {
+        return distribution;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Lookups per second over all threads
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+    }
+
+    public double getMeanLatencyNanos() {
+        return meanLatencyNanos;
+    }
+
+    public long getP50LatencyNanos() {
+        return p50LatencyNanos;
+    }
+
+    public long getP99LatencyNanos() {
+        return p99LatencyNanos;
+    }
+
+    public long getP999LatencyNanos() {
+        return p999LatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /**
+     * Lookups routed to each server during the run
+     */
+    public Map<String, Long> getLoadPerServer() {
+        return loadPerServer;
+    }
+
+    /**
+     * Most loaded server divided by the average (1.0 = perfect balance)
+     */
+    public double getPeakToAverage() {
+        if (loadPerServer.isEmpty()) return 0;
+        long max = 0;
+        long total = 0;
+        for (long load : loadPerServer.values()) {
+            max = Math.max(max, load);
+            total += load;
+        }
+        return total == 0 ? 0 : max * (double) loadPerServer.size() / total;
+    }
+
+    public int getChurnEvents() {
+        return churnEvents;
+    }
+
+    /**
+     * Keys of the fixed sample that changed owner, summed over all churn events
+     */
+    public long getMovedKeys() {
+        return movedKeys;
+    }
+
+    /**
+     * Average fraction of the key sample moved by one churn event
+     */
+    public double getMovedFractionPerEvent() {
+        return churnEvents == 0 ? 0 : movedKeys / (double) churnEvents / sampledKeys;
+    }
+
+    /**
+     * Print the report
+     */
+    public void print() {
+        System.out.println("\n🏋️ === LOAD SIMULATION ===");
+        System.out.printf("Workload: %s | %d %s threads | %.1f s\n", distribution, threads,
+                virtualThreads ? "virtual" : "platform", elapsedNanos / 1e9);
+        System.out.printf("Throughput: %,.0f lookups/s (%,d lookups)\n", getThroughput(), operations);
+        System.out.printf("Latency: mean %.0f ns | p50 %d ns | p99 %d ns | p999 %d ns | max %d ns\n",
+                meanLatencyNanos, p50LatencyNanos, p99LatencyNanos, p999LatencyNanos, maxLatencyNanos);
+        System.out.println("Load per server:");
+        for (Map.Entry<String, Long> entry : loadPerServer.entrySet()) {
+            System.out.printf("  %-20s: %12d lookups (%5.1f%%)\n", entry.getKey(), entry.getValue(),
+                    operations == 0 ? 0 : entry.getValue() * 100.0 / operations);
+        }
+        System.out.printf("Imbalance (peak / average): %.2f\n", getPeakToAverage());
+        System.out.printf("Churn: %d events | %d of %d sampled keys moved per event on average (%.2f%%)\n",
+                churnEvents, churnEvents == 0 ? 0 : movedKeys / churnEvents, sampledKeys,
+                getMovedFractionPerEvent() * 100);
+        System.out.println("==========================\n");
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.hashing;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory storage of one server of a ShardedStore. Entries are ordered by
+ * key hash so that a hash range can be streamed to another node without
+ * scanning the rest of the node; the rare keys sharing a hash are chained.
+ * All operations are thread-safe.
+ */
+public final class StorageNode {
+    private final String name;
+    private final ConcurrentSkipListMap<Long, Entry> data = new ConcurrentSkipListMap<>();
+
+    StorageNode(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[] get(long hash, String key) {
+        for (Entry entry = data.get(hash); entry != null; entry = entry.next) {
+            if (entry.key.equals(key)) return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Store a value
+     *
+     * @return Previous value or null
+     */
+    public byte[] put(long hash, String key, byte[] value) {
+        byte[][] previous = new byte[1][];
+        data.compute(hash, (h, head) -> {
+            previous[0] = valueOf(head, key);
+            return new Entry(key, value, without(head, key));
+        });
+        return previous[0];
+    }
+
+    /**
+     * Remove a value
+     *
+     * @return Removed value or null
+     */
+    public byte[] remove(long hash, String key) {
+        byte[][] previous = new byte[1][];
+        data.computeIfPresent(hash, (h, head) -> {
+            previous[0] = valueOf(head, key);
+            return without(head, key);
+        });
+        return previous[0];
+    }
+
+    /**
+     * Store a value only if the key is absent (used by migration so that it never
+     * overwrites a newer foreground write)
+     *
+     * @return true if the value was stored
+     */
+    boolean putIfAbsent(long hash, String key, byte[] value) {
+        boolean[] stored = new boolean[1];
+        data.compute(hash, (h, head) -> {
+            // The function may be retried, so every attempt sets the flag
+            stored[0] = valueOf(head, key) == null;
+            return stored[0] ? new Entry(key, value, head) : head;
+        });
+        return stored[0];
+    }
+
+    /**
+     * Remove a key only while it still maps to this exact value instance
+     *
+     * @return true if the entry was removed
+     */
+    boolean remove(long hash, String key, byte[] value) {
+        boolean[] removed = new boolean[1];
+        data.computeIfPresent(hash, (h, head) -> {
+            removed[0] = valueOf(head, key) == value;
+            return removed[0] ? without(head, key) : head;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Entries with lo < hash <= hi in hash order (weakly consistent)
+     */
+    NavigableMap<Long, Entry> range(long lo, long hi) {
+        return data.subMap(lo, false, hi, true);
+    }
+
+    /**
+     * Drop every entry with lo < hash <= hi
+     */
+    void clearRange(long lo, long hi) {
+        range(lo, hi).clear();
+    }
+
+    public int keyCount() {
+        int count = 0;
+        for (Entry head : data.values()) {
+            for (Entry entry = head; entry != null; entry = entry.next) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Bytes held: UTF-8 key bytes plus value bytes
+     */
+    public long byteCount() {
+        long bytes = 0;
+        for (Map.Entry<Long, Entry> head : data.entrySet()) {
+            for (Entry entry = head.getValue(); entry != null; entry = entry.next) bytes += entry.bytes();
+        }
+        return bytes;
+    }
+
+    private static byte[] valueOf(Entry head, String key) {
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            if (entry.key.equals(key)) return entry.value;
+        }
+        return null;
+    }
+
+    private static Entry without(Entry head, String key) {
+        if (head == null) return null;
+        if (head.key.equals(key)) return head.next;
+        Entry rest = without(head.next, key);
+        return rest == head.next ? head : new Entry(head.key, head.value, rest);
+    }
+
+    /**
+     * Immutable chain of the keys sharing one hash
+     */
+    static final class Entry {
+        final String key;
+        final byte[] value;
+        final Entry next;
+
+        Entry(String key, byte[] value, Entry next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        long bytes() {
+            return utf8Length(key) + value.length;
+        }
+    }
+
+    static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) length++;
+            else if (c < 0x800) length += 2;
+            else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else length += 3;
+        }
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageNode{" + name + ", keys=" + keyCount() + "}";
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.hashing;
+
+/**
+ * UTF-8 encoding into a per-thread scratch buffer, so that hashing a
+ * CharSequence never allocates a byte array per call
+ */
+final class Utf8 {
+    private static final ThreadLocal<byte[][]> SCRATCH = ThreadLocal.withInitial(() -> new byte[][]{new byte[128]});
+
+    private Utf8() {
+    }
+
+    static long hash(HashFunction function, CharSequence input) {
+        byte[][] holder = SCRATCH.get();
+        byte[] buffer = holder[0];
+        int maxBytes = input.length() * 3;
+        if (buffer.length < maxBytes) {
+            buffer = new byte[Math.max(maxBytes, buffer.length * 2)];
+            holder[0] = buffer;
+        }
+        int length = encode(input, buffer);
+        return function.hash(buffer, 0, length);
+    }
+
+    static long hashDecimal(HashFunction function, long value) {
+        byte[] buffer = SCRATCH.get()[0];
+        // Long.MIN_VALUE has 20 characters; write digits right to left
+        int pos = 20;
+        long remaining = value;
+        do {
+            buffer[--pos] = (byte) ('0' + Math.abs(remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            buffer[--pos] = '-';
+        }
+        return function.hash(buffer, pos, 20 - pos);
+    }
+
+    /**
+     * Encode characters as UTF-8 (unpaired surrogates become '?', like String.getBytes)
+     *
+     * @param input  Characters to encode
+     * @param buffer Destination, at least 3 bytes per char
+     * @return Number of bytes written
+     */
+    static int encode(CharSequence input, byte[] buffer) {
+        int length = input.length();
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                buffer[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, input.charAt(++i));
+                    buffer[pos++] = (byte) (0xF0 | (cp >> 18));
+                    buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buffer[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    buffer[pos++] = (byte) '?';
+                }
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+}
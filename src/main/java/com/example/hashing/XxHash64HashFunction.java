@@ -0,0 +1,155 @@
+package com.example.hashing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * xxHash64 hash function
+ */
+public final class XxHash64HashFunction implements HashFunction {
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private final long seed;
+
+    public XxHash64HashFunction(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public long hash(byte[] data, int offset, int length) {
+        int pos = offset;
+        int end = offset + length;
+        long hash;
+
+        if (length >= 32) {
+            long v1 = seed + P1 + P2;
+            long v2 = seed + P2;
+            long v3 = seed;
+            long v4 = seed - P1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, Bits.getLong(data, pos));
+                v2 = round(v2, Bits.getLong(data, pos + 8));
+                v3 = round(v3, Bits.getLong(data, pos + 16));
+                v4 = round(v4, Bits.getLong(data, pos + 24));
+                pos += 32;
+            } while (pos <= limit);
+            hash = merge(v1, v2, v3, v4);
+        } else {
+            hash = seed + P5;
+        }
+
+        hash += length;
+
+        while (pos + 8 <= end) {
+            hash = mix8(hash, Bits.getLong(data, pos));
+            pos += 8;
+        }
+        if (pos + 4 <= end) {
+            hash = mix4(hash, Bits.getUnsignedInt(data, pos));
+            pos += 4;
+        }
+        while (pos < end) {
+            hash = mix1(hash, data[pos]);
+            pos++;
+        }
+
+        return avalanche(hash) >>> 1;
+    }
+
+    @Override
+    public long hash(ByteBuffer data) {
+        int pos = data.position();
+        int end = data.limit();
+        int length = end - pos;
+        long hash;
+
+        if (length >= 32) {
+            long v1 = seed + P1 + P2;
+            long v2 = seed + P2;
+            long v3 = seed;
+            long v4 = seed - P1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, Bits.getLong(data, pos));
+                v2 = round(v2, Bits.getLong(data, pos + 8));
+                v3 = round(v3, Bits.getLong(data, pos + 16));
+                v4 = round(v4, Bits.getLong(data, pos + 24));
+                pos += 32;
+            } while (pos <= limit);
+            hash = merge(v1, v2, v3, v4);
+        } else {
+            hash = seed + P5;
+        }
+
+        hash += length;
+
+        while (pos + 8 <= end) {
+            hash = mix8(hash, Bits.getLong(data, pos));
+            pos += 8;
+        }
+        if (pos + 4 <= end) {
+            hash = mix4(hash, Bits.getUnsignedInt(data, pos));
+            pos += 4;
+        }
+        while (pos < end) {
+            hash = mix1(hash, data.get(pos));
+            pos++;
+        }
+
+        return avalanche(hash) >>> 1;
+    }
+
+    private static long merge(long v1, long v2, long v3, long v4) {
+        long hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+        hash = mergeRound(hash, v1);
+        hash = mergeRound(hash, v2);
+        hash = mergeRound(hash, v3);
+        return mergeRound(hash, v4);
+    }
+
+    private static long mix8(long hash, long input) {
+        hash ^= round(0, input);
+        return Long.rotateLeft(hash, 27) * P1 + P4;
+    }
+
+    private static long mix4(long hash, long input) {
+        hash ^= input * P1;
+        return Long.rotateLeft(hash, 23) * P2 + P3;
+    }
+
+    private static long mix1(long hash, byte input) {
+        hash ^= (input & 0xFF) * P5;
+        return Long.rotateLeft(hash, 11) * P1;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        val = round(0, val);
+        acc ^= val;
+        return acc * P1 + P4;
+    }
+
+    static long avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= P2;
+        hash ^= hash >>> 29;
+        hash *= P3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    @Override
+    public String name() {
+        return "xxhash64";
+    }
+}
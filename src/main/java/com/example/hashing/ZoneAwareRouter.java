@@ -0,0 +1,353 @@
+package com.example.hashing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-level router for servers spread over zones (racks, availability
+ * zones, data centers). A weighted zone ring picks the key's home zone and
+ * that zone's own ConsistentHashRing picks the server, so a membership
+ * change inside one zone only rebuilds that zone's ring.
+ *
+ * The second level routes a remixed hash, independent of the first: reusing
+ * the zone-level hash would confine each zone's keys to a few arcs of its
+ * ring. A zone with no healthy server passes its keys on to the next zone
+ * clockwise. Lookups hash once and do not allocate.
+ *
+ * Optional locality: getServer(key, callerZone) keeps a key in the caller's
+ * zone as long as that zone has not taken more than (1 + epsilon) times its
+ * weighted share of the lookups routed so far; beyond that, keys go to
+ * their home zone. Replica lists take one server per zone before reusing a
+ * zone, so replicas land in different failure domains.
+ *
+ * Servers name their zone as "zone/server" when added through the KeyRouter
+ * interface; addServer(zone, server) takes the zone explicitly.
+ */
+public class ZoneAwareRouter implements KeyRouter {
+    public static final String DEFAULT_ZONE = "default";
+    private static final int ZONE_VIRTUAL_NODES = 100;
+
+    private final HashFunction hashFunction;
+    private final int virtualNodes;
+    private final ConsistentHashRing zoneRing;
+    private final Object writeLock = new Object();
+    private volatile Map<String, Zone> zones = Collections.emptyMap();
+    private volatile Map<String, String> serverZones = Collections.emptyMap();
+    private volatile double localityEpsilon = -1;
+    private final LongAdder routed = new LongAdder();
+
+    public ZoneAwareRouter() {
+        this(HashFunction.murmur3(), 100);
+    }
+
+    /**
+     * Create a router
+     *
+     * @param hashFunction Hash function for zones, servers and keys
+     * @param virtualNodes Virtual nodes per server in every zone ring
+     */
+    public ZoneAwareRouter(HashFunction hashFunction, int virtualNodes) {
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        this.virtualNodes = virtualNodes;
+        this.zoneRing = new ConsistentHashRing(hashFunction, ZONE_VIRTUAL_NODES);
+    }
+
+    /**
+     * Add a zone; its share of keys is weight / total weight of all zones.
+     * Zones are also created (with weight 1) by the first server added to them.
+     *
+     * @param zone   Zone name
+     * @param weight Relative share of keys (at least 1)
+     */
+    public void addZone(String zone, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be at least 1: " + weight);
+        }
+        synchronized (writeLock) {
+            if (zones.containsKey(zone)) return;
+            Map<String, Zone> updated = new HashMap<>(zones);
+            updated.put(zone, new Zone(new ConsistentHashRing(hashFunction, virtualNodes), weight));
+            // Publish the zone before the zone ring can route to it
+            zones = updated;
+            zoneRing.addServer(zone, weight);
+        }
+    }
+
+    /**
+     * Remove a zone and all its servers; its keys move to the remaining zones
+     *
+     * @param zone Zone name
+     */
+    public void removeZone(String zone) {
+        synchronized (writeLock) {
+            Zone removed = zones.get(zone);
+            if (removed == null) return;
+            zoneRing.removeServer(zone);
+            Map<String, Zone> updated = new HashMap<>(zones);
+            updated.remove(zone);
+            zones = updated;
+            Map<String, String> updatedServers = new HashMap<>(serverZones);
+            updatedServers.values().removeIf(zone::equals);
+            serverZones = updatedServers;
+        }
+    }
+
+    /**
+     * Add a server named "zone/server" (no slash: the default zone)
+     *
+     * @param server Zone-qualified server identifier
+     */
+    @Override
+    public void addServer(String server) {
+        int slash = server.indexOf('/');
+        addServer(slash < 0 ? DEFAULT_ZONE : server.substring(0, slash), server);
+    }
+
+    /**
+     * Add a server to a zone; only that zone's ring changes
+     *
+     * @param zone   Zone name
+     * @param server Server identifier (unique across zones)
+     */
+    public void addServer(String zone, String server) {
+        synchronized (writeLock) {
+            String existing = serverZones.get(server);
+            if (existing != null) return;
+            addZone(zone, 1);
+            zones.get(zone).ring.addServer(server);
+            Map<String, String> updated = new HashMap<>(serverZones);
+            updated.put(server, zone);
+            serverZones = updated;
+        }
+    }
+
+    @Override
+    public void removeServer(String server) {
+        synchronized (writeLock) {
+            String zone = serverZones.get(server);
+            if (zone == null) return;
+            zones.get(zone).ring.removeServer(server);
+            Map<String, String> updated = new HashMap<>(serverZones);
+            updated.remove(server);
+            serverZones = updated;
+        }
+    }
+
+    /**
+     * Route around a server without changing any ring layout
+     *
+     * @param server Server to mark down
+     * @return true if the server was up and is now down
+     */
+    public boolean markDown(String server) {
+        Zone zone = zoneOfServer(server);
+        return zone != null && zone.ring.markDown(server);
+    }
+
+    public boolean markUp(String server) {
+        Zone zone = zoneOfServer(server);
+        return zone != null && zone.ring.markUp(server);
+    }
+
+    private Zone zoneOfServer(String server) {
+        String zone = serverZones.get(server);
+        return zone == null ? null : zones.get(zone);
+    }
+
+    @Override
+    public String getServer(String key) {
+        long hash = hashFunction.hash(key);
+        return serverInZoneOrder(zoneRing.getSnapshot(), hash, remix(hash));
+    }
+
+    /**
+     * Route a key, preferring the caller's zone while it stays within its
+     * imbalance bound (see preferLocalZone); without locality this is getServer(key)
+     *
+     * @param key        Key to route
+     * @param callerZone Zone of the caller
+     * @return Server identifier or null if no zone has a healthy server
+     */
+    public String getServer(String key, String callerZone) {
+        long hash = hashFunction.hash(key);
+        long serverHash = remix(hash);
+        double epsilon = localityEpsilon;
+        if (epsilon < 0) return serverInZoneOrder(zoneRing.getSnapshot(), hash, serverHash);
+
+        Map<String, Zone> current = zones;
+        Zone local = current.get(callerZone);
+        RingSnapshot zoneSnapshot = zoneRing.getSnapshot();
+        int home = zoneSnapshot.routeIndex(hash);
+        if (local != null && home >= 0 && !zoneSnapshot.serverAt(home).equals(callerZone)) {
+            double share = (double) local.weight / totalWeight(current);
+            if (local.routed.sum() + 1 <= (1 + epsilon) * (routed.sum() + 1) * share) {
+                String server = local.ring.getSnapshot().serverFor(serverHash);
+                if (server != null) {
+                    local.routed.increment();
+                    routed.increment();
+                    return server;
+                }
+            }
+        }
+        String server = serverInZoneOrder(zoneSnapshot, hash, serverHash);
+        if (server != null) {
+            Zone zone = current.get(serverZones.get(server));
+            if (zone != null) zone.routed.increment();
+            routed.increment();
+        }
+        return server;
+    }
+
+    /**
+     * Enable local-zone preference for getServer(key, callerZone)
+     *
+     * @param epsilon Allowed overload of a zone above its weighted share of lookups (e.g. 0.2)
+     */
+    public void preferLocalZone(double epsilon) {
+        if (!(epsilon >= 0)) {
+            throw new IllegalArgumentException("epsilon must not be negative: " + epsilon);
+        }
+        localityEpsilon = epsilon;
+    }
+
+    public void disableLocalZonePreference() {
+        localityEpsilon = -1;
+    }
+
+    /**
+     * Lookups routed to each zone through getServer(key, callerZone) with locality enabled
+     *
+     * @return Zone to lookups
+     */
+    public Map<String, Long> getZoneLoads() {
+        Map<String, Long> loads = new HashMap<>();
+        zones.forEach((zone, state) -> loads.put(zone, state.routed.sum()));
+        return loads;
+    }
+
+    /**
+     * Replica list spread over failure domains: one server from each zone
+     * clockwise from the key before a second server of any zone
+     *
+     * @param key      Key to route
+     * @param replicas Number of distinct servers wanted
+     * @return Servers in preference order
+     */
+    public List<String> getServers(String key, int replicas) {
+        long hash = hashFunction.hash(key);
+        long serverHash = remix(hash);
+        RingSnapshot zoneSnapshot = zoneRing.getSnapshot();
+        Map<String, Zone> current = zones;
+        List<RingSnapshot> zoneOrder = new ArrayList<>();
+        int index = zoneSnapshot.indexFor(hash);
+        for (int step = 0; step < zoneSnapshot.size() && index >= 0 && zoneOrder.size() < zoneSnapshot.serverCount(); step++) {
+            Zone zone = current.get(zoneSnapshot.serverAt(index));
+            if (zone != null && !zoneOrderContains(zoneOrder, zone.ring.getSnapshot())) {
+                zoneOrder.add(zone.ring.getSnapshot());
+            }
+            index = zoneSnapshot.nextDistinctAt(index);
+        }
+
+        List<String> result = new ArrayList<>();
+        for (int round = 0; result.size() < replicas; round++) {
+            boolean added = false;
+            for (RingSnapshot ring : zoneOrder) {
+                if (result.size() == replicas) break;
+                int[] ordinals = ring.replicasFor(serverHash, round + 1);
+                if (ordinals.length > round) {
+                    result.add(ring.server(ordinals[round]));
+                    added = true;
+                }
+            }
+            if (!added) break;
+        }
+        return result;
+    }
+
+    private static boolean zoneOrderContains(List<RingSnapshot> zoneOrder, RingSnapshot ring) {
+        for (RingSnapshot existing : zoneOrder) {
+            if (existing == ring) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Home zone first, then the following zones clockwise, until one has a healthy server
+     */
+    private String serverInZoneOrder(RingSnapshot zoneSnapshot, long hash, long serverHash) {
+        Map<String, Zone> current = zones;
+        int index = zoneSnapshot.indexFor(hash);
+        for (int step = 0; step < zoneSnapshot.size() && index >= 0; step++) {
+            Zone zone = current.get(zoneSnapshot.serverAt(index));
+            if (zone != null) {
+                String server = zone.ring.getSnapshot().serverFor(serverHash);
+                if (server != null) return server;
+            }
+            index = zoneSnapshot.nextDistinctAt(index);
+        }
+        return null;
+    }
+
+    private static int totalWeight(Map<String, Zone> zones) {
+        int total = 0;
+        for (Zone zone : zones.values()) {
+            total += zone.weight;
+        }
+        return total;
+    }
+
+    /**
+     * Independent non-negative hash for the second level
+     */
+    private static long remix(long hash) {
+        return Murmur3HashFunction.fmix64(hash ^ 0x9E3779B97F4A7C15L) >>> 1;
+    }
+
+    @Override
+    public Set<String> getAllServers() {
+        return new LinkedHashSet<>(serverZones.keySet());
+    }
+
+    /**
+     * Zone a server belongs to
+     *
+     * @param server Server identifier
+     * @return Zone name or null if the server is not a member
+     */
+    public String getZone(String server) {
+        return serverZones.get(server);
+    }
+
+    public Set<String> getZones() {
+        return new LinkedHashSet<>(zones.keySet());
+    }
+
+    /**
+     * The ring of one zone, e.g. to inspect its snapshot or epoch
+     *
+     * @param zone Zone name
+     * @return Zone ring or null if the zone does not exist
+     */
+    public ConsistentHashRing getZoneRing(String zone) {
+        Zone state = zones.get(zone);
+        return state == null ? null : state.ring;
+    }
+
+    private static final class Zone {
+        final ConsistentHashRing ring;
+        final int weight;
+        final LongAdder routed = new LongAdder();
+
+        Zone(ConsistentHashRing ring, int weight) {
+            this.ring = ring;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reader threads route keys while writer threads add and remove servers;
+ * every snapshot a reader observes must be complete and epochs must never
+ * go backwards.
+ */
+class ConcurrentRingStressTest {
+    private static final int READERS = 4;
+    private static final int WRITERS = 2;
+    private static final int SERVERS_PER_WRITER = 32;
+    private static final long DURATION_MILLIS = 1500;
+
+    @Test
+    void readersNeverSeeHalfAppliedChanges() throws InterruptedException {
+        ConsistentHashRing ring = new ConsistentHashRing();
+        for (int i = 0; i < 8; i++) {
+            ring.addServer("Stable-" + i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong lookups = new AtomicLong();
+        AtomicLong snapshotsChecked = new AtomicLong();
+        AtomicLong violations = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                int round = 0;
+                while (running.get()) {
+                    String server = "Churn-" + writer + "-" + (round % SERVERS_PER_WRITER);
+                    if ((round / SERVERS_PER_WRITER) % 2 == 0) {
+                        ring.addServer(server);
+                    } else {
+                        ring.removeServer(server);
+                    }
+                    round++;
+                }
+            }, "writer-" + w));
+        }
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                long lastEpoch = -1;
+                long count = 0;
+                while (running.get()) {
+                    RingSnapshot snapshot = ring.getSnapshot();
+                    if (snapshot.epoch() < lastEpoch) {
+                        violations.incrementAndGet();
+                    }
+                    if (snapshot.epoch() != lastEpoch) {
+                        if (!isConsistent(snapshot)) {
+                            violations.incrementAndGet();
+                        }
+                        snapshotsChecked.incrementAndGet();
+                        lastEpoch = snapshot.epoch();
+                    }
+                    for (int i = 0; i < 256; i++) {
+                        if (snapshot.getServer("key_" + (count++ & 0xFFFF)) == null) {
+                            violations.incrementAndGet();
+                        }
+                    }
+                }
+                lookups.addAndGet(count);
+            }, "reader-" + r));
+        }
+
+        threads.forEach(Thread::start);
+        Thread.sleep(DURATION_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, violations.get(), "violations");
+        assertTrue(lookups.get() > 0, "readers made progress");
+        assertTrue(snapshotsChecked.get() > 1, "readers saw membership changes");
+    }
+
+    /**
+     * A snapshot is consistent when positions are sorted, every position has a
+     * valid owner, every member owns a position, and each member's own hash
+     * routes back to it.
+     */
+    private static boolean isConsistent(RingSnapshot snapshot) {
+        BitSet owned = new BitSet(snapshot.serverCount());
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (i > 0 && snapshot.positionAt(i - 1) >= snapshot.positionAt(i)) return false;
+            int owner = snapshot.ownerAt(i);
+            if (owner < 0 || owner >= snapshot.serverCount()) return false;
+            owned.set(owner);
+        }
+        if (owned.cardinality() != snapshot.serverCount()) return false;
+
+        for (int s = 0; s < snapshot.serverCount(); s++) {
+            String server = snapshot.server(s);
+            if (!server.equals(snapshot.serverFor(snapshot.hashFunction().hash(server)))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replica lists, bounded-load routing and the health overlay of ConsistentHashRing.
+ */
+class ConsistentHashRingTest {
+
+    private static ConsistentHashRing ring(int servers) {
+        ConsistentHashRing ring = new ConsistentHashRing();
+        for (int i = 0; i < servers; i++) {
+            ring.addServer("Server-" + i, 1 + i % 3);
+        }
+        return ring;
+    }
+
+    @Test
+    void replicasAreDistinctAndStartWithTheOwner() {
+        ConsistentHashRing ring = ring(8);
+        for (int k = 0; k < 5_000; k++) {
+            String key = "key_" + k;
+            List<String> replicas = ring.getServers(key, 3);
+            assertEquals(3, replicas.size());
+            assertEquals(3, new HashSet<>(replicas).size(), "distinct replicas for " + key);
+            assertEquals(ring.getServer(key), replicas.get(0));
+        }
+    }
+
+    @Test
+    void replicasAreCappedAtTheServerCount() {
+        ConsistentHashRing ring = ring(4);
+        List<String> replicas = ring.getServers("key", 10);
+        assertEquals(ring.getAllServers(), new HashSet<>(replicas));
+        assertTrue(ring(0).getServers("key", 3).isEmpty());
+    }
+
+    @Test
+    void replicasSkipDownServers() {
+        ConsistentHashRing ring = ring(5);
+        ring.markDown("Server-2");
+        for (int k = 0; k < 2_000; k++) {
+            String key = "key_" + k;
+            List<String> replicas = ring.getServers(key, 5);
+            assertEquals(4, replicas.size());
+            assertFalse(replicas.contains("Server-2"));
+            assertEquals(ring.getServer(key), replicas.get(0));
+        }
+    }
+
+    @Test
+    void boundedLoadNeverExceedsTheCap() {
+        ConsistentHashRing ring = ring(6);
+        double epsilon = 0.25;
+        ring.enableBoundedLoad(epsilon);
+        int servers = ring.getAllServers().size();
+        // A skewed workload: few distinct keys, so plain hashing would overload their owners
+        for (int total = 1; total <= 3_000; total++) {
+            assertTrue(ring.acquire("hot_" + (total % 7)) != null);
+            long cap = (long) Math.ceil((1 + epsilon) * total / servers);
+            for (long load : ring.getLoads().values()) {
+                assertTrue(load <= cap, "load " + load + " above cap " + cap + " after " + total + " acquires");
+            }
+        }
+    }
+
+    @Test
+    void boundedLoadSkipsDownServers() {
+        ConsistentHashRing ring = ring(4);
+        ring.markDown("Server-1");
+        ring.enableBoundedLoad(0.5);
+        for (int k = 0; k < 500; k++) {
+            assertFalse("Server-1".equals(ring.acquire("key_" + k)));
+        }
+        assertEquals(0, ring.getLoad("Server-1"));
+    }
+
+    @Test
+    void releasesSurviveBoundedLoadToggles() {
+        ConsistentHashRing ring = ring(3);
+        ring.enableBoundedLoad(0.25);
+        String first = ring.acquire("a");
+        ring.disableBoundedLoad();
+        assertThrows(IllegalStateException.class, () -> ring.acquire("b"));
+        ring.enableBoundedLoad(0.5);
+        String second = ring.acquire("b");
+        ring.release(first);
+        ring.release(second);
+        for (long load : ring.getLoads().values()) {
+            assertEquals(0, load);
+        }
+    }
+
+    @Test
+    void reweightingKeepsAServerDown() {
+        ConsistentHashRing ring = ring(4);
+        ring.markDown("Server-0");
+        ring.applyChanges(Map.of("Server-0", 5), Set.of("Server-0"));
+        assertTrue(ring.isDown("Server-0"));
+        assertEquals(5 * ring.getVirtualNodes(), ring.getPositionCount("Server-0"));
+
+        ring.removeServer("Server-0");
+        ring.addServer("Server-0");
+        assertFalse(ring.isDown("Server-0"), "a removed server comes back up");
+    }
+
+    @Test
+    void allServersDownRoutesNowhere() {
+        ConsistentHashRing ring = ring(2);
+        ring.markDown("Server-0");
+        ring.markDown("Server-1");
+        assertEquals(null, ring.getServer("key"));
+        assertTrue(ring.getServers("key", 2).isEmpty());
+        ring.markUp("Server-1");
+        assertEquals("Server-1", ring.getServer("key"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.hashing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Encoding, following and compacting a MembershipLog: a follower must end
+ * up routing exactly like a ring built from the log's membership.
+ */
+class MembershipLogTest {
+    @TempDir
+    Path dir;
+
+    private static MembershipLog log() {
+        MembershipLog log = new MembershipLog();
+        log.append(List.of(MembershipEntry.add("A", 1), MembershipEntry.add("B", 2), MembershipEntry.add("C", 1)));
+        log.append(List.of(MembershipEntry.add("D", 3)));
+        log.append(List.of(MembershipEntry.weight("B", 4), MembershipEntry.remove("C")));
+        log.append(List.of(MembershipEntry.add("C", 2), MembershipEntry.remove("A")));
+        return log;
+    }
+
+    private static void assertMatchesLog(MembershipLog log, MembershipFollower follower) {
+        assertEquals(log.getEpoch(), follower.getEpoch());
+        assertEquals(log.getMembership(), follower.getMembership());
+
+        ConsistentHashRing expected = new ConsistentHashRing();
+        expected.applyChanges(log.getMembership(), Set.of());
+        ConsistentHashRing actual = follower.getRing();
+        assertEquals(expected.getRingSize(), actual.getRingSize());
+        for (int k = 0; k < 5_000; k++) {
+            assertEquals(expected.getServer("key_" + k), actual.getServer("key_" + k));
+        }
+    }
+
+    @Test
+    void appendTracksMembershipAndEpoch() {
+        MembershipLog log = log();
+        assertEquals(4, log.getEpoch());
+        assertEquals(4, log.getRecordCount());
+        assertEquals(Map.of("B", 4, "C", 2, "D", 3), log.getMembership());
+    }
+
+    @Test
+    void appendRejectsEntriesThatDoNotMatchMembership() {
+        MembershipLog log = log();
+        assertThrows(IllegalArgumentException.class, () -> log.append(List.of(MembershipEntry.add("B", 1))));
+        assertThrows(IllegalArgumentException.class, () -> log.append(List.of(MembershipEntry.remove("A"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> log.append(List.of(MembershipEntry.add("E", 1), MembershipEntry.remove("E"))));
+        assertEquals(4, log.getEpoch());
+    }
+
+    @Test
+    void followerCatchesUpRecordByRecord() {
+        MembershipLog log = new MembershipLog();
+        MembershipFollower follower = new MembershipFollower(new ConsistentHashRing());
+        // Apply each delta as it is appended
+        for (String server : List.of("A", "B", "C", "D")) {
+            long before = follower.getEpoch();
+            log.append(List.of(MembershipEntry.add(server, 1 + server.charAt(0) % 3)));
+            assertEquals(1, follower.apply(ByteBuffer.wrap(log.encodeSince(before))));
+            assertMatchesLog(log, follower);
+        }
+        log.append(List.of(MembershipEntry.weight("D", 5)));
+        log.append(List.of(MembershipEntry.remove("A")));
+        assertEquals(2, follower.apply(ByteBuffer.wrap(log.encodeSince(follower.getEpoch()))));
+        assertMatchesLog(log, follower);
+        assertEquals(0, follower.apply(ByteBuffer.wrap(log.encodeSince(2))), "stale delta is skipped");
+        assertMatchesLog(log, follower);
+    }
+
+    @Test
+    void newFollowerAppliesTheWholeLog() {
+        MembershipLog log = log();
+        MembershipFollower follower = new MembershipFollower(new ConsistentHashRing());
+        follower.apply(ByteBuffer.wrap(log.encodeSince(0)));
+        assertMatchesLog(log, follower);
+    }
+
+    @Test
+    void compactionSendsFullUpdatesToFollowersBehindTheCheckpoint() {
+        MembershipLog log = log();
+        MembershipFollower upToDate = new MembershipFollower(new ConsistentHashRing());
+        upToDate.apply(ByteBuffer.wrap(log.encodeSince(0)));
+
+        assertTrue(log.compact(3) > 0);
+        assertEquals(3, log.getBaseEpoch());
+        assertEquals(1, log.getRecordCount());
+        assertEquals(4, log.getEpoch());
+        assertEquals(Map.of("B", 4, "C", 2, "D", 3), log.getMembership());
+        assertEquals(MembershipLog.FULL, log.encodeSince(1)[0]);
+        assertEquals(MembershipLog.DELTA, log.encodeSince(3)[0]);
+
+        // A follower with servers the log no longer has is reconciled by the full update
+        ConsistentHashRing stale = new ConsistentHashRing();
+        stale.addServer("A");
+        stale.addServer("Z");
+        MembershipFollower behind = new MembershipFollower(stale);
+        behind.apply(ByteBuffer.wrap(log.encodeSince(0)));
+        assertMatchesLog(log, behind);
+
+        log.append(List.of(MembershipEntry.add("E", 1)));
+        upToDate.apply(ByteBuffer.wrap(log.encodeSince(upToDate.getEpoch())));
+        behind.apply(ByteBuffer.wrap(log.encodeSince(behind.getEpoch())));
+        assertMatchesLog(log, upToDate);
+        assertMatchesLog(log, behind);
+    }
+
+    @Test
+    void deltaFromTheFutureIsRejected() {
+        MembershipLog log = log();
+        MembershipFollower follower = new MembershipFollower(new ConsistentHashRing());
+        assertThrows(IllegalStateException.class, () -> follower.apply(ByteBuffer.wrap(log.encodeSince(2))));
+        assertThrows(IllegalArgumentException.class, () -> log.encodeSince(5));
+    }
+
+    @Test
+    void writeAndReadRoundTrip() throws IOException {
+        MembershipLog log = log();
+        log.compact(2);
+        Path file = dir.resolve("membership.log");
+        log.write(file);
+
+        MembershipLog read = MembershipLog.read(file);
+        assertEquals(log.getEpoch(), read.getEpoch());
+        assertEquals(log.getBaseEpoch(), read.getBaseEpoch());
+        assertEquals(log.getMembership(), read.getMembership());
+        assertEquals(log.getRecordCount(), read.getRecordCount());
+
+        MembershipFollower follower = new MembershipFollower(new ConsistentHashRing());
+        follower.apply(ByteBuffer.wrap(read.encodeSince(0)));
+        assertMatchesLog(log, follower);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * OffHeapRing must place and route exactly like ConsistentHashRing through
+ * membership and health changes.
+ */
+class OffHeapRingTest {
+
+    private static void assertSameRing(ConsistentHashRing expected, OffHeapRing actual, Random random) {
+        RingSnapshot heap = expected.getSnapshot();
+        RingSnapshot offHeap = actual.toSnapshot();
+        assertEquals(expected.getAllServers(), actual.getAllServers());
+        assertEquals(expected.getDownServers(), actual.getDownServers());
+        assertEquals(heap.size(), actual.getRingSize());
+        for (int i = 0; i < heap.size(); i++) {
+            assertEquals(heap.positionAt(i), offHeap.positionAt(i));
+            assertEquals(heap.serverAt(i), offHeap.serverAt(i));
+        }
+        for (int k = 0; k < 2_000; k++) {
+            long hash = random.nextLong();
+            assertEquals(heap.serverFor(hash), actual.serverFor(hash));
+        }
+        // Hashes at and around positions exercise exact matches and the wrap-around
+        for (int i = 0; i < heap.size(); i += 7) {
+            long position = heap.positionAt(i);
+            assertEquals(heap.serverFor(position), actual.serverFor(position));
+            assertEquals(heap.serverFor(position + 1), actual.serverFor(position + 1));
+        }
+    }
+
+    @Test
+    void matchesTheHeapRingThroughRandomChanges() {
+        ConsistentHashRing heap = new ConsistentHashRing();
+        OffHeapRing offHeap = new OffHeapRing(heap.getHashFunction(), heap.getVirtualNodes());
+        Random random = new Random(42);
+        List<String> members = new ArrayList<>();
+        int next = 0;
+
+        for (int step = 0; step < 200; step++) {
+            int op = members.isEmpty() ? 0 : random.nextInt(6);
+            switch (op) {
+                case 0, 1 -> {
+                    String server = "Server-" + next++;
+                    int weight = 1 + random.nextInt(3);
+                    heap.addServer(server, weight);
+                    offHeap.addServer(server, weight);
+                    members.add(server);
+                }
+                case 2 -> {
+                    String server = members.remove(random.nextInt(members.size()));
+                    heap.removeServer(server);
+                    offHeap.removeServer(server);
+                }
+                case 3 -> {
+                    String removed = members.remove(random.nextInt(members.size()));
+                    String added = "Server-" + next++;
+                    members.add(added);
+                    assertEquals(heap.applyChanges(Set.of(added), Set.of(removed)),
+                            offHeap.applyChanges(Set.of(added), Set.of(removed)));
+                }
+                case 4 -> {
+                    String server = members.get(random.nextInt(members.size()));
+                    assertEquals(heap.markDown(server), offHeap.markDown(server));
+                }
+                default -> {
+                    String server = members.get(random.nextInt(members.size()));
+                    assertEquals(heap.markUp(server), offHeap.markUp(server));
+                }
+            }
+            assertSameRing(heap, offHeap, random);
+        }
+    }
+
+    @Test
+    void copiesASnapshotWithDownServers() {
+        ConsistentHashRing heap = new ConsistentHashRing();
+        for (int i = 0; i < 6; i++) {
+            heap.addServer("Server-" + i, 1 + i % 2);
+        }
+        heap.markDown("Server-4");
+        OffHeapRing offHeap = new OffHeapRing(heap.getSnapshot(), heap.getVirtualNodes());
+        assertSameRing(heap, offHeap, new Random(7));
+
+        heap.markUp("Server-4");
+        offHeap.markUp("Server-4");
+        assertSameRing(heap, offHeap, new Random(8));
+    }
+
+    @Test
+    void routesNowhereWhenEveryServerIsDown() {
+        OffHeapRing ring = new OffHeapRing(new ConsistentHashRing().getHashFunction(), 16);
+        assertNull(ring.getServer("key"));
+        ring.addServer("A");
+        ring.addServer("B");
+        ring.markDown("A");
+        ring.markDown("B");
+        assertNull(ring.getServer("key"));
+        ring.markUp("B");
+        assertEquals("B", ring.getServer("key"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.hashing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Writing a ring with RingSnapshotWriter and mapping it back with RingSnapshotLoader.
+ */
+class RingSnapshotFileTest {
+    @TempDir
+    Path dir;
+
+    private static ConsistentHashRing ring() {
+        ConsistentHashRing ring = new ConsistentHashRing();
+        for (int i = 0; i < 10; i++) {
+            ring.addServer("Server-" + i, 1 + i % 4);
+        }
+        return ring;
+    }
+
+    private static void assertSameRouting(ConsistentHashRing expected, MappedRing actual) {
+        RingSnapshot snapshot = expected.getSnapshot();
+        assertEquals(snapshot.epoch(), actual.epoch());
+        assertEquals(snapshot.size(), actual.size());
+        assertEquals(expected.getAllServers(), actual.getAllServers());
+        assertEquals(expected.getDownServers(), actual.getDownServers());
+        for (int i = 0; i < snapshot.size(); i++) {
+            assertEquals(snapshot.positionAt(i), actual.positionAt(i));
+            assertEquals(snapshot.serverAt(i), actual.serverAt(i));
+        }
+        for (int k = 0; k < 10_000; k++) {
+            String key = "key_" + k;
+            assertEquals(expected.getServer(key), actual.getServer(key), key);
+        }
+    }
+
+    @Test
+    void roundTripRoutesLikeTheSourceRing() throws IOException {
+        ConsistentHashRing ring = ring();
+        Path file = dir.resolve("ring.snap");
+        RingSnapshotWriter.write(ring, file);
+
+        MappedRing mapped = RingSnapshotLoader.load(file);
+        assertSameRouting(ring, mapped);
+        assertEquals(ring.getVirtualNodes(), mapped.getVirtualNodes());
+
+        ConsistentHashRing restored = mapped.toRing();
+        for (int k = 0; k < 10_000; k++) {
+            assertEquals(ring.getServer("key_" + k), restored.getServer("key_" + k));
+        }
+    }
+
+    @Test
+    void roundTripKeepsDownServers() throws IOException {
+        ConsistentHashRing ring = ring();
+        ring.markDown("Server-3");
+        ring.markDown("Server-7");
+        Path file = dir.resolve("ring.snap");
+        RingSnapshotWriter.write(ring, file);
+
+        MappedRing mapped = RingSnapshotLoader.load(file);
+        assertEquals(Set.of("Server-3", "Server-7"), mapped.getDownServers());
+        assertSameRouting(ring, mapped);
+        assertEquals(ring.getDownServers(), mapped.toRing().getDownServers());
+    }
+
+    @Test
+    void rewritingALoadedSnapshotIsByteIdentical() throws IOException {
+        ConsistentHashRing ring = ring();
+        ring.markDown("Server-1");
+        Path first = dir.resolve("first.snap");
+        Path second = dir.resolve("second.snap");
+        RingSnapshotWriter.write(ring, first);
+        MappedRing mapped = RingSnapshotLoader.load(first);
+        RingSnapshotWriter.write(mapped.toSnapshot(), mapped.getVirtualNodes(), second);
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    @Test
+    void corruptFilesAreRejected() throws IOException {
+        Path file = dir.resolve("ring.snap");
+        RingSnapshotWriter.write(ring(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> RingSnapshotLoader.load(file));
+    }
+}
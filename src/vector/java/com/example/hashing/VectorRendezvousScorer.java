@@ -0,0 +1,58 @@
+package com.example.hashing;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * RendezvousScorer on the jdk.incubator.vector API. The first pass scores a
+ * full vector of seeds per step, keeping a lane-wise maximum and writing
+ * the scores to a per-thread scratch array; the winner is then found with
+ * one scan for the maximum. Tracking the winning index inside the vector
+ * loop (a reduction or blend per step) measured slower than the extra scan.
+ *
+ * Built by the vector profile and loaded by RendezvousRouter when the JVM
+ * runs with --add-modules jdk.incubator.vector.
+ */
+final class VectorRendezvousScorer implements RendezvousScorer {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final ThreadLocal<long[]> SCRATCH = ThreadLocal.withInitial(() -> new long[256]);
+
+    VectorRendezvousScorer() {
+        // Fail here, not on the first lookup, when the module is missing
+        LongVector.zero(SPECIES);
+    }
+
+    @Override
+    public int best(long hash, long[] seeds, int count) {
+        long[] scores = SCRATCH.get();
+        if (scores.length < count) {
+            scores = new long[Math.max(count, scores.length * 2)];
+            SCRATCH.set(scores);
+        }
+
+        LongVector max = LongVector.broadcast(SPECIES, -1);
+        int i = 0;
+        int bound = SPECIES.loopBound(count);
+        for (; i < bound; i += SPECIES.length()) {
+            LongVector x = LongVector.fromArray(SPECIES, seeds, i).lanewise(VectorOperators.XOR, hash);
+            x = x.mul(0xff51afd7ed558ccdL);
+            x = x.lanewise(VectorOperators.XOR, x.lanewise(VectorOperators.LSHR, 33));
+            x = x.mul(0xc4ceb9fe1a85ec53L);
+            x = x.lanewise(VectorOperators.XOR, x.lanewise(VectorOperators.LSHR, 33));
+            x = x.lanewise(VectorOperators.LSHR, 1);
+            x.intoArray(scores, i);
+            max = max.max(x);
+        }
+        long bestScore = max.reduceLanes(VectorOperators.MAX);
+        for (; i < count; i++) {
+            scores[i] = RendezvousScorer.score(hash, seeds[i]);
+            bestScore = Math.max(bestScore, scores[i]);
+        }
+
+        for (int j = 0; j < count; j++) {
+            if (scores[j] == bestScore) return j;
+        }
+        return 0;
+    }
+}